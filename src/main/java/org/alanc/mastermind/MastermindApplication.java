@@ -1,44 +1,214 @@
 package org.alanc.mastermind;
 
+import org.alanc.mastermind.config.DurabilityMode;
+import org.alanc.mastermind.config.HedgingConfig;
+import org.alanc.mastermind.config.HttpClientConfig;
+import org.alanc.mastermind.config.PersistenceConfig;
+import org.alanc.mastermind.config.StorageBackend;
 import org.alanc.mastermind.manager.GameManager;
+import org.alanc.mastermind.random.HttpClientFactory;
 import org.alanc.mastermind.random.QuotaChecker;
 import org.alanc.mastermind.random.RandomOrgService;
 import org.alanc.mastermind.util.GameTerminatedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
 /**
  * Main application class for Mastermind.
  * Handles application bootstrapping, resource management, and graceful shutdown.
  */
 public class MastermindApplication {
     private static final Logger logger = LoggerFactory.getLogger(MastermindApplication.class);
+    private static final Duration QUOTA_REFRESH_INTERVAL = Duration.ofMinutes(5);
+    private static final String STORAGE_PROPERTY = "mastermind.storage";
+    private static final String DATABASE_PATH_PROPERTY = "mastermind.db";
+    private static final String EVENT_LOG_DIRECTORY_PROPERTY = "mastermind.events";
+    private static final String RETENTION_PROPERTY = "mastermind.retention";
+    private static final String SHARDS_PROPERTY = "mastermind.shards";
+    private static final String DURABILITY_PROPERTY = "mastermind.durability";
+    private static final String HTTP_CONNECT_TIMEOUT_PROPERTY = "mastermind.http.connectTimeout";
+    private static final String HTTP_READ_TIMEOUT_PROPERTY = "mastermind.http.readTimeout";
+    private static final String HTTP_IDLE_CONNECTIONS_PROPERTY = "mastermind.http.idleConnections";
+    private static final String HTTP_KEEP_ALIVE_PROPERTY = "mastermind.http.keepAlive";
+    private static final String HTTP2_PROPERTY = "mastermind.http.http2";
+
+    private volatile GameManager activeGameManager;
 
     public void run() {
         logger.info("Starting Mastermind application");
 
         setupShutdownHook();
+        HttpClientFactory.configure(httpClientConfig());
+
+        QuotaChecker quotaChecker = new QuotaChecker();
+        quotaChecker.startBackgroundRefresh(QUOTA_REFRESH_INTERVAL);
+
+        PersistenceConfig persistenceConfig = new PersistenceConfig.Builder()
+                .backend(storageBackend())
+                .databasePath(System.getProperty(DATABASE_PATH_PROPERTY, PersistenceConfig.DEFAULT_DATABASE_PATH))
+                .eventLogDirectory(System.getProperty(EVENT_LOG_DIRECTORY_PROPERTY,
+                        PersistenceConfig.DEFAULT_EVENT_LOG_DIRECTORY))
+                .shardCount(shardCount())
+                .retention(retention())
+                .durability(durability())
+                .build();
 
-        try (GameManager gameManager = new GameManager(new RandomOrgService())) {
+        try (GameManager gameManager = new GameManager(
+                new RandomOrgService(quotaChecker), quotaChecker, HedgingConfig.defaults(), persistenceConfig)) {
+            activeGameManager = gameManager;
             gameManager.launch();
         } catch (GameTerminatedException e) {
             logger.info("Game terminated gracefully: {}", e.getMessage());
         } catch (Exception e) {
             logger.error("An unexpected error occurred during application execution", e);
             System.err.println("An error occurred: " + e.getMessage());
+        } finally {
+            activeGameManager = null;
         }
 
         logger.info("Mastermind application terminated");
     }
 
+    /**
+     * Reads the storage backend from the mastermind.storage system property (sqlite, in_memory or event_log),
+     * defaulting to SQLite.
+     */
+    private static StorageBackend storageBackend() {
+        String value = System.getProperty(STORAGE_PROPERTY, StorageBackend.SQLITE.name());
+        try {
+            return StorageBackend.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unknown storage backend '{}', using {}", value, StorageBackend.SQLITE);
+            return StorageBackend.SQLITE;
+        }
+    }
+
+    /**
+     * Reads the default durability of game saves from the mastermind.durability system property
+     * (per_guess, per_game_end or periodic_checkpoint), defaulting to saving at the end of each game.
+     * Games can still ask for more through their game configuration.
+     */
+    private static DurabilityMode durability() {
+        String value = System.getProperty(DURABILITY_PROPERTY, DurabilityMode.PER_GAME_END.name());
+        try {
+            return DurabilityMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unknown durability mode '{}', using {}", value, DurabilityMode.PER_GAME_END);
+            return DurabilityMode.PER_GAME_END;
+        }
+    }
+
+    /**
+     * Reads the retention period from the mastermind.retention system property as an ISO-8601
+     * duration such as P90D. Without it, finished games are never archived.
+     */
+    private static Duration retention() {
+        String value = System.getProperty(RETENTION_PROPERTY);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            Duration retention = Duration.parse(value.trim());
+            if (!retention.isNegative() && !retention.isZero()) {
+                return retention;
+            }
+        } catch (DateTimeParseException e) {
+            // Fall through to the warning below
+        }
+        logger.warn("Invalid retention period '{}', finished games will not be archived", value);
+        return null;
+    }
+
+    /**
+     * Reads the number of SQLite shard files from the mastermind.shards system property,
+     * defaulting to a single database file.
+     */
+    private static int shardCount() {
+        String value = System.getProperty(SHARDS_PROPERTY);
+        if (value == null || value.isBlank()) {
+            return 1;
+        }
+        try {
+            int shardCount = Integer.parseInt(value.trim());
+            if (shardCount > 0) {
+                return shardCount;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the warning below
+        }
+        logger.warn("Invalid shard count '{}', using a single database file", value);
+        return 1;
+    }
+
+    /**
+     * Reads the shared HTTP client settings from the mastermind.http.* system properties:
+     * connectTimeout, readTimeout and keepAlive as ISO-8601 durations such as PT5S,
+     * idleConnections as a count, and http2 as true or false. Unset or invalid values keep their defaults.
+     */
+    private static HttpClientConfig httpClientConfig() {
+        HttpClientConfig defaults = HttpClientConfig.defaults();
+        try {
+            return new HttpClientConfig.Builder()
+                    .connectTimeout(durationProperty(HTTP_CONNECT_TIMEOUT_PROPERTY, defaults.getConnectTimeout()))
+                    .readTimeout(durationProperty(HTTP_READ_TIMEOUT_PROPERTY, defaults.getReadTimeout()))
+                    .maxIdleConnections(intProperty(HTTP_IDLE_CONNECTIONS_PROPERTY, defaults.getMaxIdleConnections()))
+                    .keepAlive(durationProperty(HTTP_KEEP_ALIVE_PROPERTY, defaults.getKeepAlive()))
+                    .http2Enabled(Boolean.parseBoolean(
+                            System.getProperty(HTTP2_PROPERTY, String.valueOf(defaults.isHttp2Enabled())).trim()))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid HTTP client settings ({}), using defaults", e.getMessage());
+            return defaults;
+        }
+    }
+
+    private static Duration durationProperty(String name, Duration defaultValue) {
+        String value = System.getProperty(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Duration.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            logger.warn("Invalid duration '{}' for {}, using {}", value, name, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        String value = System.getProperty(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid number '{}' for {}, using {}", value, name, defaultValue);
+            return defaultValue;
+        }
+    }
+
     private void setupShutdownHook() {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             logger.info("Shutdown hook triggered - application terminating gracefully");
+            GameManager gameManager = activeGameManager;
+            if (gameManager != null) {
+                try {
+                    gameManager.flushPendingWrites();
+                    logger.debug("Pending game saves written successfully");
+                } catch (Exception e) {
+                    logger.warn("Error writing pending game saves", e);
+                }
+            }
             try {
-                QuotaChecker.shutdown();
-                logger.debug("QuotaChecker HTTP client shut down successfully");
+                HttpClientFactory.shutdown();
+                logger.debug("Shared HTTP client shut down successfully");
             } catch (Exception e) {
-                logger.warn("Error shutting down QuotaChecker", e);
+                logger.warn("Error shutting down shared HTTP client", e);
             }
             System.out.println("Closing application -- Goodbye!");
         }));
@@ -0,0 +1,32 @@
+package org.alanc.mastermind.config;
+
+/**
+ * How eagerly game saves are made durable on disk.
+ * The database always runs in WAL mode; each mode maps onto SQLite's synchronous pragma
+ * and on whether saves go through the write-behind queue.
+ */
+public enum DurabilityMode {
+    /**
+     * Every guess is committed and fsynced before the game continues.
+     * synchronous=FULL, no write-behind queue.
+     */
+    PER_GUESS,
+
+    /**
+     * Guesses are queued and committed without fsync; the end of a game flushes the queue
+     * and commits with an fsync. synchronous=NORMAL.
+     */
+    PER_GAME_END,
+
+    /**
+     * All saves are queued and committed without fsync; a periodic WAL checkpoint makes them
+     * durable. A crash may lose up to one checkpoint interval of saves.
+     * synchronous=NORMAL.
+     */
+    PERIODIC_CHECKPOINT;
+
+    /** @return true if saves in this mode go through the write-behind queue */
+    public boolean usesWriteBehind() {
+        return this != PER_GUESS;
+    }
+}
@@ -2,15 +2,17 @@ package org.alanc.mastermind.config;
 
 /**
  * Immutable configuration for Mastermind game parameters.
- * Defines maxAttempts (default: 10), codeLength (default: 4), and maxNumber (default: 7).
+ * Defines maxAttempts (default: 10), codeLength (default: 4), and maxNumber (default: 7),
+ * and optionally how durably the game's saves are written (default: the persistence configuration's mode).
  * Use the Builder pattern to create instances.
  */
 public final class GameConfig {
     private final int maxAttempts;
     private final int codeLength;
     private final int maxNumber;
+    private final DurabilityMode durability;
 
-    private GameConfig(int maxAttempts, int codeLength, int maxNumber) {
+    private GameConfig(int maxAttempts, int codeLength, int maxNumber, DurabilityMode durability) {
         if (maxAttempts <= 0) {
             throw new IllegalArgumentException("maxAttempts must be positive, got: " + maxAttempts);
         }
@@ -24,12 +26,15 @@ public final class GameConfig {
         this.maxAttempts = maxAttempts;
         this.codeLength = codeLength;
         this.maxNumber = maxNumber;
+        this.durability = durability;
     }
 
     // Getters
     public int getMaxAttempts() { return maxAttempts; }
     public int getCodeLength() { return codeLength; }
     public int getMaxNumber() { return maxNumber; }
+    /** @return the durability of this game's saves, or null to use the persistence configuration's mode */
+    public DurabilityMode getDurability() { return durability; }
 
     /**
      * Creates a GameConfig with default settings.
@@ -47,6 +52,7 @@ public final class GameConfig {
         private int maxAttempts = 10;
         private int codeLength = 4;
         private int maxNumber = 7;
+        private DurabilityMode durability;
 
         /**
          * Sets the maximum number of attempts allowed.
@@ -81,6 +87,18 @@ public final class GameConfig {
             return this;
         }
 
+        /**
+         * Sets how durably this game's saves are written, for example {@link DurabilityMode#PER_GUESS}
+         * for a ranked game in an application that otherwise saves at the end of each game.
+         *
+         * @param durability the durability mode, or null to use the persistence configuration's mode
+         * @return this builder for method chaining
+         */
+        public Builder durability(DurabilityMode durability) {
+            this.durability = durability;
+            return this;
+        }
+
         /**
          * Creates a builder pre-populated with values from an existing configuration.
          * 
@@ -91,7 +109,8 @@ public final class GameConfig {
             return new Builder()
                 .maxAttempts(existing.maxAttempts)
                 .codeLength(existing.codeLength)
-                .maxNumber(existing.maxNumber);
+                .maxNumber(existing.maxNumber)
+                .durability(existing.durability);
         }
 
         /**
@@ -101,7 +120,7 @@ public final class GameConfig {
          * @throws IllegalArgumentException if any parameter is invalid
          */
         public GameConfig build() {
-            return new GameConfig(maxAttempts, codeLength, maxNumber);
+            return new GameConfig(maxAttempts, codeLength, maxNumber, durability);
         }
     }
 }
@@ -0,0 +1,55 @@
+package org.alanc.mastermind.config;
+
+import java.time.Duration;
+
+/**
+ * Configuration for hedged secret code generation.
+ * If the remote random number service has not answered by the deadline, the local
+ * generator's result is used and the remote request is cancelled. The deadline is the
+ * given percentile of observed remote response times, clamped to [minDeadline, maxDeadline];
+ * initialDeadline is used until enough response times have been observed.
+ *
+ * @param percentile the latency percentile used as the deadline, between 0 (exclusive) and 1 (inclusive)
+ * @param initialDeadline the deadline used before enough response times are observed
+ * @param minDeadline the lower bound for the deadline
+ * @param maxDeadline the upper bound for the deadline
+ */
+public record HedgingConfig(double percentile, Duration initialDeadline, Duration minDeadline, Duration maxDeadline) {
+
+    public HedgingConfig {
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("percentile must be in (0, 1], got: " + percentile);
+        }
+        if (minDeadline == null || minDeadline.isNegative()) {
+            throw new IllegalArgumentException("minDeadline must be non-negative, got: " + minDeadline);
+        }
+        if (maxDeadline == null || maxDeadline.compareTo(minDeadline) < 0) {
+            throw new IllegalArgumentException("maxDeadline must not be less than minDeadline, got: " + maxDeadline);
+        }
+        if (initialDeadline == null || initialDeadline.compareTo(minDeadline) < 0 || initialDeadline.compareTo(maxDeadline) > 0) {
+            throw new IllegalArgumentException("initialDeadline must be between minDeadline and maxDeadline, got: " + initialDeadline);
+        }
+    }
+
+    /**
+     * Creates a HedgingConfig with default settings.
+     *
+     * @return hedging at the 95th percentile, starting at 2s and bounded to 250ms-5s
+     */
+    public static HedgingConfig defaults() {
+        return new HedgingConfig(0.95, Duration.ofSeconds(2), Duration.ofMillis(250), Duration.ofSeconds(5));
+    }
+
+    /**
+     * Clamps a candidate deadline to the configured bounds.
+     *
+     * @param deadline the candidate deadline
+     * @return the deadline limited to [minDeadline, maxDeadline]
+     */
+    public Duration clamp(Duration deadline) {
+        if (deadline.compareTo(minDeadline) < 0) {
+            return minDeadline;
+        }
+        return deadline.compareTo(maxDeadline) > 0 ? maxDeadline : deadline;
+    }
+}
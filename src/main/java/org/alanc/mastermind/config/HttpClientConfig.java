@@ -0,0 +1,130 @@
+package org.alanc.mastermind.config;
+
+import java.time.Duration;
+
+/**
+ * Immutable configuration for the shared HTTP client used by random.org services.
+ * Defines connect/read timeouts, keep-alive connection pool sizing, and HTTP/2 support.
+ * Use the Builder pattern to create instances.
+ */
+public final class HttpClientConfig {
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final int maxIdleConnections;
+    private final Duration keepAlive;
+    private final boolean http2Enabled;
+
+    private HttpClientConfig(Duration connectTimeout, Duration readTimeout, int maxIdleConnections,
+                             Duration keepAlive, boolean http2Enabled) {
+        if (connectTimeout == null || connectTimeout.isNegative()) {
+            throw new IllegalArgumentException("connectTimeout must be non-negative, got: " + connectTimeout);
+        }
+        if (readTimeout == null || readTimeout.isNegative()) {
+            throw new IllegalArgumentException("readTimeout must be non-negative, got: " + readTimeout);
+        }
+        if (maxIdleConnections <= 0) {
+            throw new IllegalArgumentException("maxIdleConnections must be positive, got: " + maxIdleConnections);
+        }
+        if (keepAlive == null || keepAlive.isNegative() || keepAlive.isZero()) {
+            throw new IllegalArgumentException("keepAlive must be positive, got: " + keepAlive);
+        }
+
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.maxIdleConnections = maxIdleConnections;
+        this.keepAlive = keepAlive;
+        this.http2Enabled = http2Enabled;
+    }
+
+    // Getters
+    public Duration getConnectTimeout() { return connectTimeout; }
+    public Duration getReadTimeout() { return readTimeout; }
+    public int getMaxIdleConnections() { return maxIdleConnections; }
+    public Duration getKeepAlive() { return keepAlive; }
+    public boolean isHttp2Enabled() { return http2Enabled; }
+
+    /**
+     * Creates an HttpClientConfig with default settings.
+     *
+     * @return a new HttpClientConfig with default values (10s timeouts, 5 idle connections kept alive for 5 minutes, HTTP/2 enabled)
+     */
+    public static HttpClientConfig defaults() {
+        return new Builder().build();
+    }
+
+    /**
+     * Builder for creating HttpClientConfig instances with custom parameters.
+     */
+    public static class Builder {
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        private Duration readTimeout = Duration.ofSeconds(10);
+        private int maxIdleConnections = 5;
+        private Duration keepAlive = Duration.ofMinutes(5);
+        private boolean http2Enabled = true;
+
+        /**
+         * Sets the timeout for establishing a connection.
+         *
+         * @param connectTimeout the connect timeout (zero means no timeout)
+         * @return this builder for method chaining
+         */
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the timeout for reading a response.
+         *
+         * @param readTimeout the read timeout (zero means no timeout)
+         * @return this builder for method chaining
+         */
+        public Builder readTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the number of idle connections kept in the pool.
+         *
+         * @param maxIdleConnections the maximum idle connections (must be positive)
+         * @return this builder for method chaining
+         */
+        public Builder maxIdleConnections(int maxIdleConnections) {
+            this.maxIdleConnections = maxIdleConnections;
+            return this;
+        }
+
+        /**
+         * Sets how long idle connections are kept alive for reuse.
+         *
+         * @param keepAlive the keep-alive duration (must be positive)
+         * @return this builder for method chaining
+         */
+        public Builder keepAlive(Duration keepAlive) {
+            this.keepAlive = keepAlive;
+            return this;
+        }
+
+        /**
+         * Sets whether HTTP/2 is negotiated when the server supports it.
+         *
+         * @param http2Enabled true to allow HTTP/2, false for HTTP/1.1 only
+         * @return this builder for method chaining
+         */
+        public Builder http2Enabled(boolean http2Enabled) {
+            this.http2Enabled = http2Enabled;
+            return this;
+        }
+
+        /**
+         * Builds a new HttpClientConfig with the current builder settings.
+         *
+         * @return a new immutable HttpClientConfig instance
+         * @throws IllegalArgumentException if any parameter is invalid
+         */
+        public HttpClientConfig build() {
+            return new HttpClientConfig(connectTimeout, readTimeout, maxIdleConnections, keepAlive, http2Enabled);
+        }
+    }
+}
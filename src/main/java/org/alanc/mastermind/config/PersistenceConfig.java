@@ -0,0 +1,533 @@
+package org.alanc.mastermind.config;
+
+import java.time.Duration;
+
+/**
+ * Immutable configuration for game persistence.
+ * Controls which storage backend holds games and where the database file or event log lives,
+ * the durability mode of game saves, how the write-behind queue batches writes,
+ * how often the database is checkpointed, how the SQLite connections are sized, and how long
+ * finished games stay in the live store before they are archived.
+ * Use the Builder pattern to create instances.
+ */
+public final class PersistenceConfig {
+    public static final String DEFAULT_DATABASE_PATH = "mastermind_games.db";
+    public static final String DEFAULT_EVENT_LOG_DIRECTORY = "mastermind_events";
+    public static final int MIN_EVENT_LOG_SEGMENT_BYTES = 4096;
+    public static final String DEFAULT_ARCHIVE_DIRECTORY = "mastermind_archive";
+
+    private final StorageBackend backend;
+    private final String databasePath;
+    private final DurabilityMode durability;
+    private final int writeQueueCapacity;
+    private final int maxBatchSize;
+    private final Duration maxStaleness;
+    private final Duration checkpointInterval;
+    private final int readerPoolSize;
+    private final int cacheSizeKib;
+    private final long mmapSizeBytes;
+    private final boolean verifyResumedGames;
+    private final String eventLogDirectory;
+    private final int eventLogSegmentBytes;
+    private final Duration retention;
+    private final String archiveDirectory;
+    private final int archiveBatchSize;
+    private final Duration archiveInterval;
+    private final int backupPagesPerStep;
+    private final Duration backupStepPause;
+    private final int recentGamesCacheSize;
+    private final Duration busyTimeout;
+    private final int busyRetries;
+    private final Duration busyRetryBackoff;
+    private final int shardCount;
+
+    private PersistenceConfig(Builder builder) {
+        DurabilityMode durability = builder.durability;
+        int writeQueueCapacity = builder.writeQueueCapacity;
+        int maxBatchSize = builder.maxBatchSize;
+        Duration maxStaleness = builder.maxStaleness;
+        Duration checkpointInterval = builder.checkpointInterval;
+
+        if (builder.backend == null) {
+            throw new IllegalArgumentException("backend must not be null");
+        }
+        if (builder.databasePath == null || builder.databasePath.isBlank()) {
+            throw new IllegalArgumentException("databasePath must not be blank");
+        }
+        if (durability == null) {
+            throw new IllegalArgumentException("durability must not be null");
+        }
+        if (writeQueueCapacity <= 0) {
+            throw new IllegalArgumentException("writeQueueCapacity must be positive, got: " + writeQueueCapacity);
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive, got: " + maxBatchSize);
+        }
+        if (maxStaleness == null || maxStaleness.isNegative()) {
+            throw new IllegalArgumentException("maxStaleness must be non-negative, got: " + maxStaleness);
+        }
+        if (checkpointInterval == null || checkpointInterval.isNegative() || checkpointInterval.isZero()) {
+            throw new IllegalArgumentException("checkpointInterval must be positive, got: " + checkpointInterval);
+        }
+        if (builder.readerPoolSize <= 0) {
+            throw new IllegalArgumentException("readerPoolSize must be positive, got: " + builder.readerPoolSize);
+        }
+        if (builder.cacheSizeKib <= 0) {
+            throw new IllegalArgumentException("cacheSizeKib must be positive, got: " + builder.cacheSizeKib);
+        }
+        if (builder.mmapSizeBytes < 0) {
+            throw new IllegalArgumentException("mmapSizeBytes must be non-negative, got: " + builder.mmapSizeBytes);
+        }
+        if (builder.eventLogDirectory == null || builder.eventLogDirectory.isBlank()) {
+            throw new IllegalArgumentException("eventLogDirectory must not be blank");
+        }
+        if (builder.eventLogSegmentBytes < MIN_EVENT_LOG_SEGMENT_BYTES) {
+            throw new IllegalArgumentException("eventLogSegmentBytes must be at least " + MIN_EVENT_LOG_SEGMENT_BYTES
+                + ", got: " + builder.eventLogSegmentBytes);
+        }
+        if (builder.retention != null && (builder.retention.isNegative() || builder.retention.isZero())) {
+            throw new IllegalArgumentException("retention must be positive, got: " + builder.retention);
+        }
+        if (builder.archiveDirectory == null || builder.archiveDirectory.isBlank()) {
+            throw new IllegalArgumentException("archiveDirectory must not be blank");
+        }
+        if (builder.archiveBatchSize <= 0) {
+            throw new IllegalArgumentException("archiveBatchSize must be positive, got: " + builder.archiveBatchSize);
+        }
+        if (builder.archiveInterval == null || builder.archiveInterval.isNegative() || builder.archiveInterval.isZero()) {
+            throw new IllegalArgumentException("archiveInterval must be positive, got: " + builder.archiveInterval);
+        }
+        if (builder.backupPagesPerStep <= 0) {
+            throw new IllegalArgumentException("backupPagesPerStep must be positive, got: " + builder.backupPagesPerStep);
+        }
+        if (builder.backupStepPause == null || builder.backupStepPause.isNegative()) {
+            throw new IllegalArgumentException("backupStepPause must be non-negative, got: " + builder.backupStepPause);
+        }
+        if (builder.recentGamesCacheSize <= 0) {
+            throw new IllegalArgumentException("recentGamesCacheSize must be positive, got: " + builder.recentGamesCacheSize);
+        }
+        if (builder.busyTimeout == null || builder.busyTimeout.isNegative()
+                || builder.busyTimeout.toMillis() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("busyTimeout must be non-negative and under "
+                + Integer.MAX_VALUE + " ms, got: " + builder.busyTimeout);
+        }
+        if (builder.busyRetries < 0) {
+            throw new IllegalArgumentException("busyRetries must be non-negative, got: " + builder.busyRetries);
+        }
+        if (builder.busyRetryBackoff == null || builder.busyRetryBackoff.isNegative() || builder.busyRetryBackoff.isZero()) {
+            throw new IllegalArgumentException("busyRetryBackoff must be positive, got: " + builder.busyRetryBackoff);
+        }
+        if (builder.shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount must be positive, got: " + builder.shardCount);
+        }
+
+        this.backend = builder.backend;
+        this.databasePath = builder.databasePath;
+        this.durability = durability;
+        this.writeQueueCapacity = writeQueueCapacity;
+        this.maxBatchSize = maxBatchSize;
+        this.maxStaleness = maxStaleness;
+        this.checkpointInterval = checkpointInterval;
+        this.readerPoolSize = builder.readerPoolSize;
+        this.cacheSizeKib = builder.cacheSizeKib;
+        this.mmapSizeBytes = builder.mmapSizeBytes;
+        this.verifyResumedGames = builder.verifyResumedGames;
+        this.eventLogDirectory = builder.eventLogDirectory;
+        this.eventLogSegmentBytes = builder.eventLogSegmentBytes;
+        this.retention = builder.retention;
+        this.archiveDirectory = builder.archiveDirectory;
+        this.archiveBatchSize = builder.archiveBatchSize;
+        this.archiveInterval = builder.archiveInterval;
+        this.backupPagesPerStep = builder.backupPagesPerStep;
+        this.backupStepPause = builder.backupStepPause;
+        this.recentGamesCacheSize = builder.recentGamesCacheSize;
+        this.busyTimeout = builder.busyTimeout;
+        this.busyRetries = builder.busyRetries;
+        this.busyRetryBackoff = builder.busyRetryBackoff;
+        this.shardCount = builder.shardCount;
+    }
+
+    // Getters
+    public StorageBackend getBackend() { return backend; }
+    public String getDatabasePath() { return databasePath; }
+    public DurabilityMode getDurability() { return durability; }
+    public boolean isWriteBehind() { return durability.usesWriteBehind(); }
+    public int getWriteQueueCapacity() { return writeQueueCapacity; }
+    public int getMaxBatchSize() { return maxBatchSize; }
+    public Duration getMaxStaleness() { return maxStaleness; }
+    public Duration getCheckpointInterval() { return checkpointInterval; }
+    public int getReaderPoolSize() { return readerPoolSize; }
+    public int getCacheSizeKib() { return cacheSizeKib; }
+    public long getMmapSizeBytes() { return mmapSizeBytes; }
+    public boolean isVerifyResumedGames() { return verifyResumedGames; }
+    public String getEventLogDirectory() { return eventLogDirectory; }
+    public int getEventLogSegmentBytes() { return eventLogSegmentBytes; }
+    public Duration getRetention() { return retention; }
+    public boolean isArchivingEnabled() { return retention != null; }
+    public String getArchiveDirectory() { return archiveDirectory; }
+    public int getArchiveBatchSize() { return archiveBatchSize; }
+    public Duration getArchiveInterval() { return archiveInterval; }
+    public int getBackupPagesPerStep() { return backupPagesPerStep; }
+    public Duration getBackupStepPause() { return backupStepPause; }
+    public int getRecentGamesCacheSize() { return recentGamesCacheSize; }
+    public Duration getBusyTimeout() { return busyTimeout; }
+    public int getBusyRetries() { return busyRetries; }
+    public Duration getBusyRetryBackoff() { return busyRetryBackoff; }
+    public int getShardCount() { return shardCount; }
+    public boolean isSharded() { return backend == StorageBackend.SQLITE && shardCount > 1; }
+
+    /**
+     * Creates a PersistenceConfig with default settings.
+     *
+     * @return a new PersistenceConfig with per-guess synchronous writes
+     */
+    public static PersistenceConfig defaults() {
+        return new Builder().build();
+    }
+
+    /**
+     * Builder for creating PersistenceConfig instances with custom parameters.
+     */
+    public static class Builder {
+        private StorageBackend backend = StorageBackend.SQLITE;
+        private String databasePath = DEFAULT_DATABASE_PATH;
+        private DurabilityMode durability = DurabilityMode.PER_GUESS;
+        private int writeQueueCapacity = 1024;
+        private int maxBatchSize = 256;
+        private Duration maxStaleness = Duration.ofMillis(200);
+        private Duration checkpointInterval = Duration.ofSeconds(30);
+        private int readerPoolSize = 2;
+        private int cacheSizeKib = 8 * 1024;
+        private long mmapSizeBytes = 64L * 1024 * 1024;
+        private boolean verifyResumedGames = false;
+        private String eventLogDirectory = DEFAULT_EVENT_LOG_DIRECTORY;
+        private int eventLogSegmentBytes = 16 * 1024 * 1024;
+        private Duration retention = null;
+        private String archiveDirectory = DEFAULT_ARCHIVE_DIRECTORY;
+        private int archiveBatchSize = 100;
+        private Duration archiveInterval = Duration.ofHours(1);
+        private int backupPagesPerStep = 100;
+        private Duration backupStepPause = Duration.ofMillis(5);
+        private int recentGamesCacheSize = 50;
+        private Duration busyTimeout = Duration.ofSeconds(5);
+        private int busyRetries = 5;
+        private Duration busyRetryBackoff = Duration.ofMillis(20);
+        private int shardCount = 1;
+
+        /**
+         * Sets the storage backend games are saved to.
+         *
+         * @param backend the storage backend
+         * @return this builder for method chaining
+         */
+        public Builder backend(StorageBackend backend) {
+            this.backend = backend;
+            return this;
+        }
+
+        /**
+         * Sets the path of the SQLite database file, relative to the working directory unless absolute.
+         *
+         * @param databasePath the database file path
+         * @return this builder for method chaining
+         */
+        public Builder databasePath(String databasePath) {
+            this.databasePath = databasePath;
+            return this;
+        }
+
+        /**
+         * Sets how eagerly game saves are made durable.
+         *
+         * @param durability the durability mode
+         * @return this builder for method chaining
+         */
+        public Builder durability(DurabilityMode durability) {
+            this.durability = durability;
+            return this;
+        }
+
+        /**
+         * Sets the number of pending writes the queue holds before callers block.
+         *
+         * @param writeQueueCapacity the queue capacity (must be positive)
+         * @return this builder for method chaining
+         */
+        public Builder writeQueueCapacity(int writeQueueCapacity) {
+            this.writeQueueCapacity = writeQueueCapacity;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of writes committed in one transaction.
+         *
+         * @param maxBatchSize the batch size (must be positive)
+         * @return this builder for method chaining
+         */
+        public Builder maxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets how long a queued write may wait before it is committed.
+         *
+         * @param maxStaleness the maximum staleness (must be non-negative)
+         * @return this builder for method chaining
+         */
+        public Builder maxStaleness(Duration maxStaleness) {
+            this.maxStaleness = maxStaleness;
+            return this;
+        }
+
+        /**
+         * Sets how often the database is checkpointed in {@link DurabilityMode#PERIODIC_CHECKPOINT} mode.
+         *
+         * @param checkpointInterval the checkpoint interval (must be positive)
+         * @return this builder for method chaining
+         */
+        public Builder checkpointInterval(Duration checkpointInterval) {
+            this.checkpointInterval = checkpointInterval;
+            return this;
+        }
+
+        /**
+         * Sets the number of read-only connections kept open for history and analytics queries.
+         *
+         * @param readerPoolSize the reader pool size (must be positive)
+         * @return this builder for method chaining
+         */
+        public Builder readerPoolSize(int readerPoolSize) {
+            this.readerPoolSize = readerPoolSize;
+            return this;
+        }
+
+        /**
+         * Sets the SQLite page cache size of each connection.
+         *
+         * @param cacheSizeKib the page cache size in KiB (must be positive)
+         * @return this builder for method chaining
+         */
+        public Builder cacheSizeKib(int cacheSizeKib) {
+            this.cacheSizeKib = cacheSizeKib;
+            return this;
+        }
+
+        /**
+         * Sets how much of the database file each connection memory-maps; 0 disables memory-mapped I/O.
+         *
+         * @param mmapSizeBytes the mmap size in bytes (must be non-negative)
+         * @return this builder for method chaining
+         */
+        public Builder mmapSizeBytes(long mmapSizeBytes) {
+            this.mmapSizeBytes = mmapSizeBytes;
+            return this;
+        }
+
+        /**
+         * Sets whether a resumed game's stored feedback is re-scored against its secret code
+         * in the background. Resuming itself always trusts the stored feedback.
+         *
+         * @param verifyResumedGames true to check resumed games
+         * @return this builder for method chaining
+         */
+        public Builder verifyResumedGames(boolean verifyResumedGames) {
+            this.verifyResumedGames = verifyResumedGames;
+            return this;
+        }
+
+        /**
+         * Sets the directory holding the event log segments of the {@link StorageBackend#EVENT_LOG} backend,
+         * relative to the working directory unless absolute.
+         *
+         * @param eventLogDirectory the event log directory
+         * @return this builder for method chaining
+         */
+        public Builder eventLogDirectory(String eventLogDirectory) {
+            this.eventLogDirectory = eventLogDirectory;
+            return this;
+        }
+
+        /**
+         * Sets the size of each event log segment file.
+         *
+         * @param eventLogSegmentBytes the segment size in bytes (at least {@value PersistenceConfig#MIN_EVENT_LOG_SEGMENT_BYTES})
+         * @return this builder for method chaining
+         */
+        public Builder eventLogSegmentBytes(int eventLogSegmentBytes) {
+            this.eventLogSegmentBytes = eventLogSegmentBytes;
+            return this;
+        }
+
+        /**
+         * Sets how long finished games stay in the live store before they are moved to archive files.
+         * Null, the default, keeps every game in the live store.
+         *
+         * @param retention the retention period (must be positive), or null to disable archiving
+         * @return this builder for method chaining
+         */
+        public Builder retention(Duration retention) {
+            this.retention = retention;
+            return this;
+        }
+
+        /**
+         * Sets the directory archived games are written to, relative to the working directory unless absolute.
+         *
+         * @param archiveDirectory the archive directory
+         * @return this builder for method chaining
+         */
+        public Builder archiveDirectory(String archiveDirectory) {
+            this.archiveDirectory = archiveDirectory;
+            return this;
+        }
+
+        /**
+         * Sets the number of games archived and deleted in one transaction.
+         *
+         * @param archiveBatchSize the batch size (must be positive)
+         * @return this builder for method chaining
+         */
+        public Builder archiveBatchSize(int archiveBatchSize) {
+            this.archiveBatchSize = archiveBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets how often the archiver looks for games past the retention period.
+         *
+         * @param archiveInterval the archive interval (must be positive)
+         * @return this builder for method chaining
+         */
+        public Builder archiveInterval(Duration archiveInterval) {
+            this.archiveInterval = archiveInterval;
+            return this;
+        }
+
+        /**
+         * Sets the number of database pages an online backup copies in each step.
+         *
+         * @param backupPagesPerStep the pages per step (must be positive)
+         * @return this builder for method chaining
+         */
+        public Builder backupPagesPerStep(int backupPagesPerStep) {
+            this.backupPagesPerStep = backupPagesPerStep;
+            return this;
+        }
+
+        /**
+         * Sets how long an online backup waits between steps, leaving the disk to the game.
+         *
+         * @param backupStepPause the pause between steps (must be non-negative)
+         * @return this builder for method chaining
+         */
+        public Builder backupStepPause(Duration backupStepPause) {
+            this.backupStepPause = backupStepPause;
+            return this;
+        }
+
+        /**
+         * Sets how many of the most recent games are kept decoded in memory for history views
+         * and the last-game checks.
+         *
+         * @param recentGamesCacheSize the number of games cached (must be positive)
+         * @return this builder for method chaining
+         */
+        public Builder recentGamesCacheSize(int recentGamesCacheSize) {
+            this.recentGamesCacheSize = recentGamesCacheSize;
+            return this;
+        }
+
+        /**
+         * Sets how long SQLite waits for a lock held by another connection, possibly in another
+         * process, before reporting the database as busy.
+         *
+         * @param busyTimeout the lock wait (must be non-negative; zero fails at once)
+         * @return this builder for method chaining
+         */
+        public Builder busyTimeout(Duration busyTimeout) {
+            this.busyTimeout = busyTimeout;
+            return this;
+        }
+
+        /**
+         * Sets how many times an operation that found the database busy or locked is retried
+         * before the error is reported.
+         *
+         * @param busyRetries the number of retries (must be non-negative)
+         * @return this builder for method chaining
+         */
+        public Builder busyRetries(int busyRetries) {
+            this.busyRetries = busyRetries;
+            return this;
+        }
+
+        /**
+         * Sets the wait before the first busy retry; each further retry waits twice as long, plus jitter.
+         *
+         * @param busyRetryBackoff the first wait (must be positive)
+         * @return this builder for method chaining
+         */
+        public Builder busyRetryBackoff(Duration busyRetryBackoff) {
+            this.busyRetryBackoff = busyRetryBackoff;
+            return this;
+        }
+
+        /**
+         * Sets how many SQLite files games are spread across, each with its own writer thread.
+         * With more than one, the database path names the shard files: {@code games.db} becomes
+         * {@code games-0.db}, {@code games-1.db} and so on. The count cannot change once games are stored.
+         *
+         * @param shardCount the number of database files (must be positive; 1 keeps a single file)
+         * @return this builder for method chaining
+         */
+        public Builder shardCount(int shardCount) {
+            this.shardCount = shardCount;
+            return this;
+        }
+
+        /**
+         * Creates a builder pre-populated with values from an existing configuration.
+         *
+         * @param existing the configuration to copy values from
+         * @return a new builder with the existing configuration's values
+         */
+        public static Builder from(PersistenceConfig existing) {
+            return new Builder()
+                .backend(existing.backend)
+                .databasePath(existing.databasePath)
+                .durability(existing.durability)
+                .writeQueueCapacity(existing.writeQueueCapacity)
+                .maxBatchSize(existing.maxBatchSize)
+                .maxStaleness(existing.maxStaleness)
+                .checkpointInterval(existing.checkpointInterval)
+                .readerPoolSize(existing.readerPoolSize)
+                .cacheSizeKib(existing.cacheSizeKib)
+                .mmapSizeBytes(existing.mmapSizeBytes)
+                .verifyResumedGames(existing.verifyResumedGames)
+                .eventLogDirectory(existing.eventLogDirectory)
+                .eventLogSegmentBytes(existing.eventLogSegmentBytes)
+                .retention(existing.retention)
+                .archiveDirectory(existing.archiveDirectory)
+                .archiveBatchSize(existing.archiveBatchSize)
+                .archiveInterval(existing.archiveInterval)
+                .backupPagesPerStep(existing.backupPagesPerStep)
+                .backupStepPause(existing.backupStepPause)
+                .recentGamesCacheSize(existing.recentGamesCacheSize)
+                .busyTimeout(existing.busyTimeout)
+                .busyRetries(existing.busyRetries)
+                .busyRetryBackoff(existing.busyRetryBackoff)
+                .shardCount(existing.shardCount);
+        }
+
+        /**
+         * Builds a new PersistenceConfig with the current builder settings.
+         *
+         * @return a new immutable PersistenceConfig instance
+         * @throws IllegalArgumentException if any parameter is invalid
+         */
+        public PersistenceConfig build() {
+            return new PersistenceConfig(this);
+        }
+    }
+}
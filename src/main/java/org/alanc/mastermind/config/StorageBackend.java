@@ -0,0 +1,21 @@
+package org.alanc.mastermind.config;
+
+/**
+ * Where games are stored.
+ */
+public enum StorageBackend {
+    /** Games are saved to a SQLite database file and survive restarts. */
+    SQLITE,
+
+    /**
+     * Games are kept in memory only and lost when the application exits.
+     * For simulations, benchmarks and other headless runs that do not need disk I/O.
+     */
+    IN_MEMORY,
+
+    /**
+     * Games are written as events to memory-mapped, append-only log segments and rebuilt
+     * in memory from the log on startup. Saving a guess is a single append instead of a row update.
+     */
+    EVENT_LOG
+}
@@ -1,12 +1,22 @@
 package org.alanc.mastermind.game;
 
 import org.alanc.mastermind.config.GameConfig;
+import org.alanc.mastermind.config.HedgingConfig;
+import org.alanc.mastermind.random.LatencyTracker;
 import org.alanc.mastermind.random.MathRandomService;
 import org.alanc.mastermind.random.RandomNumberService;
 import org.alanc.mastermind.util.ErrorHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 /**
  * Core game logic for Mastermind, handling game creation and guess processing.
  * 
@@ -14,12 +24,18 @@ import org.slf4j.LoggerFactory;
  * - Generating secret codes using configurable random number services
  * - Processing player guesses and determining their accuracy
  * - Validating inputs according to game configuration
- * - Providing fallback mechanisms for random number generation
+ * - Providing fallback mechanisms for random number generation, optionally hedged
+ *   so that a slow remote service cannot delay game start past a latency percentile
  */
 public final class GameLogic {
     private static final Logger logger = LoggerFactory.getLogger(GameLogic.class);
 
+    private static final int LATENCY_SAMPLES = 100;
+    private static final int MIN_LATENCY_SAMPLES = 5;
+
     private final RandomNumberService randomNumberService;
+    private final HedgingConfig hedgingConfig;
+    private final LatencyTracker latencyTracker;
 
     /**
      * Constructs a new GameLogic instance with the specified random number service.
@@ -27,7 +43,19 @@ public final class GameLogic {
      * @param randomNumberService the service to use for generating secret codes
      */
     public GameLogic(RandomNumberService randomNumberService) {
+        this(randomNumberService, null);
+    }
+
+    /**
+     * Constructs a new GameLogic instance that hedges secret code generation.
+     *
+     * @param randomNumberService the service to use for generating secret codes
+     * @param hedgingConfig the hedging settings, or null to wait for the service without a deadline
+     */
+    public GameLogic(RandomNumberService randomNumberService, HedgingConfig hedgingConfig) {
         this.randomNumberService = randomNumberService;
+        this.hedgingConfig = hedgingConfig;
+        this.latencyTracker = new LatencyTracker(LATENCY_SAMPLES, MIN_LATENCY_SAMPLES);
     }
 
     /**
@@ -42,6 +70,24 @@ public final class GameLogic {
         return GameState.createNew(secretCode, config);
     }
 
+    /**
+     * Creates several new games at once, generating all secret codes with a single
+     * batch request to the random number service.
+     * Uses fallback MathRandomService if primary service fails.
+     *
+     * @param config the game configuration shared by all games
+     * @param count the number of games to create (must be positive)
+     * @return list of new GameStates ready for player guesses
+     */
+    public List<GameState> createNewGames(GameConfig config, int count) {
+        List<String> secretCodes = generateSecretCodes(config, count);
+        List<GameState> games = new ArrayList<>(count);
+        for (String secretCode : secretCodes) {
+            games.add(GameState.createNew(secretCode, config));
+        }
+        return games;
+    }
+
     /**
      * Processes a player's guess and returns the updated game state.
      * Validates input and evaluates guess against the secret code.
@@ -77,11 +123,13 @@ public final class GameLogic {
 
     private String generateSecretCode(GameConfig config) {
         // Try the injected service first
-        String code = randomNumberService.generate(
-                config.getCodeLength(),
-                0,
-                config.getMaxNumber()
-        );
+        String code = hedgingConfig != null
+                ? generateHedged(config)
+                : randomNumberService.generate(
+                        config.getCodeLength(),
+                        0,
+                        config.getMaxNumber()
+                );
 
         // Fallback to Math.random if injected service fails
         if (code == null) {
@@ -97,6 +145,80 @@ public final class GameLogic {
         return code;
     }
 
+    /**
+     * Waits for the injected service until the hedge deadline, then gives up on it.
+     * Returns null (triggering the local fallback) on timeout or failure.
+     */
+    private String generateHedged(GameConfig config) {
+        Duration deadline = getHedgeDeadline();
+        long start = System.nanoTime();
+        CompletableFuture<String> remote = randomNumberService.generateAsync(
+                config.getCodeLength(),
+                0,
+                config.getMaxNumber()
+        );
+
+        try {
+            String code = remote.get(deadline.toNanos(), TimeUnit.NANOSECONDS);
+            // A null answer is a failure (e.g. exhausted quota) that returns instantly, not a response time
+            if (code != null) {
+                latencyTracker.record(Duration.ofNanos(System.nanoTime() - start));
+            }
+            return code;
+        } catch (TimeoutException e) {
+            remote.cancel(true);
+            // The true latency is unknown but above the deadline. Recording twice the deadline lets the
+            // percentile climb again while the service stays slow, instead of only ever shrinking.
+            latencyTracker.record(hedgingConfig.clamp(deadline.multipliedBy(2)));
+            logger.info("Random number service did not answer within {} ms, using local generator", deadline.toMillis());
+        } catch (ExecutionException e) {
+            logger.warn("Random number service failed during hedged generation", e.getCause());
+        } catch (InterruptedException e) {
+            remote.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    /**
+     * Gets the current hedge deadline derived from observed response times.
+     *
+     * @return the configured percentile of recent response times, clamped to the configured bounds
+     */
+    public Duration getHedgeDeadline() {
+        if (hedgingConfig == null) {
+            throw new IllegalStateException("Hedging is not enabled");
+        }
+        return hedgingConfig.clamp(latencyTracker.percentile(hedgingConfig.percentile())
+                .orElse(hedgingConfig.initialDeadline()));
+    }
+
+    private List<String> generateSecretCodes(GameConfig config, int count) {
+        logger.debug("Generating {} secret codes, estimated quota cost: {} bits", count,
+                randomNumberService.estimateQuotaCost(count * config.getCodeLength(), 0, config.getMaxNumber()));
+
+        List<String> codes = randomNumberService.generateBatch(
+                count,
+                config.getCodeLength(),
+                0,
+                config.getMaxNumber()
+        );
+
+        // Fallback to Math.random if injected service fails
+        if (codes == null) {
+            logger.warn("Random number service failed to generate batch, falling back to MathRandomService");
+            RandomNumberService fallbackService = new MathRandomService();
+            codes = fallbackService.generateBatch(
+                    count,
+                    config.getCodeLength(),
+                    0,
+                    config.getMaxNumber()
+            );
+        }
+
+        return codes;
+    }
+
     /**
      * Validates a player's guess format without processing it.
      * Primarily used for testing.
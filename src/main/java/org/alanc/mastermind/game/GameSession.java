@@ -1,5 +1,6 @@
 package org.alanc.mastermind.game;
 
+import org.alanc.mastermind.config.DurabilityMode;
 import org.alanc.mastermind.config.GameConfig;
 import org.alanc.mastermind.game.GameLogic;
 import org.alanc.mastermind.game.GameState;
@@ -39,10 +40,10 @@ public class GameSession {
         logger.info("Started new game session with ID: {}", gameId);
         
         while (true) {
-            GameState endState = playOneRound(initialState, gameId, startTime);
+            GameState endState = playOneRound(initialState, gameId, config.getDurability());
             
             // Mark game as completed
-            persistenceService.updateGame(endState, gameId, startTime);
+            persistenceService.updateGame(endState, gameId, startTime, config.getDurability());
             logger.info("Game {} completed with status: {}", gameId, endState.hasPlayerWon() ? "WON" : "LOST");
             
             GameUI.showEndGameMessage(endState);
@@ -66,10 +67,10 @@ public class GameSession {
         logger.info("Resuming game with {} attempts remaining", resumedState.getAttemptsRemaining());
         
         while (true) {
-            GameState endState = playOneRound(resumedState, gameId, startTime);
+            GameState endState = playOneRound(resumedState, gameId, config.getDurability());
             
             // Mark game as completed
-            persistenceService.updateGame(endState, gameId, startTime);
+            persistenceService.updateGame(endState, gameId, startTime, config.getDurability());
             
             GameUI.showEndGameMessage(endState);
             
@@ -85,7 +86,7 @@ public class GameSession {
         }
     }
 
-    private GameState playOneRound(GameState gameState, Long gameId, LocalDateTime startTime) {
+    private GameState playOneRound(GameState gameState, Long gameId, DurabilityMode durability) {
         GameUI.showWelcomeMessage(gameState.getAttemptsRemaining(), gameState.getCodeLength(), gameState.getMaxNumber());
 
         while (!gameState.isGameEnded()) {
@@ -94,8 +95,8 @@ public class GameSession {
                 playerGuess = Utils.readLine(scanner, "What is the secret code? ");
                 gameState = gameLogic.processGuess(gameState, playerGuess);
 
-                // Auto-save after each guess
-                persistenceService.updateGame(gameState, gameId, startTime);
+                // Auto-save after each guess by appending it to the guess log
+                persistenceService.recordGuess(gameState, gameId, durability);
                 logger.debug("Auto-saved game {} after guess: {}", gameId, playerGuess);
 
                 // Show feedback for the most recent guess
@@ -66,6 +66,73 @@ public final class GameState {
         );
     }
 
+    /**
+     * Restores a saved game state from its secret code and recorded guess history.
+     * 
+     * The recorded feedback is trusted rather than re-scored, so restoring is linear in
+     * the number of guesses. Use {@link #isHistoryConsistent()} to check the feedback
+     * against the secret code when the source is not trusted.
+     * 
+     * @param secretCode the secret code of the saved game
+     * @param config the game configuration the game was played with
+     * @param guessHistory the recorded guesses and their feedback, oldest first
+     * @return the restored GameState
+     * @throws IllegalArgumentException if the secret code is invalid, the history is longer than
+     *                                  the allowed attempts, or guesses follow a winning guess
+     */
+    public static GameState restore(String secretCode, GameConfig config, List<GuessResult> guessHistory) {
+        ValidationResult validationResult = GameInputValidator.validateGuess(secretCode,
+                config.getCodeLength(), config.getMaxNumber());
+        if (!validationResult.isValid()) {
+            throw new IllegalArgumentException("Invalid secret code: " + validationResult.getErrorMessage());
+        }
+        if (guessHistory.size() > config.getMaxAttempts()) {
+            throw new IllegalArgumentException("History has " + guessHistory.size()
+                    + " guesses but only " + config.getMaxAttempts() + " attempts are allowed");
+        }
+        for (int i = 0; i < guessHistory.size() - 1; i++) {
+            if (guessHistory.get(i).allCorrect()) {
+                throw new IllegalArgumentException("History continues after a winning guess");
+            }
+        }
+
+        boolean won = !guessHistory.isEmpty() && guessHistory.get(guessHistory.size() - 1).allCorrect();
+        int attemptsRemaining = config.getMaxAttempts() - guessHistory.size();
+
+        return new GameState(
+                secretCode,
+                validationResult.getNumbers(),
+                guessHistory,
+                attemptsRemaining,
+                config.getMaxAttempts(),
+                config.getCodeLength(),
+                config.getMaxNumber(),
+                won || attemptsRemaining <= 0,
+                won
+        );
+    }
+
+    /**
+     * Re-scores every guess in the history against the secret code.
+     * 
+     * @return true if every recorded guess is valid and its feedback matches a fresh evaluation
+     */
+    public boolean isHistoryConsistent() {
+        for (GuessResult recorded : guessHistory) {
+            ValidationResult guess = GameInputValidator.validateGuess(recorded.guess(), codeLength, maxNumber);
+            if (!guess.isValid()) {
+                return false;
+            }
+            GuessResult expected = evaluateGuess(guess.getNumbers());
+            if (expected.correctNumbers() != recorded.correctNumbers()
+                    || expected.correctLocations() != recorded.correctLocations()
+                    || expected.allCorrect() != recorded.allCorrect()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Creates a new game state by processing a player's guess.
      * 
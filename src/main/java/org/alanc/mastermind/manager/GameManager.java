@@ -1,21 +1,27 @@
 package org.alanc.mastermind.manager;
 
 import org.alanc.mastermind.config.GameConfig;
+import org.alanc.mastermind.config.HedgingConfig;
+import org.alanc.mastermind.config.PersistenceConfig;
 import org.alanc.mastermind.game.GameSession;
 import org.alanc.mastermind.game.GameLogic;
-import org.alanc.mastermind.persistence.GameDAO;
+import org.alanc.mastermind.persistence.BackupProgress;
 import org.alanc.mastermind.persistence.GameConverter;
 import org.alanc.mastermind.persistence.GamePersistenceService;
-import org.alanc.mastermind.persistence.GameRecord;
+import org.alanc.mastermind.persistence.GameStats;
+import org.alanc.mastermind.persistence.GamePage;
+import org.alanc.mastermind.random.QuotaChecker;
 import org.alanc.mastermind.random.RandomNumberService;
 import org.alanc.mastermind.ui.GameUI;
 import org.alanc.mastermind.ui.ResumeGameUI;
 import org.alanc.mastermind.util.ErrorHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Scanner;
+import java.util.function.Consumer;
 
 /**
  * Manages the Mastermind application lifecycle and configuration.
@@ -29,6 +35,7 @@ public class GameManager implements AutoCloseable {
     private final Scanner scanner;
     private final RandomNumberService randomNumberService;
     private final GamePersistenceService persistenceService;
+    private final QuotaChecker quotaChecker;
     private GameConfig currentConfig;
 
     /**
@@ -37,12 +44,27 @@ public class GameManager implements AutoCloseable {
      * @param randomNumberService the service to use for generating secret codes
      */
     public GameManager(RandomNumberService randomNumberService) {
+        this(randomNumberService, new QuotaChecker(), null, PersistenceConfig.defaults());
+    }
+
+    /**
+     * Constructs a new GameManager with the specified random number service, quota checker,
+     * hedging settings, and persistence settings.
+     *
+     * @param randomNumberService the service to use for generating secret codes
+     * @param quotaChecker the quota checker holding the cached random.org quota
+     * @param hedgingConfig the hedging settings for secret code generation, or null to disable hedging
+     * @param persistenceConfig the settings for saving games
+     */
+    public GameManager(RandomNumberService randomNumberService, QuotaChecker quotaChecker,
+                       HedgingConfig hedgingConfig, PersistenceConfig persistenceConfig) {
         logger.info("Initializing GameManager");
 
         this.randomNumberService = randomNumberService;
-        this.gameLogic = new GameLogic(randomNumberService);
+        this.quotaChecker = quotaChecker;
+        this.gameLogic = new GameLogic(randomNumberService, hedgingConfig);
         this.scanner = new Scanner(System.in);
-        this.persistenceService = new GamePersistenceService(new GameDAO());
+        this.persistenceService = new GamePersistenceService(persistenceConfig);
         this.currentConfig = GameConfig.defaults();
 
         logger.debug("GameManager initialized with {} service", randomNumberService.getClass().getSimpleName());
@@ -62,6 +84,15 @@ public class GameManager implements AutoCloseable {
         return currentConfig;
     }
 
+    /**
+     * Gets the quota checker shared with the random number service.
+     *
+     * @return the QuotaChecker instance
+     */
+    public QuotaChecker getQuotaChecker() {
+        return quotaChecker;
+    }
+
     /**
      * Updates the maximum number of attempts allowed.
      * 
@@ -143,12 +174,48 @@ public class GameManager implements AutoCloseable {
     }
 
     /**
-     * Gets all games from the database for history viewing.
+     * Gets one page of games from the database for history viewing, newest first.
      * 
-     * @return list of all game records
+     * @param after the cursor returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of games on the page
+     * @return the page of game records
+     */
+    public GamePage getGameHistoryPage(GamePage.Cursor after, int pageSize) {
+        return persistenceService.getGamesPage(after, pageSize);
+    }
+
+    /**
+     * Gets win/loss statistics for each game configuration that has been played.
+     * 
+     * @return statistics per configuration
+     */
+    public List<GameStats> getStatistics() {
+        return persistenceService.getStatistics();
+    }
+
+    /**
+     * Counts the games saved in the database.
+     * 
+     * @return the number of saved games
+     */
+    public long countGames() {
+        return persistenceService.countGames();
+    }
+
+    /** Waits until all queued game saves are written to the database. */
+    public void flushPendingWrites() {
+        persistenceService.flushPendingWrites();
+    }
+
+    /**
+     * Backs up the game database to a file without pausing play.
+     *
+     * @param destination the backup file
+     * @param progress called as the backup proceeds
      */
-    public List<GameRecord> getAllGames() {
-        return persistenceService.getAllGames();
+    public void backupGameHistory(Path destination, Consumer<BackupProgress> progress) {
+        persistenceService.backup(destination, progress);
+        logger.info("Game history backed up to {}", destination);
     }
 
     /** Clears all game history from the database. */
@@ -164,6 +231,7 @@ public class GameManager implements AutoCloseable {
         
         closeResource("scanner", scanner);
         closeResource("random number service", randomNumberService);
+        closeResource("quota checker", quotaChecker);
         closeResource("persistence service", persistenceService);
     }
 
@@ -0,0 +1,21 @@
+package org.alanc.mastermind.persistence;
+
+/**
+ * How far a database backup has got, reported after each step.
+ *
+ * @param pagesCopied the number of database pages copied so far
+ * @param totalPages the number of pages in the database snapshot being copied
+ */
+public record BackupProgress(int pagesCopied, int totalPages) {
+
+    /**
+     * Gets the fraction of pages copied, from 0.0 to 1.0. An empty database counts as fully copied.
+     */
+    public double fraction() {
+        return totalPages == 0 ? 1.0 : (double) pagesCopied / totalPages;
+    }
+
+    public boolean isComplete() {
+        return pagesCopied >= totalPages;
+    }
+}
@@ -0,0 +1,511 @@
+package org.alanc.mastermind.persistence;
+
+import org.alanc.mastermind.config.DurabilityMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * {@link GameStore} that writes every change as an event to an append-only log of
+ * memory-mapped segment files and serves reads from an {@link InMemoryGameStore}.
+ * Saving a guess is a single append into mapped memory instead of a database row update.
+ *
+ * <p>Each record carries a CRC-32C (see {@link LogSegment}). When a segment is three-quarters full
+ * the next one is created and mapped on a background thread, so rolling over on the write path is
+ * only a buffer swap. An index from game ID to the log offset of the game's latest full state lets
+ * recovery skip superseded states: on startup the log is scanned once, stopping at the first damaged
+ * record of a segment, and only each game's latest state and the guesses appended after it are decoded.
+ * That rebuilds every game, including the in-progress one {@link #getLastIncompleteGame()} returns.
+ */
+public class EventLogGameStore implements GameStore {
+    private static final Logger logger = LoggerFactory.getLogger(EventLogGameStore.class);
+
+    // Record types
+    private static final byte GAME_CREATED = 1;
+    private static final byte GUESS_APPENDED = 2;
+    private static final byte GAME_UPDATED = 3;
+    private static final byte GAMES_DELETED = 4;
+    private static final byte GAMES_REMOVED = 5;
+
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final InMemoryGameStore games = new InMemoryGameStore();
+    // Game ID -> log position of the game's latest GAME_CREATED or GAME_UPDATED record
+    private final Map<Long, Long> latestState = new ConcurrentHashMap<>();
+    private final ExecutorService roller = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "event-log-roller");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Highest game ID any GAME_CREATED record in the log used, including removed and deleted games
+    private long highestCreatedId;
+    private LogSegment current;
+    private CompletableFuture<LogSegment> next;
+    private CompletableFuture<Void> retiring = CompletableFuture.completedFuture(null);
+    private volatile boolean forceEachAppend = true;
+
+    /**
+     * Opens the event log in a directory, creating the directory if needed, and recovers the games in it.
+     *
+     * @param directory the directory holding the segment files
+     * @param segmentBytes the size of each segment file
+     */
+    public EventLogGameStore(Path directory, int segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            logger.error("Failed to open event log in {}", directory, e);
+            throw new RuntimeException("Failed to open event log", e);
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(file -> LogSegment.numberOf(file) >= 0)
+                .sorted(Comparator.comparingLong(LogSegment::numberOf))
+                .toList();
+        }
+
+        Map<Long, LogSegment> segments = new HashMap<>();
+        Map<Long, List<Long>> guessesAfterState = new HashMap<>();
+        List<Long> removedStates = new ArrayList<>();
+        try {
+            for (Path file : files) {
+                LogSegment segment = LogSegment.open(directory, LogSegment.numberOf(file), segmentBytes);
+                segments.put(segment.number(), segment);
+                int offset = scan(segment, guessesAfterState, removedStates);
+                segment.truncate(offset);
+            }
+
+            // IDs of archived or deleted games are never handed out again
+            games.reserveIds(highestCreatedId);
+
+            // Removed games stay in the statistics, as they do in the other stores
+            for (long position : removedStates) {
+                games.restoreStatistics(readGame(segments, position));
+            }
+
+            // Decode only each game's latest state and the guesses appended after it
+            List<Map.Entry<Long, Long>> states = new ArrayList<>(latestState.entrySet());
+            states.sort(Map.Entry.comparingByValue());
+            for (Map.Entry<Long, Long> state : states) {
+                games.restore(readGame(segments, state.getValue()));
+                List<Long> guesses = guessesAfterState.getOrDefault(state.getKey(), List.of());
+                for (long position : guesses) {
+                    ByteBuffer payload = recordAt(segments, position).payload();
+                    long gameId = payload.getLong();
+                    int guessNumber = payload.getInt();
+                    games.appendGuess(gameId, guessNumber, GameConverter.decodeGuesses(remaining(payload)).get(0));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            for (LogSegment segment : segments.values()) {
+                segment.close();
+            }
+            throw e;
+        }
+
+        LogSegment last = null;
+        for (LogSegment segment : segments.values()) {
+            if (last == null || segment.number() > last.number()) {
+                last = segment;
+            }
+        }
+        for (LogSegment segment : segments.values()) {
+            if (segment != last) {
+                segment.close();
+            }
+        }
+        current = last != null ? last : LogSegment.open(directory, 1, segmentBytes);
+        logger.info("Recovered {} games from {} event log segments in {}",
+            latestState.size(), segments.size(), directory);
+    }
+
+    /**
+     * Indexes the intact records of a segment.
+     *
+     * @return the offset just past the segment's last intact record
+     */
+    private int scan(LogSegment segment, Map<Long, List<Long>> guessesAfterState, List<Long> removedStates) {
+        int offset = 0;
+        LogSegment.Record record;
+        while ((record = segment.read(offset)) != null) {
+            long position = position(segment.number(), offset);
+            switch (record.type()) {
+                case GAME_CREATED, GAME_UPDATED -> {
+                    long gameId = record.payload().getLong(0);
+                    latestState.put(gameId, position);
+                    guessesAfterState.remove(gameId);
+                    if (record.type() == GAME_CREATED) {
+                        highestCreatedId = Math.max(highestCreatedId, gameId);
+                    }
+                }
+                case GUESS_APPENDED -> guessesAfterState
+                    .computeIfAbsent(record.payload().getLong(0), id -> new ArrayList<>())
+                    .add(position);
+                case GAMES_REMOVED -> {
+                    ByteBuffer payload = record.payload();
+                    while (payload.hasRemaining()) {
+                        long gameId = payload.getLong();
+                        Long removed = latestState.remove(gameId);
+                        if (removed != null) {
+                            removedStates.add(removed);
+                        }
+                        guessesAfterState.remove(gameId);
+                    }
+                }
+                case GAMES_DELETED -> {
+                    ByteBuffer payload = record.payload();
+                    if (payload.remaining() >= Long.BYTES) {
+                        highestCreatedId = Math.max(highestCreatedId, payload.getLong());
+                    }
+                    latestState.clear();
+                    guessesAfterState.clear();
+                    removedStates.clear();
+                }
+                default -> logger.warn("Skipping event of unknown type {} in segment {}",
+                    record.type(), segment.number());
+            }
+            offset = record.nextOffset();
+        }
+        if (!segment.isEnd(offset)) {
+            logger.warn("Discarding damaged event log records from offset {} of segment {}",
+                offset, segment.number());
+        }
+        return offset;
+    }
+
+    private static LogSegment.Record recordAt(Map<Long, LogSegment> segments, long position) {
+        LogSegment.Record record = segments.get(position >>> 32).read((int) position);
+        if (record == null) {
+            throw new IllegalStateException("No intact event at log position " + position);
+        }
+        return record;
+    }
+
+    private static GameRecord readGame(Map<Long, LogSegment> segments, long position) {
+        return decodeGame(recordAt(segments, position).payload());
+    }
+
+    @Override
+    public GameRecord saveGame(GameRecord record) {
+        GameRecord saved = games.saveGame(record);
+        append(GAME_CREATED, saved.getId(), encodeGame(saved));
+        logger.debug("Saved game record with ID: {}", saved.getId());
+        return saved;
+    }
+
+    @Override
+    public void saveGames(List<GameRecord> records) {
+        List<GameRecord> saved = games.saveAll(records);
+        boolean forcing = forceEachAppend;
+        synchronized (this) {
+            // One sync for the whole import rather than one per game
+            forceEachAppend = false;
+            try {
+                for (GameRecord record : saved) {
+                    append(GAME_CREATED, record.getId(), encodeGame(record));
+                }
+            } finally {
+                forceEachAppend = forcing;
+            }
+            if (forcing) {
+                current.force();
+            }
+        }
+    }
+
+    @Override
+    public void updateGame(GameRecord record) {
+        if (!latestState.containsKey(record.getId())) {
+            logger.debug("Ignoring update of unknown game ID: {}", record.getId());
+            return;
+        }
+        games.updateGame(record);
+        append(GAME_UPDATED, record.getId(), encodeGame(record));
+        logger.debug("Updated game record ID: {}", record.getId());
+    }
+
+    @Override
+    public void appendGuess(long gameId, int guessNumber, GameConverter.GuessResult guess) {
+        games.appendGuess(gameId, guessNumber, guess);
+        byte[] encodedGuess = GameConverter.encodeGuesses(List.of(guess));
+        ByteBuffer payload = ByteBuffer.allocate(Long.BYTES + Integer.BYTES + encodedGuess.length)
+            .putLong(gameId)
+            .putInt(guessNumber)
+            .put(encodedGuess);
+        append(GUESS_APPENDED, gameId, payload.array());
+    }
+
+    @Override
+    public List<GameConverter.GuessResult> getAppendedGuesses(long gameId) {
+        return games.getAppendedGuesses(gameId);
+    }
+
+    @Override
+    public boolean isLastGameIncomplete() {
+        return games.isLastGameIncomplete();
+    }
+
+    @Override
+    public Optional<GameRecord> getLastGame() {
+        return games.getLastGame();
+    }
+
+    @Override
+    public Optional<GameRecord> getLastIncompleteGame() {
+        return games.getLastIncompleteGame();
+    }
+
+    @Override
+    public GamePage getGamesPage(GamePage.Cursor after, int pageSize) {
+        return games.getGamesPage(after, pageSize);
+    }
+
+    @Override
+    public long countGames() {
+        return games.countGames();
+    }
+
+    @Override
+    public List<GameStats> getStatistics() {
+        return games.getStatistics();
+    }
+
+    @Override
+    public List<GameRecord> getFinishedGamesBefore(LocalDateTime cutoff, int limit) {
+        return games.getFinishedGamesBefore(cutoff, limit);
+    }
+
+    @Override
+    public void deleteGames(Collection<Long> gameIds) {
+        games.deleteGames(gameIds);
+        ByteBuffer payload = ByteBuffer.allocate(Long.BYTES * gameIds.size());
+        gameIds.forEach(payload::putLong);
+        synchronized (this) {
+            appendRecord(GAMES_REMOVED, payload.array());
+            gameIds.forEach(latestState::remove);
+        }
+    }
+
+    @Override
+    public void deleteAllGames() {
+        games.deleteAllGames();
+        synchronized (this) {
+            // The segments holding the deleted games' creations go, so the record keeps their highest ID
+            appendRecord(GAMES_DELETED, ByteBuffer.allocate(Long.BYTES).putLong(games.lastIssuedId()).array());
+            latestState.clear();
+            // Nothing before the delete is needed to recover any more
+            long firstLive = current.number();
+            retiring = retiring.thenRunAsync(() -> deleteSegmentsBefore(firstLive), roller);
+        }
+    }
+
+    @Override
+    public void runInTransaction(Runnable work) {
+        work.run();
+    }
+
+    @Override
+    public void configureDurability(DurabilityMode mode) {
+        forceEachAppend = mode == DurabilityMode.PER_GUESS;
+    }
+
+    @Override
+    public void runDurably(Runnable work) {
+        work.run();
+        checkpoint();
+    }
+
+    @Override
+    public void checkpoint() {
+        CompletableFuture<Void> pending;
+        synchronized (this) {
+            current.force();
+            pending = retiring;
+        }
+        pending.join();
+    }
+
+    /**
+     * Gets the log position of a game's latest full state, for tests.
+     */
+    Optional<Long> latestStatePosition(long gameId) {
+        return Optional.ofNullable(latestState.get(gameId));
+    }
+
+    private void append(byte type, long gameId, byte[] payload) {
+        synchronized (this) {
+            long position = appendRecord(type, payload);
+            if (type != GUESS_APPENDED) {
+                latestState.put(gameId, position);
+            }
+        }
+    }
+
+    private long appendRecord(byte type, byte[] payload) {
+        if (!current.hasRoomFor(payload.length)) {
+            roll(payload.length);
+        }
+        int offset = current.append(type, payload);
+        if (forceEachAppend) {
+            current.force();
+        }
+        if (next == null && current.position() > current.capacity() / 4 * 3) {
+            long number = current.number() + 1;
+            next = CompletableFuture.supplyAsync(() -> openSegment(number), roller);
+        }
+        return position(current.number(), offset);
+    }
+
+    private void roll(int payloadBytes) {
+        if (LogSegment.HEADER_BYTES + 1 + payloadBytes > segmentBytes) {
+            throw new IllegalStateException("Event of " + payloadBytes
+                + " bytes does not fit in a log segment of " + segmentBytes + " bytes");
+        }
+        long number = current.number() + 1;
+        LogSegment full = current;
+        current = next != null ? next.join() : openSegment(number);
+        next = null;
+        retiring = retiring.thenRunAsync(() -> retire(full), roller);
+        logger.debug("Rolled event log over to segment {}", current.number());
+    }
+
+    private LogSegment openSegment(long number) {
+        try {
+            return LogSegment.open(directory, number, segmentBytes);
+        } catch (IOException e) {
+            logger.error("Failed to create event log segment {}", number, e);
+            throw new RuntimeException("Failed to create event log segment", e);
+        }
+    }
+
+    private void retire(LogSegment segment) {
+        try {
+            segment.force();
+            segment.close();
+        } catch (IOException e) {
+            logger.warn("Error closing event log segment {}", segment.number(), e);
+        }
+    }
+
+    private void deleteSegmentsBefore(long number) {
+        try (Stream<Path> listing = Files.list(directory)) {
+            for (Path file : listing.toList()) {
+                long segmentNumber = LogSegment.numberOf(file);
+                if (segmentNumber >= 0 && segmentNumber < number) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Error deleting old event log segments", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            current.force();
+            retiring.join();
+            if (next != null) {
+                retire(next.join());
+            }
+            current.close();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Error closing event log", e);
+        } finally {
+            roller.shutdown();
+            try {
+                roller.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        logger.debug("Event log closed with {} games", games.countGames());
+    }
+
+    private static long position(long segmentNumber, int offset) {
+        return (segmentNumber << 32) | offset;
+    }
+
+    private static byte[] encodeGame(GameRecord record) {
+        byte[] secretCode = record.getSecretCode().getBytes(StandardCharsets.UTF_8);
+        byte[] guesses = record.getEncodedGuesses();
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + 3 * Integer.BYTES + 1
+            + 2 * (Long.BYTES + Integer.BYTES) + 2 * Integer.BYTES + secretCode.length + guesses.length);
+        buffer.putLong(record.getId())
+            .putInt(record.getMaxAttempts())
+            .putInt(record.getCodeLength())
+            .putInt(record.getMaxNumber())
+            .put((byte) GameStatus.valueOf(record.getStatus()).ordinal());
+        putTimestamp(buffer, record.getStartedAt());
+        putTimestamp(buffer, record.getCompletedAt());
+        buffer.putInt(secretCode.length).put(secretCode);
+        buffer.putInt(guesses.length).put(guesses);
+        return buffer.array();
+    }
+
+    private static GameRecord decodeGame(ByteBuffer payload) {
+        long id = payload.getLong();
+        int maxAttempts = payload.getInt();
+        int codeLength = payload.getInt();
+        int maxNumber = payload.getInt();
+        GameStatus status = GameStatus.values()[payload.get()];
+        LocalDateTime startedAt = getTimestamp(payload);
+        LocalDateTime completedAt = getTimestamp(payload);
+        byte[] secretCode = new byte[payload.getInt()];
+        payload.get(secretCode);
+        byte[] guesses = new byte[payload.getInt()];
+        payload.get(guesses);
+        return new GameRecord(id, new String(secretCode, StandardCharsets.UTF_8), maxAttempts, codeLength,
+            maxNumber, status.name(), startedAt, completedAt, guesses,
+            GameConverter.countGuesses(guesses), GameConverter.decodeLastGuess(guesses));
+    }
+
+    private static void putTimestamp(ByteBuffer buffer, LocalDateTime dateTime) {
+        if (dateTime == null) {
+            buffer.putLong(NO_TIMESTAMP).putInt(0);
+        } else {
+            buffer.putLong(dateTime.toEpochSecond(ZoneOffset.UTC)).putInt(dateTime.getNano());
+        }
+    }
+
+    private static LocalDateTime getTimestamp(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        return seconds == NO_TIMESTAMP ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    private static byte[] remaining(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,15 @@
+package org.alanc.mastermind.persistence;
+
+/**
+ * File formats game history can be exported in.
+ */
+public enum ExportFormat {
+    /** One JSON object per line, with the full guess history. Can be imported again. */
+    NDJSON,
+
+    /**
+     * Comma-separated values with a header row, for spreadsheets. Guesses are written in one
+     * column as {@code pegs/correct numbers/correct locations} entries separated by semicolons.
+     */
+    CSV
+}
@@ -0,0 +1,191 @@
+package org.alanc.mastermind.persistence;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.alanc.mastermind.config.PersistenceConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves finished games older than the retention period out of the live store into
+ * gzip-compressed NDJSON archive files, one file per batch.
+ * Each batch is written and synced to its archive file before its games are deleted, and the
+ * delete is a short transaction of its own, so writers are never locked out for longer than
+ * one batch takes. Statistics are unaffected; archived games stay counted.
+ * An archive file is never replaced: a batch that is archived again after a crash, identical to
+ * its earlier file, is not written twice, and a different batch whose file name is taken gets a
+ * numbered name such as {@code games-1-2.1.ndjson.gz}.
+ */
+public class GameArchiver implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(GameArchiver.class);
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    private final GameStore gameStore;
+    private final Path directory;
+    private final Duration retention;
+    private final int batchSize;
+    private final Clock clock;
+    private final Runnable onArchived;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Creates an archiver for the retention settings of the configuration.
+     *
+     * @throws IllegalArgumentException if the configuration has no retention period
+     */
+    public GameArchiver(GameStore gameStore, PersistenceConfig config) {
+        this(gameStore, config, () -> { });
+    }
+
+    /**
+     * Creates an archiver for the retention settings of the configuration that runs a callback
+     * after each batch of games is deleted from the store.
+     *
+     * @throws IllegalArgumentException if the configuration has no retention period
+     */
+    public GameArchiver(GameStore gameStore, PersistenceConfig config, Runnable onArchived) {
+        this(gameStore, Path.of(config.getArchiveDirectory()), config.getRetention(),
+            config.getArchiveBatchSize(), Clock.systemDefaultZone(), onArchived);
+    }
+
+    GameArchiver(GameStore gameStore, Path directory, Duration retention, int batchSize, Clock clock) {
+        this(gameStore, directory, retention, batchSize, clock, () -> { });
+    }
+
+    private GameArchiver(GameStore gameStore, Path directory, Duration retention, int batchSize, Clock clock,
+                         Runnable onArchived) {
+        if (retention == null) {
+            throw new IllegalArgumentException("retention must not be null");
+        }
+        this.gameStore = gameStore;
+        this.directory = directory;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.clock = clock;
+        this.onArchived = onArchived;
+    }
+
+    /**
+     * Starts archiving on a background thread at a fixed interval, beginning one interval from now.
+     */
+    public synchronized void start(Duration interval) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::archiveQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void archiveQuietly() {
+        try {
+            archiveExpiredGames();
+        } catch (RuntimeException e) {
+            logger.warn("Archiving expired games failed", e);
+        }
+    }
+
+    /**
+     * Archives every finished game that started before the retention period, a batch at a time.
+     *
+     * @return the number of games archived
+     */
+    public int archiveExpiredGames() {
+        LocalDateTime cutoff = LocalDateTime.now(clock).minus(retention);
+        int archived = 0;
+        while (true) {
+            List<GameRecord> batch = gameStore.getFinishedGamesBefore(cutoff, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            writeArchive(batch);
+            gameStore.deleteGames(batch.stream().map(GameRecord::getId).toList());
+            onArchived.run();
+            archived += batch.size();
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        if (archived > 0) {
+            logger.info("Archived {} games started before {} to {}", archived, cutoff, directory);
+        }
+        return archived;
+    }
+
+    private void writeArchive(List<GameRecord> batch) {
+        long firstId = batch.stream().mapToLong(GameRecord::getId).min().orElseThrow();
+        long lastId = batch.stream().mapToLong(GameRecord::getId).max().orElseThrow();
+        String baseName = String.format("games-%d-%d", firstId, lastId);
+        Path temp = directory.resolve(baseName + ".ndjson.gz.tmp");
+        Path target = directory.resolve(baseName + ".ndjson.gz");
+
+        try {
+            Files.createDirectories(directory);
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp));
+                 JsonGenerator generator = jsonFactory.createGenerator(out)) {
+                generator.setRootValueSeparator(new SerializedString("\n"));
+                for (GameRecord record : batch) {
+                    GameRecordJson.write(generator, record);
+                }
+                generator.writeRaw('\n');
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            for (int copy = 1; ; copy++) {
+                if (Files.exists(target) && Files.mismatch(temp, target) == -1) {
+                    Files.delete(temp); // archived before a crash kept the games in the store
+                    break;
+                }
+                try {
+                    // Without REPLACE_EXISTING the move fails rather than overwrite another archive
+                    Files.move(temp, target);
+                    break;
+                } catch (FileAlreadyExistsException e) {
+                    target = directory.resolve(baseName + "." + copy + ".ndjson.gz");
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to write archive file {}", target, e);
+            throw new RuntimeException("Failed to write archive file", e);
+        }
+        logger.debug("Wrote {} games to {}", batch.size(), target);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
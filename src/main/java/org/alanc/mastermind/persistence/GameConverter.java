@@ -2,21 +2,31 @@ package org.alanc.mastermind.persistence;
 
 import org.alanc.mastermind.config.GameConfig;
 import org.alanc.mastermind.game.GameState;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Converts between GameState (domain) and GameRecord (persistence).
- * Handles JSON serialization of guess history.
+ * Handles the binary encoding of guess history stored in the database,
+ * and its JSON form used for display and for databases written before the binary encoding.
+ * The JSON form is written and read token by token with the streaming API, without reflection.
  */
 public class GameConverter {
     private static final Logger logger = LoggerFactory.getLogger(GameConverter.class);
-    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final JsonFactory jsonFactory = new JsonFactory();
+    private static final int GUESS_ENCODING_VERSION = 1;
+    // Codes shorter than this pack both feedback counters into one byte
+    private static final int NIBBLE_FEEDBACK_MAX_CODE_LENGTH = 15;
 
     /**
      * Converts GameState to GameRecord for database storage.
@@ -24,7 +34,9 @@ public class GameConverter {
     public static GameRecord toRecord(GameState gameState, Long id, LocalDateTime startedAt) {
         String status = determineStatus(gameState);
         LocalDateTime completedAt = gameState.isGameEnded() ? LocalDateTime.now() : null;
-        String guessesJson = serializeGuesses(gameState.getGuessHistory());
+        List<GuessResult> guesses = gameState.getGuessHistory().stream()
+            .map(GameConverter::toGuessResult)
+            .toList();
 
         return new GameRecord(
             id,
@@ -35,7 +47,7 @@ public class GameConverter {
             status,
             startedAt,
             completedAt,
-            guessesJson
+            guesses
         );
     }
 
@@ -49,28 +61,70 @@ public class GameConverter {
             .maxNumber(record.getMaxNumber())
             .build();
 
-        // For resumed games, we need to reconstruct the game state
-        GameState baseState = GameState.createNew(record.getSecretCode(), config);
-        
-        // Apply each guess from the history to rebuild the state
-        List<GuessResult> guesses = deserializeGuesses(record.getGuessesJson());
-        GameState currentState = baseState;
-        
-        for (GuessResult guess : guesses) {
-            if (!currentState.isGameEnded()) {
-                // Convert guess string back to numbers and apply
-                String[] parts = guess.guess().split("\\s+");
-                int[] numbers = new int[parts.length];
-                for (int i = 0; i < parts.length; i++) {
-                    numbers[i] = Integer.parseInt(parts[i]);
-                }
-                currentState = currentState.withGuess(numbers);
-            }
+        // Restore directly from the recorded feedback instead of replaying every guess
+        List<GameState.GuessResult> history = new ArrayList<>(record.getGuesses().size());
+        for (GuessResult guess : record.getGuesses()) {
+            history.add(toDomainGuessResult(guess));
         }
+        GameState currentState = GameState.restore(record.getSecretCode(), config, history);
 
         return new GameStateResult(currentState, config, record.getId(), record.getStartedAt());
     }
 
+    /**
+     * Checks a record's guess feedback by re-scoring every guess against its secret code.
+     * Resuming trusts the stored feedback, so this is the way to detect corrupted or tampered history.
+     *
+     * @param record the record to check
+     * @return true if every stored guess is valid and scored correctly
+     */
+    public static boolean verifyGuesses(GameRecord record) {
+        try {
+            return fromRecord(record).gameState().isHistoryConsistent();
+        } catch (IllegalArgumentException e) {
+            logger.debug("Game {} cannot be restored: {}", record.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Converts a persisted guess result to its domain form.
+     */
+    public static GameState.GuessResult toDomainGuessResult(GuessResult guess) {
+        return new GameState.GuessResult(guess.guess(), guess.correctNumbers(), guess.correctLocations(), guess.allCorrect());
+    }
+
+    /**
+     * Converts a domain guess result to its persistence form.
+     */
+    public static GuessResult toGuessResult(GameState.GuessResult guess) {
+        return new GuessResult(guess.guess(), guess.correctNumbers(), guess.correctLocations(), guess.allCorrect());
+    }
+
+    /**
+     * Returns a copy of the record whose guess history also includes guesses
+     * appended to the guess log after the record's guesses were last written.
+     */
+    public static GameRecord withAppendedGuesses(GameRecord record, List<GuessResult> appendedGuesses) {
+        if (appendedGuesses.isEmpty()) {
+            return record;
+        }
+        List<GuessResult> guesses = new ArrayList<>(record.getGuesses());
+        guesses.addAll(appendedGuesses);
+
+        return new GameRecord(
+            record.getId(),
+            record.getSecretCode(),
+            record.getMaxAttempts(),
+            record.getCodeLength(),
+            record.getMaxNumber(),
+            record.getStatus(),
+            record.getStartedAt(),
+            record.getCompletedAt(),
+            guesses
+        );
+    }
+
     private static String determineStatus(GameState gameState) {
         if (!gameState.isGameEnded()) {
             return GameStatus.IN_PROGRESS.name();
@@ -78,28 +132,244 @@ public class GameConverter {
         return gameState.hasPlayerWon() ? GameStatus.WON.name() : GameStatus.LOST.name();
     }
 
-    private static String serializeGuesses(List<GameState.GuessResult> guesses) {
-        try {
-            return mapper.writeValueAsString(guesses);
-        } catch (JsonProcessingException e) {
+    static String serializeGuesses(List<GuessResult> guesses) {
+        StringWriter json = new StringWriter(guesses.size() * 80 + 2);
+        try (JsonGenerator generator = jsonFactory.createGenerator(json)) {
+            GameRecordJson.writeGuesses(generator, guesses);
+        } catch (IOException e) {
             logger.error("Failed to serialize guesses", e);
             return "[]";
         }
+        return json.toString();
     }
 
-    private static List<GuessResult> deserializeGuesses(String guessesJson) {
-        try {
-            if (guessesJson == null || guessesJson.trim().isEmpty()) {
-                return List.of();
-            }
-            return mapper.readValue(guessesJson, 
-                mapper.getTypeFactory().constructCollectionType(List.class, GuessResult.class));
-        } catch (JsonProcessingException e) {
+    static List<GuessResult> deserializeGuesses(String guessesJson) {
+        if (guessesJson == null || guessesJson.trim().isEmpty()) {
+            return List.of();
+        }
+        try (JsonParser parser = jsonFactory.createParser(guessesJson)) {
+            parser.nextToken();
+            return GameRecordJson.readGuesses(parser);
+        } catch (IOException e) {
             logger.error("Failed to deserialize guesses: {}", guessesJson, e);
             return List.of();
         }
     }
 
+    /**
+     * Encodes a guess history in the compact binary form stored in the database.
+     * Layout: a version byte, the guess count and code length as varints, and the peg width in bits;
+     * then per guess the pegs bit-packed into ceil(codeLength * width / 8) bytes, followed by the
+     * feedback. For codes shorter than 16 pegs the feedback is one byte holding correctNumbers
+     * and correctLocations as nibbles, otherwise two varints. allCorrect is implied by
+     * correctLocations == codeLength, so it is not stored.
+     *
+     * @param guesses the guesses to encode; all must have the same number of pegs
+     * @return the encoded history
+     * @throws IllegalArgumentException if a guess is not a whitespace-separated list of non-negative numbers
+     *                                  or the guesses differ in length
+     */
+    public static byte[] encodeGuesses(List<GuessResult> guesses) {
+        int[][] pegs = new int[guesses.size()][];
+        int maxPeg = 0;
+        for (int i = 0; i < pegs.length; i++) {
+            pegs[i] = parsePegs(guesses.get(i).guess());
+            if (pegs[i].length != pegs[0].length) {
+                throw new IllegalArgumentException("Guesses differ in length: " + guesses.get(i).guess());
+            }
+            for (int peg : pegs[i]) {
+                maxPeg = Math.max(maxPeg, peg);
+            }
+        }
+        int codeLength = pegs.length == 0 ? 0 : pegs[0].length;
+        int width = Math.max(1, 32 - Integer.numberOfLeadingZeros(maxPeg));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+            4 + pegs.length * ((codeLength * width + 7) / 8 + 1));
+        out.write(GUESS_ENCODING_VERSION);
+        writeVarint(out, pegs.length);
+        writeVarint(out, codeLength);
+        out.write(width);
+
+        for (int i = 0; i < pegs.length; i++) {
+            long bits = 0;
+            int bitCount = 0;
+            for (int peg : pegs[i]) {
+                bits |= (long) peg << bitCount;
+                bitCount += width;
+                while (bitCount >= 8) {
+                    out.write((int) bits & 0xFF);
+                    bits >>>= 8;
+                    bitCount -= 8;
+                }
+            }
+            if (bitCount > 0) {
+                out.write((int) bits & 0xFF);
+            }
+
+            GuessResult guess = guesses.get(i);
+            if (codeLength <= NIBBLE_FEEDBACK_MAX_CODE_LENGTH) {
+                out.write(guess.correctNumbers() << 4 | guess.correctLocations());
+            } else {
+                writeVarint(out, guess.correctNumbers());
+                writeVarint(out, guess.correctLocations());
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a guess history written by {@link #encodeGuesses(List)}.
+     *
+     * @param encoded the encoded history
+     * @return the guesses, oldest first
+     * @throws IllegalArgumentException if the data is truncated or uses an unknown encoding version
+     */
+    public static List<GuessResult> decodeGuesses(byte[] encoded) {
+        try {
+            int[] pos = {0};
+            int version = encoded[pos[0]++] & 0xFF;
+            if (version != GUESS_ENCODING_VERSION) {
+                throw new IllegalArgumentException("Unknown guess encoding version: " + version);
+            }
+            int count = readVarint(encoded, pos);
+            int codeLength = readVarint(encoded, pos);
+            int width = encoded[pos[0]++] & 0xFF;
+
+            List<GuessResult> guesses = new ArrayList<>(count);
+            StringBuilder guess = new StringBuilder(codeLength * 2);
+            for (int i = 0; i < count; i++) {
+                guesses.add(readGuess(encoded, pos, codeLength, width, guess));
+            }
+            return guesses;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated guess history", e);
+        }
+    }
+
+    /**
+     * Decodes only the most recent guess of a history written by {@link #encodeGuesses(List)}.
+     * Codes shorter than 16 pegs are stored in fixed-size entries, so the last guess is found by
+     * offset; for longer codes the earlier entries are skipped without building their guesses.
+     *
+     * @param encoded the encoded history
+     * @return the last guess, or null if the history is empty
+     * @throws IllegalArgumentException if the data is truncated or uses an unknown encoding version
+     */
+    public static GuessResult decodeLastGuess(byte[] encoded) {
+        try {
+            int[] pos = {0};
+            int version = encoded[pos[0]++] & 0xFF;
+            if (version != GUESS_ENCODING_VERSION) {
+                throw new IllegalArgumentException("Unknown guess encoding version: " + version);
+            }
+            int count = readVarint(encoded, pos);
+            int codeLength = readVarint(encoded, pos);
+            int width = encoded[pos[0]++] & 0xFF;
+            if (count == 0) {
+                return null;
+            }
+
+            int pegBytes = (codeLength * width + 7) / 8;
+            if (codeLength <= NIBBLE_FEEDBACK_MAX_CODE_LENGTH) {
+                pos[0] += (count - 1) * (pegBytes + 1);
+            } else {
+                for (int i = 0; i < count - 1; i++) {
+                    pos[0] += pegBytes;
+                    readVarint(encoded, pos);
+                    readVarint(encoded, pos);
+                }
+            }
+            return readGuess(encoded, pos, codeLength, width, new StringBuilder(codeLength * 2));
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated guess history", e);
+        }
+    }
+
+    private static GuessResult readGuess(byte[] encoded, int[] pos, int codeLength, int width, StringBuilder guess) {
+        long mask = (1L << width) - 1;
+        guess.setLength(0);
+        long bits = 0;
+        int bitCount = 0;
+        for (int p = 0; p < codeLength; p++) {
+            while (bitCount < width) {
+                bits |= (long) (encoded[pos[0]++] & 0xFF) << bitCount;
+                bitCount += 8;
+            }
+            if (p > 0) {
+                guess.append(' ');
+            }
+            guess.append((int) (bits & mask));
+            bits >>>= width;
+            bitCount -= width;
+        }
+
+        int correctNumbers;
+        int correctLocations;
+        if (codeLength <= NIBBLE_FEEDBACK_MAX_CODE_LENGTH) {
+            int feedback = encoded[pos[0]++] & 0xFF;
+            correctNumbers = feedback >>> 4;
+            correctLocations = feedback & 0x0F;
+        } else {
+            correctNumbers = readVarint(encoded, pos);
+            correctLocations = readVarint(encoded, pos);
+        }
+        return new GuessResult(guess.toString(), correctNumbers, correctLocations, correctLocations == codeLength);
+    }
+
+    /**
+     * Reads the number of guesses in an encoded history without decoding it.
+     *
+     * @param encoded a history written by {@link #encodeGuesses(List)}
+     * @return the number of guesses
+     */
+    public static int countGuesses(byte[] encoded) {
+        try {
+            if ((encoded[0] & 0xFF) != GUESS_ENCODING_VERSION) {
+                throw new IllegalArgumentException("Unknown guess encoding version: " + (encoded[0] & 0xFF));
+            }
+            return readVarint(encoded, new int[]{1});
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated guess history", e);
+        }
+    }
+
+    static int[] parsePegs(String guess) {
+        String[] parts = guess.trim().split("\\s+");
+        int[] pegs = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            try {
+                pegs[i] = Integer.parseInt(parts[i]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid guess: " + guess, e);
+            }
+            if (pegs[i] < 0) {
+                throw new IllegalArgumentException("Invalid guess: " + guess);
+            }
+        }
+        return pegs;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] data, int[] pos) {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = data[pos[0]++] & 0xFF;
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
     /**
      * Result of converting a GameRecord back to game objects.
      * 
@@ -111,7 +381,7 @@ public class GameConverter {
     public record GameStateResult(GameState gameState, GameConfig config, Long gameId, LocalDateTime startedAt) {}
 
     /**
-     * Record for JSON serialization of guess results.
+     * Persistence form of a guess result, as encoded in the database and serialized to JSON.
      * 
      * @param guess the player's guess as a string
      * @param correctNumbers number of correct digits in wrong positions
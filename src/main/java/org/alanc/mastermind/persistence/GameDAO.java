@@ -1,119 +1,281 @@
 package org.alanc.mastermind.persistence;
 
+import org.alanc.mastermind.config.DurabilityMode;
+import org.alanc.mastermind.config.PersistenceConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.core.DB;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 import java.sql.*;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
- * Simple DAO for game persistence using SQLite.
+ * SQLite implementation of {@link GameStore}.
  * Handles database operations for saving and loading games.
+ * The database runs in WAL mode with one writer connection and a small pool of
+ * read-only connections, so history queries are not blocked by games being saved.
+ * Write methods are synchronized so one DAO can be shared by the game loop
+ * and the write-behind writer thread; read methods borrow a connection from the pool.
+ * Several processes can share one database file: connections wait out each other's locks up to
+ * the configured busy timeout, operations that still find the database busy are retried with
+ * backoff, and games being played are claimed in a lock file so two processes never resume the same one.
  */
-public class GameDAO implements AutoCloseable {
+public class GameDAO implements GameStore {
     private static final Logger logger = LoggerFactory.getLogger(GameDAO.class);
-    private static final String DEFAULT_DB_URL = "jdbc:sqlite:mastermind_games.db";
+
+    // Bulk saves insert this many rows per statement, well under SQLite's bound parameter limit
+    private static final int ROWS_PER_INSERT = 100;
+    private static final int INSERT_COLUMNS = 12;
+    private static final String INSERT_PREFIX = """
+        INSERT INTO games (secret_code, max_attempts, code_length, max_number,
+                         status, started_at, completed_at, guesses_blob,
+                         guess_count, last_guess, last_correct_numbers, last_correct_locations)
+        VALUES\s""";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SINGLE_ROW_INSERT = INSERT_PREFIX + INSERT_ROW;
+    private static final String MULTI_ROW_INSERT =
+        INSERT_PREFIX + String.join(", ", Collections.nCopies(ROWS_PER_INSERT, INSERT_ROW));
+    // Longest wait between busy retries, however many retries are configured
+    private static final long MAX_BUSY_BACKOFF_MILLIS = 1000;
+    private static final long READER_WAIT_MILLIS = 100;
     
     private Connection connection;
+    private StatementCache writerStatements;
+    private final BlockingQueue<StatementCache> readers;
     private final String dbUrl;
+    private final Path lockPath;
+    private final PersistenceConfig config;
+    private GameLockFile lockFile;
+    private String synchronous = "FULL";
+    private volatile boolean closed;
 
     public GameDAO() {
-        this(DEFAULT_DB_URL);
+        this(PersistenceConfig.defaults());
+    }
+
+    public GameDAO(PersistenceConfig config) {
+        this(config.getDatabasePath(), config);
     }
 
     public GameDAO(String dbFileName) {
+        this(dbFileName, PersistenceConfig.defaults());
+    }
+
+    public GameDAO(String dbFileName, PersistenceConfig config) {
         this.dbUrl = "jdbc:sqlite:" + dbFileName;
+        this.lockPath = Path.of(dbFileName + ".lock");
+        this.config = config;
+        this.readers = new ArrayBlockingQueue<>(config.getReaderPoolSize());
         try {
             initializeDatabase();
+            openReaders();
         } catch (SQLException e) {
             logger.error("Failed to initialize database", e);
+            close();
             throw new RuntimeException("Failed to initialize database", e);
         }
     }
 
     private void initializeDatabase() throws SQLException {
-        connection = DriverManager.getConnection(dbUrl);
-        
-        String createTableSQL = """
-            CREATE TABLE IF NOT EXISTS games (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                secret_code TEXT NOT NULL,
-                max_attempts INTEGER NOT NULL,
-                code_length INTEGER NOT NULL,
-                max_number INTEGER NOT NULL,
-                status TEXT NOT NULL,
-                started_at TEXT NOT NULL,
-                completed_at TEXT,
-                guesses_json TEXT
-            )
-            """;
-        
+        SQLiteConfig writerConfig = new SQLiteConfig();
+        writerConfig.setBusyTimeout((int) config.getBusyTimeout().toMillis());
+        // Take the write lock when a transaction begins, where the busy timeout applies, rather than
+        // upgrading a read lock mid-transaction, which fails at once if another process wrote first
+        writerConfig.setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+        connection = DriverManager.getConnection(dbUrl, writerConfig.toProperties());
+        writerStatements = new StatementCache(connection);
         try (Statement stmt = connection.createStatement()) {
-            stmt.execute(createTableSQL);
-            logger.debug("Database initialized successfully");
+            // WAL is persistent in the database file; readers opened afterwards inherit it
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("PRAGMA synchronous = " + synchronous);
+        }
+        applyCacheSettings(connection);
+        GameSchema.apply(connection);
+        logger.debug("Database initialized successfully");
+    }
+
+    private void openReaders() throws SQLException {
+        SQLiteConfig readerConfig = new SQLiteConfig();
+        readerConfig.setReadOnly(true);
+        readerConfig.setBusyTimeout((int) config.getBusyTimeout().toMillis());
+
+        for (int i = 0; i < config.getReaderPoolSize(); i++) {
+            Connection reader = DriverManager.getConnection(dbUrl, readerConfig.toProperties());
+            applyCacheSettings(reader);
+            readers.add(new StatementCache(reader));
+        }
+        logger.debug("Opened {} read-only connections", readers.size());
+    }
+
+    private void applyCacheSettings(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            // Negative cache_size is in KiB rather than pages
+            stmt.execute("PRAGMA cache_size = -" + config.getCacheSizeKib());
+            stmt.execute("PRAGMA mmap_size = " + config.getMmapSizeBytes());
         }
     }
 
     /**
      * Saves a new game record and returns it with the generated ID.
+     * The ID comes back from the insert itself via RETURNING.
      */
-    public GameRecord saveGame(GameRecord record) {
-        String sql = """
-            INSERT INTO games (secret_code, max_attempts, code_length, max_number, 
-                             status, started_at, completed_at, guesses_json)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
-            """;
-        
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, record.getSecretCode());
-            stmt.setInt(2, record.getMaxAttempts());
-            stmt.setInt(3, record.getCodeLength());
-            stmt.setInt(4, record.getMaxNumber());
-            stmt.setString(5, record.getStatus());
-            stmt.setString(6, record.getStartedAt().toString());
-            stmt.setString(7, record.getCompletedAt() != null ? record.getCompletedAt().toString() : null);
-            stmt.setString(8, record.getGuessesJson());
-            
-            stmt.executeUpdate();
-            
-            // Get the generated ID using SQLite's last_insert_rowid()
-            try (PreparedStatement idStmt = connection.prepareStatement("SELECT last_insert_rowid()");
-                 ResultSet rs = idStmt.executeQuery()) {
-                if (rs.next()) {
-                    long id = rs.getLong(1);
-                    logger.debug("Saved game record with ID: {}", id);
-                    // Return new record with generated ID
-                    return new GameRecord(id, record.getSecretCode(), record.getMaxAttempts(), 
-                                        record.getCodeLength(), record.getMaxNumber(), record.getStatus(),
-                                        record.getStartedAt(), record.getCompletedAt(), record.getGuessesJson());
+    @Override
+    public synchronized GameRecord saveGame(GameRecord record) {
+        String sql = SINGLE_ROW_INSERT + " RETURNING id";
+
+        try {
+            return writeRetryingWhileBusy(() -> {
+                PreparedStatement stmt = writerStatements.prepare(sql);
+                bindInsert(stmt, 1, record);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        long id = rs.getLong(1);
+                        logger.debug("Saved game record with ID: {}", id);
+                        // Return new record with generated ID
+                        return record.withId(id);
+                    }
                 }
-            }
-            throw new RuntimeException("Failed to retrieve generated ID for new game record");
+                throw new RuntimeException("Failed to retrieve generated ID for new game record");
+            });
         } catch (SQLException e) {
             logger.error("Failed to save game record", e);
             throw new RuntimeException("Failed to save game record", e);
         }
     }
 
+    /**
+     * Saves many new games in one transaction with multi-row inserts of
+     * {@value #ROWS_PER_INSERT} games each, then counts the finished ones in the statistics.
+     */
+    @Override
+    public synchronized void saveGames(List<GameRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        try {
+            inTransaction(() -> {
+                int full = records.size() - records.size() % ROWS_PER_INSERT;
+                if (full > 0) {
+                    PreparedStatement multiRow = writerStatements.prepare(MULTI_ROW_INSERT);
+                    for (int start = 0; start < full; start += ROWS_PER_INSERT) {
+                        for (int row = 0; row < ROWS_PER_INSERT; row++) {
+                            bindInsert(multiRow, row * INSERT_COLUMNS + 1, records.get(start + row));
+                        }
+                        multiRow.executeUpdate();
+                    }
+                }
+                if (full < records.size()) {
+                    PreparedStatement singleRow = writerStatements.prepare(SINGLE_ROW_INSERT);
+                    for (GameRecord record : records.subList(full, records.size())) {
+                        bindInsert(singleRow, 1, record);
+                        singleRow.addBatch();
+                    }
+                    singleRow.executeBatch();
+                }
+                for (GameRecord record : records) {
+                    if (!GameStatus.IN_PROGRESS.name().equals(record.getStatus())) {
+                        recordFinishedGame(record);
+                    }
+                }
+            });
+            logger.debug("Saved {} game records", records.size());
+        } catch (SQLException e) {
+            logger.error("Failed to save game records", e);
+            throw new RuntimeException("Failed to save game records", e);
+        }
+    }
+
+    private static PreparedStatement bindInsert(PreparedStatement stmt, int firstIndex, GameRecord record) throws SQLException {
+        stmt.setString(firstIndex, record.getSecretCode());
+        stmt.setInt(firstIndex + 1, record.getMaxAttempts());
+        stmt.setInt(firstIndex + 2, record.getCodeLength());
+        stmt.setInt(firstIndex + 3, record.getMaxNumber());
+        stmt.setString(firstIndex + 4, record.getStatus());
+        stmt.setLong(firstIndex + 5, toEpochMillis(record.getStartedAt()));
+        setNullableTimestamp(stmt, firstIndex + 6, record.getCompletedAt());
+        stmt.setBytes(firstIndex + 7, record.getEncodedGuesses());
+        bindGuessSummary(stmt, firstIndex + 8, record);
+        return stmt;
+    }
+
+    private static void bindGuessSummary(PreparedStatement stmt, int firstIndex, GameRecord record) throws SQLException {
+        GameConverter.GuessResult last = record.getLastGuess();
+        stmt.setInt(firstIndex, record.getGuessCount());
+        if (last != null) {
+            stmt.setString(firstIndex + 1, last.guess());
+            stmt.setInt(firstIndex + 2, last.correctNumbers());
+            stmt.setInt(firstIndex + 3, last.correctLocations());
+        } else {
+            stmt.setNull(firstIndex + 1, Types.VARCHAR);
+            stmt.setNull(firstIndex + 2, Types.INTEGER);
+            stmt.setNull(firstIndex + 3, Types.INTEGER);
+        }
+    }
+
     /**
      * Updates an existing game record.
+     * The record's guess history supersedes any guesses appended for the game,
+     * so appended guesses are removed in the same transaction.
+     * When the update moves the game from in progress to a finished status, the game is
+     * counted in the statistics tables in the same transaction; updating an already
+     * finished game does not count it again.
      */
-    public void updateGame(GameRecord record) {
-        String sql = """
-            UPDATE games SET status = ?, completed_at = ?, guesses_json = ?
+    @Override
+    public synchronized void updateGame(GameRecord record) {
+        String finishSql = """
+            UPDATE games SET status = ?, completed_at = ?, guesses_blob = ?, guess_count = ?,
+                             last_guess = ?, last_correct_numbers = ?, last_correct_locations = ?
+            WHERE id = ? AND status = 'IN_PROGRESS'
+            """;
+        String updateSql = """
+            UPDATE games SET status = ?, completed_at = ?, guesses_blob = ?, guess_count = ?,
+                             last_guess = ?, last_correct_numbers = ?, last_correct_locations = ?
             WHERE id = ?
             """;
+        boolean finishing = !GameStatus.IN_PROGRESS.name().equals(record.getStatus());
         
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, record.getStatus());
-            stmt.setString(2, record.getCompletedAt() != null ? record.getCompletedAt().toString() : null);
-            stmt.setString(3, record.getGuessesJson());
-            stmt.setLong(4, record.getId());
-            
-            stmt.executeUpdate();
+        try {
+            inTransaction(() -> {
+                byte[] guesses = record.getEncodedGuesses();
+                boolean finished = false;
+                if (finishing) {
+                    finished = bindUpdate(writerStatements.prepare(finishSql), record, guesses).executeUpdate() > 0;
+                }
+                if (!finished) {
+                    bindUpdate(writerStatements.prepare(updateSql), record, guesses).executeUpdate();
+                } else {
+                    recordFinishedGame(record);
+                }
+
+                PreparedStatement deleteStmt = writerStatements.prepare("DELETE FROM guesses WHERE game_id = ?");
+                deleteStmt.setLong(1, record.getId());
+                deleteStmt.executeUpdate();
+            });
             logger.debug("Updated game record ID: {}", record.getId());
         } catch (SQLException e) {
             logger.error("Failed to update game record ID: {}", record.getId(), e);
@@ -121,107 +283,767 @@ public class GameDAO implements AutoCloseable {
         }
     }
 
+    private PreparedStatement bindUpdate(PreparedStatement stmt, GameRecord record, byte[] guesses) throws SQLException {
+        stmt.setString(1, record.getStatus());
+        setNullableTimestamp(stmt, 2, record.getCompletedAt());
+        stmt.setBytes(3, guesses);
+        bindGuessSummary(stmt, 4, record);
+        stmt.setLong(8, record.getId());
+        return stmt;
+    }
+
+    private void recordFinishedGame(GameRecord record) throws SQLException {
+        String statsSql = """
+            INSERT INTO game_stats (code_length, max_number, max_attempts, wins, losses, abandons)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (code_length, max_number, max_attempts) DO UPDATE SET
+                wins = wins + excluded.wins,
+                losses = losses + excluded.losses,
+                abandons = abandons + excluded.abandons
+            """;
+        String status = record.getStatus();
+        PreparedStatement stats = writerStatements.prepare(statsSql);
+        stats.setInt(1, record.getCodeLength());
+        stats.setInt(2, record.getMaxNumber());
+        stats.setInt(3, record.getMaxAttempts());
+        stats.setInt(4, GameStatus.WON.name().equals(status) ? 1 : 0);
+        stats.setInt(5, GameStatus.LOST.name().equals(status) ? 1 : 0);
+        stats.setInt(6, GameStatus.ABANDONED.name().equals(status) ? 1 : 0);
+        stats.executeUpdate();
+
+        if (GameStatus.WON.name().equals(status)) {
+            String histogramSql = """
+                INSERT INTO game_stats_guesses (code_length, max_number, max_attempts, guess_count, games)
+                VALUES (?, ?, ?, ?, 1)
+                ON CONFLICT (code_length, max_number, max_attempts, guess_count) DO UPDATE SET games = games + 1
+                """;
+            PreparedStatement histogram = writerStatements.prepare(histogramSql);
+            histogram.setInt(1, record.getCodeLength());
+            histogram.setInt(2, record.getMaxNumber());
+            histogram.setInt(3, record.getMaxAttempts());
+            histogram.setInt(4, record.getGuessCount());
+            histogram.executeUpdate();
+        }
+    }
+
+    /**
+     * Appends a single guess to a game's guess log.
+     * Appending a guess number again replaces that guess, so a retried batch can replay its appends.
+     *
+     * @param gameId the game the guess belongs to
+     * @param guessNumber the zero-based position of the guess in the game's history
+     * @param guess the guess and its feedback
+     */
+    @Override
+    public synchronized void appendGuess(long gameId, int guessNumber, GameConverter.GuessResult guess) {
+        String sql = """
+            INSERT INTO guesses (game_id, guess_number, guess, correct_numbers, correct_locations, all_correct)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (game_id, guess_number) DO UPDATE SET
+                guess = excluded.guess,
+                correct_numbers = excluded.correct_numbers,
+                correct_locations = excluded.correct_locations,
+                all_correct = excluded.all_correct
+            """;
+
+        try {
+            writeRetryingWhileBusy(() -> {
+                PreparedStatement stmt = writerStatements.prepare(sql);
+                stmt.setLong(1, gameId);
+                stmt.setInt(2, guessNumber);
+                stmt.setString(3, guess.guess());
+                stmt.setInt(4, guess.correctNumbers());
+                stmt.setInt(5, guess.correctLocations());
+                stmt.setBoolean(6, guess.allCorrect());
+                return stmt.executeUpdate();
+            });
+            logger.debug("Appended guess {} for game ID: {}", guessNumber, gameId);
+        } catch (SQLException e) {
+            logger.error("Failed to append guess for game ID: {}", gameId, e);
+            throw new RuntimeException("Failed to append guess", e);
+        }
+    }
+
+    /**
+     * Gets the guesses appended for a game since its guess history was last written, in order.
+     */
+    @Override
+    public List<GameConverter.GuessResult> getAppendedGuesses(long gameId) {
+        String sql = """
+            SELECT guess, correct_numbers, correct_locations, all_correct
+            FROM guesses WHERE game_id = ?
+            ORDER BY guess_number
+            """;
+
+        try {
+            return withReader(reader -> {
+                List<GameConverter.GuessResult> guesses = new ArrayList<>();
+                PreparedStatement stmt = reader.prepare(sql);
+                stmt.setLong(1, gameId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        guesses.add(new GameConverter.GuessResult(
+                            rs.getString("guess"),
+                            rs.getInt("correct_numbers"),
+                            rs.getInt("correct_locations"),
+                            rs.getBoolean("all_correct")
+                        ));
+                    }
+                }
+                return guesses;
+            });
+        } catch (SQLException e) {
+            logger.error("Failed to get appended guesses for game ID: {}", gameId, e);
+            throw new RuntimeException("Failed to get appended guesses", e);
+        }
+    }
+
     /**
      * Checks if the most recent game is incomplete.
      */
+    @Override
     public boolean isLastGameIncomplete() {
         String sql = """
             SELECT status FROM games 
-            ORDER BY started_at DESC 
+            ORDER BY started_at DESC, id DESC
             LIMIT 1
             """;
         
-        try (PreparedStatement stmt = connection.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            
-            if (rs.next()) {
-                String status = rs.getString("status");
-                return GameStatus.IN_PROGRESS.name().equals(status);
-            }
+        try {
+            return withReader(reader -> {
+                try (ResultSet rs = reader.prepare(sql).executeQuery()) {
+                    if (rs.next()) {
+                        String status = rs.getString("status");
+                        return GameStatus.IN_PROGRESS.name().equals(status);
+                    }
+                }
+                return false; // No games exist
+            });
         } catch (SQLException e) {
             logger.error("Failed to check if last game is incomplete", e);
             throw new RuntimeException("Failed to check if last game is incomplete", e);
         }
-        return false; // No games exist
     }
 
     /**
      * Gets the most recent game record.
      */
+    @Override
     public Optional<GameRecord> getLastGame() {
         String sql = """
             SELECT * FROM games 
-            ORDER BY started_at DESC 
+            ORDER BY started_at DESC, id DESC
             LIMIT 1
             """;
         
-        try (PreparedStatement stmt = connection.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            
-            if (rs.next()) {
-                return Optional.of(mapResultSetToRecord(rs));
-            }
+        try {
+            return withReader(reader -> {
+                try (ResultSet rs = reader.prepare(sql).executeQuery()) {
+                    if (rs.next()) {
+                        return Optional.of(mapResultSetToRecord(rs));
+                    }
+                }
+                return Optional.<GameRecord>empty();
+            });
         } catch (SQLException e) {
             logger.error("Failed to get last game", e);
             throw new RuntimeException("Failed to get last game", e);
         }
-        return Optional.empty();
     }
 
     /**
-     * Gets all game records ordered by start time (newest first).
+     * Gets the most recent game record if it is still in progress.
+     * Combines the status check and the fetch into one indexed lookup.
      */
-    public List<GameRecord> getAllGames() {
-        String sql = "SELECT * FROM games ORDER BY started_at DESC";
-        List<GameRecord> games = new ArrayList<>();
-        
-        try (PreparedStatement stmt = connection.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            
-            while (rs.next()) {
-                games.add(mapResultSetToRecord(rs));
-            }
+    @Override
+    public Optional<GameRecord> getLastIncompleteGame() {
+        String sql = """
+            SELECT * FROM (
+                SELECT * FROM games
+                ORDER BY started_at DESC, id DESC
+                LIMIT 1
+            ) WHERE status = ?
+            """;
+
+        try {
+            return withReader(reader -> {
+                PreparedStatement stmt = reader.prepare(sql);
+                stmt.setString(1, GameStatus.IN_PROGRESS.name());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return Optional.of(mapResultSetToRecord(rs));
+                    }
+                }
+                return Optional.<GameRecord>empty();
+            });
         } catch (SQLException e) {
-            logger.error("Failed to retrieve all games", e);
-            throw new RuntimeException("Failed to retrieve all games", e);
+            logger.error("Failed to get last incomplete game", e);
+            throw new RuntimeException("Failed to get last incomplete game", e);
         }
-        
-        logger.debug("Retrieved {} game records", games.size());
-        return games;
     }
 
     /**
-     * Deletes all game records.
+     * Gets one page of game records ordered by start time (newest first).
+     *
+     * @param after the cursor returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of games on the page
+     * @return the page, with a cursor for the next page if more games exist
      */
-    public void deleteAllGames() {
-        try (Statement stmt = connection.createStatement()) {
-            int count = stmt.executeUpdate("DELETE FROM games");
-            logger.info("Deleted {} game records", count);
+    @Override
+    public GamePage getGamesPage(GamePage.Cursor after, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive, got: " + pageSize);
+        }
+        String firstPageSql = """
+            SELECT * FROM games
+            ORDER BY started_at DESC, id DESC
+            LIMIT ?
+            """;
+        String nextPageSql = """
+            SELECT * FROM games
+            WHERE (started_at, id) < (?, ?)
+            ORDER BY started_at DESC, id DESC
+            LIMIT ?
+            """;
+
+        try {
+            return withReader(reader -> {
+                PreparedStatement stmt;
+                if (after == null) {
+                    stmt = reader.prepare(firstPageSql);
+                    stmt.setInt(1, pageSize + 1);
+                } else {
+                    stmt = reader.prepare(nextPageSql);
+                    stmt.setLong(1, toEpochMillis(after.startedAt()));
+                    stmt.setLong(2, after.id());
+                    stmt.setInt(3, pageSize + 1);
+                }
+
+                // One extra row tells us whether another page follows
+                List<GameRecord> games = new ArrayList<>(pageSize + 1);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        games.add(mapResultSetToRecord(rs));
+                    }
+                }
+                if (games.size() <= pageSize) {
+                    return new GamePage(games, null);
+                }
+                games.remove(pageSize);
+                return new GamePage(games, GamePage.Cursor.after(games.get(pageSize - 1)));
+            });
+        } catch (SQLException e) {
+            logger.error("Failed to retrieve page of games", e);
+            throw new RuntimeException("Failed to retrieve page of games", e);
+        }
+    }
+
+    /**
+     * Counts all game records.
+     */
+    @Override
+    public long countGames() {
+        try {
+            return withReader(reader -> {
+                try (ResultSet rs = reader.prepare("SELECT COUNT(*) FROM games").executeQuery()) {
+                    return rs.next() ? rs.getLong(1) : 0L;
+                }
+            });
+        } catch (SQLException e) {
+            logger.error("Failed to count games", e);
+            throw new RuntimeException("Failed to count games", e);
+        }
+    }
+
+    /**
+     * Gets the statistics of finished games for every configuration that has been played.
+     * Reads only the statistics tables, so the cost depends on the number of configurations, not games.
+     */
+    @Override
+    public List<GameStats> getStatistics() {
+        String statsSql = """
+            SELECT code_length, max_number, max_attempts, wins, losses, abandons
+            FROM game_stats
+            ORDER BY code_length, max_number, max_attempts
+            """;
+        String histogramSql = """
+            SELECT code_length, max_number, max_attempts, guess_count, games
+            FROM game_stats_guesses
+            """;
+
+        try {
+            return withReader(reader -> {
+                // Both queries run in one read transaction so they see the same snapshot
+                Connection conn = reader.connection();
+                conn.setAutoCommit(false);
+                try {
+                    Map<List<Integer>, SortedMap<Integer, Long>> histograms = new HashMap<>();
+                    try (ResultSet rs = reader.prepare(histogramSql).executeQuery()) {
+                        while (rs.next()) {
+                            List<Integer> key = List.of(rs.getInt("code_length"), rs.getInt("max_number"), rs.getInt("max_attempts"));
+                            histograms.computeIfAbsent(key, k -> new TreeMap<>())
+                                .put(rs.getInt("guess_count"), rs.getLong("games"));
+                        }
+                    }
+
+                    List<GameStats> stats = new ArrayList<>();
+                    try (ResultSet rs = reader.prepare(statsSql).executeQuery()) {
+                        while (rs.next()) {
+                            int codeLength = rs.getInt("code_length");
+                            int maxNumber = rs.getInt("max_number");
+                            int maxAttempts = rs.getInt("max_attempts");
+                            stats.add(new GameStats(codeLength, maxNumber, maxAttempts,
+                                rs.getLong("wins"), rs.getLong("losses"), rs.getLong("abandons"),
+                                histograms.getOrDefault(List.of(codeLength, maxNumber, maxAttempts), new TreeMap<>())));
+                        }
+                    }
+                    return stats;
+                } finally {
+                    conn.rollback();
+                    conn.setAutoCommit(true);
+                }
+            });
+        } catch (SQLException e) {
+            logger.error("Failed to get game statistics", e);
+            throw new RuntimeException("Failed to get game statistics", e);
+        }
+    }
+
+    /**
+     * Gets finished games that started before a cutoff, oldest first.
+     */
+    @Override
+    public List<GameRecord> getFinishedGamesBefore(LocalDateTime cutoff, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive, got: " + limit);
+        }
+        String sql = """
+            SELECT * FROM games
+            WHERE started_at < ? AND status IN ('WON', 'LOST', 'ABANDONED')
+            ORDER BY started_at, id
+            LIMIT ?
+            """;
+
+        try {
+            return withReader(reader -> {
+                PreparedStatement stmt = reader.prepare(sql);
+                stmt.setLong(1, toEpochMillis(cutoff));
+                stmt.setInt(2, limit);
+                List<GameRecord> games = new ArrayList<>();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        games.add(mapResultSetToRecord(rs));
+                    }
+                }
+                return games;
+            });
+        } catch (SQLException e) {
+            logger.error("Failed to retrieve finished games", e);
+            throw new RuntimeException("Failed to retrieve finished games", e);
+        }
+    }
+
+    /**
+     * Deletes games by ID in one transaction. The statistics tables are left as they are.
+     */
+    @Override
+    public synchronized void deleteGames(Collection<Long> gameIds) {
+        if (gameIds.isEmpty()) {
+            return;
+        }
+        try {
+            inTransaction(() -> {
+                PreparedStatement deleteGuesses = writerStatements.prepare("DELETE FROM guesses WHERE game_id = ?");
+                PreparedStatement deleteGame = writerStatements.prepare("DELETE FROM games WHERE id = ?");
+                for (long id : gameIds) {
+                    deleteGuesses.setLong(1, id);
+                    deleteGuesses.addBatch();
+                    deleteGame.setLong(1, id);
+                    deleteGame.addBatch();
+                }
+                deleteGuesses.executeBatch();
+                deleteGame.executeBatch();
+            });
+            logger.debug("Deleted {} game records", gameIds.size());
+        } catch (SQLException e) {
+            logger.error("Failed to delete games", e);
+            throw new RuntimeException("Failed to delete games", e);
+        }
+    }
+
+    /**
+     * Deletes all game records and their statistics.
+     */
+    @Override
+    public synchronized void deleteAllGames() {
+        try {
+            inTransaction(() -> {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.executeUpdate("DELETE FROM guesses");
+                    stmt.executeUpdate("DELETE FROM game_stats");
+                    stmt.executeUpdate("DELETE FROM game_stats_guesses");
+                    int count = stmt.executeUpdate("DELETE FROM games");
+                    logger.info("Deleted {} game records", count);
+                }
+            });
         } catch (SQLException e) {
             logger.error("Failed to delete all games", e);
             throw new RuntimeException("Failed to delete all games", e);
         }
     }
 
+    /**
+     * Copies the database to a file with SQLite's online backup API.
+     * The copy runs on a connection of its own inside one read transaction, so it sees a single
+     * snapshot and never blocks the writer; in WAL mode, commits made while it runs are simply not
+     * part of the copy. It copies {@link PersistenceConfig#getBackupPagesPerStep()} pages per step and
+     * pauses {@link PersistenceConfig#getBackupStepPause()} between steps. The copy is written to a
+     * temporary file and moved over the destination only once it is complete.
+     */
+    @Override
+    public void backup(Path destination, Consumer<BackupProgress> progress) {
+        Path temp = destination.resolveSibling(destination.getFileName() + ".tmp");
+        long pauseMillis = config.getBackupStepPause().toMillis();
+        DB.ProgressObserver observer = (remaining, pageCount) -> {
+            progress.accept(new BackupProgress(pageCount - remaining, pageCount));
+            if (remaining > 0 && pauseMillis > 0) {
+                try {
+                    Thread.sleep(pauseMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        SQLiteConfig sourceConfig = new SQLiteConfig();
+        sourceConfig.setReadOnly(true);
+        sourceConfig.setBusyTimeout((int) config.getBusyTimeout().toMillis());
+        try (Connection source = DriverManager.getConnection(dbUrl, sourceConfig.toProperties())) {
+            Files.deleteIfExists(temp);
+            source.setAutoCommit(false);
+            // Reading inside the transaction pins the snapshot the backup steps copy from
+            try (Statement stmt = source.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM games")) {
+                rs.next();
+            }
+            int rc = source.unwrap(SQLiteConnection.class).getDatabase()
+                .backup("main", temp.toString(), observer, (int) Math.max(pauseMillis, 1), 100, config.getBackupPagesPerStep());
+            source.rollback();
+            if (rc != SQLiteErrorCode.SQLITE_OK.code) {
+                throw new SQLException("Backup stopped with SQLite result code " + rc);
+            }
+            Files.move(temp, destination, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            logger.info("Backed up database to {}", destination);
+        } catch (SQLException | IOException e) {
+            logger.error("Failed to back up database to {}", destination, e);
+            deleteQuietly(temp);
+            throw new RuntimeException("Failed to back up database", e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}", file, e);
+        }
+    }
+
+    /**
+     * Applies the SQLite sync setting for a durability mode.
+     * Per-guess durability uses synchronous=FULL, fsyncing the WAL on every commit; the other modes
+     * use synchronous=NORMAL, where commits are not fsynced until a checkpoint or a durable commit.
+     *
+     * @param mode the durability mode
+     */
+    @Override
+    public synchronized void configureDurability(DurabilityMode mode) {
+        String synchronous = mode == DurabilityMode.PER_GUESS ? "FULL" : "NORMAL";
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA synchronous = " + synchronous);
+            this.synchronous = synchronous;
+            logger.debug("Configured {} durability (synchronous={})", mode, synchronous);
+        } catch (SQLException e) {
+            logger.error("Failed to configure durability mode {}", mode, e);
+            throw new RuntimeException("Failed to configure durability mode", e);
+        }
+    }
+
+    /**
+     * Runs several DAO operations as a single transaction whose commit is fsynced,
+     * regardless of the configured synchronous level.
+     *
+     * @param work the operations to run
+     */
+    @Override
+    public synchronized void runDurably(Runnable work) {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA synchronous = FULL");
+            try {
+                inTransaction(work::run);
+            } finally {
+                stmt.execute("PRAGMA synchronous = " + synchronous);
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to commit durable transaction", e);
+            throw new RuntimeException("Failed to commit durable transaction", e);
+        }
+    }
+
+    /**
+     * Copies committed WAL content into the database file and fsyncs it.
+     * Frames still needed by an open read transaction are left in the WAL.
+     */
+    @Override
+    public synchronized void checkpoint() {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+            logger.debug("Database checkpoint completed");
+        } catch (SQLException e) {
+            logger.error("Failed to checkpoint database", e);
+            throw new RuntimeException("Failed to checkpoint database", e);
+        }
+    }
+
+    /**
+     * Runs several DAO operations as a single transaction.
+     * Calls made while a transaction is already open join it instead of committing on their own.
+     *
+     * @param work the operations to run
+     */
+    @Override
+    public synchronized void runInTransaction(Runnable work) {
+        try {
+            inTransaction(work::run);
+        } catch (SQLException e) {
+            logger.error("Failed to commit transaction", e);
+            throw new RuntimeException("Failed to commit transaction", e);
+        }
+    }
+
+    /**
+     * Runs work in a transaction on the writer connection, or as part of the enclosing one.
+     * A transaction that finds the database busy is rolled back and run again, see
+     * {@link #retryWhileBusy(SqlCall)}, so the work must not have effects outside the database.
+     */
+    private void inTransaction(SqlWork work) throws SQLException {
+        if (!connection.getAutoCommit()) {
+            work.run(); // join the enclosing transaction
+            return;
+        }
+        retryWhileBusy(() -> {
+            connection.setAutoCommit(false);
+            try {
+                work.run();
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Runs a single write statement on the writer connection, retrying it while the database is
+     * busy unless a transaction is open. Inside a transaction a busy error fails the statement and
+     * the transaction is retried as a whole, since SQLite may already have rolled it back.
+     */
+    private <T> T writeRetryingWhileBusy(SqlCall<T> call) throws SQLException {
+        if (!connection.getAutoCommit()) {
+            return call.run(); // the enclosing transaction retries
+        }
+        return retryWhileBusy(call);
+    }
+
+    /**
+     * Runs a call, retrying it with exponential backoff while the database is busy or locked by
+     * another connection. Each call already waits up to the busy timeout for locks; the retries
+     * cover the errors SQLite reports without waiting, such as a snapshot gone stale under another
+     * process's commit. Waits start at the configured backoff, double up to
+     * {@value #MAX_BUSY_BACKOFF_MILLIS} ms, and get up to half again as jitter so competing
+     * processes fall out of step.
+     */
+    private <T> T retryWhileBusy(SqlCall<T> call) throws SQLException {
+        long backoffMillis = config.getBusyRetryBackoff().toMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.run();
+            } catch (SQLException | RuntimeException e) {
+                if (attempt > config.getBusyRetries() || !isBusy(e)) {
+                    throw e;
+                }
+                long waitMillis = backoffMillis + ThreadLocalRandom.current().nextLong(backoffMillis / 2 + 1);
+                logger.debug("Database busy, retry {} of {} in {} ms", attempt, config.getBusyRetries(), waitMillis);
+                try {
+                    Thread.sleep(waitMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting to retry a busy database", interrupted);
+                }
+                backoffMillis = Math.min(backoffMillis * 2, MAX_BUSY_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a failure, or its cause, is SQLITE_BUSY or SQLITE_LOCKED, including their
+     * extended result codes.
+     */
+    static boolean isBusy(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sqlException) {
+                int primaryCode = sqlException.getErrorCode() & 0xFF;
+                if (primaryCode == SQLiteErrorCode.SQLITE_BUSY.code || primaryCode == SQLiteErrorCode.SQLITE_LOCKED.code) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs a query on a pooled read-only connection, waiting for one to become free.
+     *
+     * @throws SQLException if the DAO is closed, before or while waiting
+     */
+    private <T> T withReader(SqlQuery<T> query) throws SQLException {
+        StatementCache reader = null;
+        try {
+            while (reader == null) {
+                if (closed) {
+                    throw new SQLException("Database connection is closed");
+                }
+                // Closing drains the pool, so wake up now and then to notice it
+                reader = readers.poll(READER_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a read connection", e);
+        }
+        StatementCache pooled = reader;
+        try {
+            return retryWhileBusy(() -> query.run(pooled));
+        } finally {
+            if (closed) {
+                pooled.close();
+            } else {
+                readers.add(pooled);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlWork {
+        void run() throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface SqlCall<T> {
+        T run() throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface SqlQuery<T> {
+        T run(StatementCache statements) throws SQLException;
+    }
+
     private GameRecord mapResultSetToRecord(ResultSet rs) throws SQLException {
+        String lastGuess = rs.getString("last_guess");
+        int codeLength = rs.getInt("code_length");
+        int lastCorrectLocations = rs.getInt("last_correct_locations");
         return new GameRecord(
             rs.getLong("id"),
             rs.getString("secret_code"),
             rs.getInt("max_attempts"),
-            rs.getInt("code_length"),
+            codeLength,
             rs.getInt("max_number"),
             rs.getString("status"),
-            LocalDateTime.parse(rs.getString("started_at")),
-            rs.getString("completed_at") != null ? LocalDateTime.parse(rs.getString("completed_at")) : null,
-            rs.getString("guesses_json")
+            fromEpochMillis(rs.getLong("started_at")),
+            getNullableTimestamp(rs, "completed_at"),
+            rs.getBytes("guesses_blob"),
+            rs.getInt("guess_count"),
+            lastGuess != null
+                ? new GameConverter.GuessResult(lastGuess, rs.getInt("last_correct_numbers"),
+                    lastCorrectLocations, lastCorrectLocations == codeLength)
+                : null
         );
     }
 
+    /**
+     * Converts a timestamp to the epoch milliseconds stored in the database.
+     * Game timestamps are local date-times, interpreted in the system time zone.
+     */
+    static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    static LocalDateTime fromEpochMillis(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static void setNullableTimestamp(PreparedStatement stmt, int index, LocalDateTime dateTime) throws SQLException {
+        if (dateTime != null) {
+            stmt.setLong(index, toEpochMillis(dateTime));
+        } else {
+            stmt.setNull(index, Types.INTEGER);
+        }
+    }
+
+    private static LocalDateTime getNullableTimestamp(ResultSet rs, String column) throws SQLException {
+        long epochMillis = rs.getLong(column);
+        return rs.wasNull() ? null : fromEpochMillis(epochMillis);
+    }
+
+    /**
+     * Claims a game in the lock file next to the database, {@code <database>.lock}, which is
+     * created on first use. Other processes, and other DAOs on the same database in this one,
+     * cannot claim the game until it is released or this DAO is closed.
+     */
+    @Override
+    public synchronized boolean tryLockGame(long gameId) {
+        try {
+            if (lockFile == null) {
+                lockFile = new GameLockFile(lockPath);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to open lock file {}", lockPath, e);
+            throw new RuntimeException("Failed to open lock file", e);
+        }
+        return lockFile.tryLock(gameId);
+    }
+
     @Override
-    public void close() {
+    public synchronized void unlockGame(long gameId) {
+        if (lockFile != null) {
+            lockFile.unlock(gameId);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (lockFile != null) {
+            try {
+                lockFile.close();
+            } catch (IOException e) {
+                logger.warn("Error closing lock file {}", lockPath, e);
+            }
+        }
+        StatementCache reader;
+        while ((reader = readers.poll()) != null) {
+            try {
+                reader.close();
+            } catch (SQLException e) {
+                logger.warn("Error closing read connection", e);
+            }
+        }
         try {
             if (connection != null && !connection.isClosed()) {
-                connection.close();
+                writerStatements.close();
                 logger.debug("Database connection closed");
             }
         } catch (SQLException e) {
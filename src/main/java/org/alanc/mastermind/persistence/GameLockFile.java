@@ -0,0 +1,80 @@
+package org.alanc.mastermind.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Advisory per-game locks shared by every process using the same database.
+ * Each game is locked by an exclusive OS lock on the byte of the lock file at the game's ID,
+ * so the file stays empty and locks on different games never conflict. The operating system
+ * releases a process's locks when it exits, so a crashed game is never left locked.
+ * Locks are advisory: they only keep out processes that ask for them.
+ */
+final class GameLockFile implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(GameLockFile.class);
+
+    private final Path path;
+    private final FileChannel channel;
+    private final Map<Long, FileLock> held = new HashMap<>();
+
+    GameLockFile(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Locks a game without waiting. Locking a game this instance already holds succeeds.
+     *
+     * @return true if this instance now holds the game's lock, false if another process
+     *         (or another lock file on the same path in this process) holds it
+     */
+    synchronized boolean tryLock(long gameId) {
+        if (held.containsKey(gameId)) {
+            return true;
+        }
+        try {
+            FileLock lock = channel.tryLock(gameId, 1, false);
+            if (lock == null) {
+                return false;
+            }
+            held.put(gameId, lock);
+            return true;
+        } catch (OverlappingFileLockException e) {
+            return false;
+        } catch (IOException e) {
+            logger.error("Failed to lock game {} in {}", gameId, path, e);
+            throw new RuntimeException("Failed to lock game", e);
+        }
+    }
+
+    /**
+     * Releases a game's lock if this instance holds it.
+     */
+    synchronized void unlock(long gameId) {
+        FileLock lock = held.remove(gameId);
+        if (lock == null) {
+            return;
+        }
+        try {
+            lock.release();
+        } catch (IOException e) {
+            logger.warn("Failed to unlock game {} in {}", gameId, path, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        held.clear();
+        // Closing the channel releases every lock taken through it
+        channel.close();
+    }
+}
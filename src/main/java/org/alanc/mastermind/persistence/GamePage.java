@@ -0,0 +1,38 @@
+package org.alanc.mastermind.persistence;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One page of game history, newest first.
+ * Pages are keyed on (startedAt, id) rather than an offset, so fetching a later page
+ * costs the same as fetching the first one and is not disturbed by games saved meanwhile.
+ *
+ * @param games the games on this page
+ * @param nextCursor where the next page starts, or null if this is the last page
+ */
+public record GamePage(List<GameRecord> games, Cursor nextCursor) {
+
+    /**
+     * @return true if there are older games after this page
+     */
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Position in the history: the next page holds games strictly older than this one.
+     *
+     * @param startedAt start time of the last game on the previous page
+     * @param id id of the last game on the previous page, breaking ties on start time
+     */
+    public record Cursor(LocalDateTime startedAt, long id) {
+
+        /**
+         * Creates a cursor positioned just after a game.
+         */
+        public static Cursor after(GameRecord record) {
+            return new Cursor(record.getStartedAt(), record.getId());
+        }
+    }
+}
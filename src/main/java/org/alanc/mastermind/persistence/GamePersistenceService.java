@@ -1,72 +1,282 @@
 package org.alanc.mastermind.persistence;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.alanc.mastermind.config.DurabilityMode;
 import org.alanc.mastermind.config.GameConfig;
+import org.alanc.mastermind.config.PersistenceConfig;
 import org.alanc.mastermind.game.GameState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service for persisting and loading game states.
- * Bridges between game logic and database storage.
+ * Bridges between game logic and the configured {@link GameStore}.
+ * The configured {@link DurabilityMode} decides when saves reach disk: per guess, at the end
+ * of each game, or at periodic checkpoints. In the latter two modes saves are queued and committed
+ * by a background writer thread; reads flush the queue first so they always see queued writes.
+ * A game can ask for its own mode on each write. Asking for more durability
+ * than the configured mode bypasses the queue for that game's writes with fsynced transactions;
+ * with {@link DurabilityMode#PER_GUESS} configured there is no queue, so every game is saved per guess.
+ * When a retention period is configured, a {@link GameArchiver} moves older finished games to archive files.
+ *
+ * <p>Reads are served from a cache of the most recent games (with their logged guesses merged in),
+ * the game count and the statistics. The most recent game answers the last-game checks, and history
+ * pages within the cached games need no query. Every write through this service, and every archived
+ * batch, invalidates the cache; while it is valid there are no queued writes it could be missing.
+ *
+ * <p>Games are claimed through {@link GameStore#tryLockGame(long)} while they are played, so other
+ * processes sharing the store neither resume nor abandon them. A claimed game is read again from
+ * the store rather than the cache, which cannot see other processes' writes.
  */
 public class GamePersistenceService implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(GamePersistenceService.class);
-    private final GameDAO gameDAO;
+    private static final JsonFactory jsonFactory = new JsonFactory()
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+        .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+    // Games fetched per query when exporting, and saved per transaction when importing
+    private static final int EXPORT_PAGE_SIZE = 500;
+    private static final int IMPORT_TRANSACTION_SIZE = 10_000;
+    private final GameStore gameStore;
+    private final DurabilityMode durability;
+    private final WriteBehindQueue writeQueue;
+    private final ScheduledExecutorService checkpointScheduler;
+    private final boolean verifyResumedGames;
+    private final GameArchiver archiver;
+    private final int recentGamesCacheSize;
+    private final ReadThroughCache cache = new ReadThroughCache();
+    private final ReadThroughCache.Slot<RecentGames> recentGames = cache.slot();
+    private final ReadThroughCache.Slot<Long> gameCount = cache.slot();
+    private final ReadThroughCache.Slot<List<GameStats>> statistics = cache.slot();
 
-    public GamePersistenceService(GameDAO gameDAO) {
-        this.gameDAO = gameDAO;
+    /**
+     * Creates a service backed by the store selected in the configuration.
+     */
+    public GamePersistenceService(PersistenceConfig config) {
+        this(GameStore.open(config), config);
+    }
+
+    public GamePersistenceService(GameStore gameStore) {
+        this(gameStore, PersistenceConfig.defaults());
+    }
+
+    public GamePersistenceService(GameStore gameStore, PersistenceConfig config) {
+        this.gameStore = gameStore;
+        this.durability = config.getDurability();
+        this.verifyResumedGames = config.isVerifyResumedGames();
+        this.recentGamesCacheSize = config.getRecentGamesCacheSize();
+        gameStore.configureDurability(durability);
+        this.writeQueue = config.isWriteBehind() ? new WriteBehindQueue(gameStore, config) : null;
+        this.checkpointScheduler = durability == DurabilityMode.PERIODIC_CHECKPOINT
+            ? startCheckpoints(config.getCheckpointInterval().toMillis())
+            : null;
+        this.archiver = config.isArchivingEnabled() ? new GameArchiver(gameStore, config, cache::invalidate) : null;
+        if (archiver != null) {
+            archiver.start(config.getArchiveInterval());
+        }
+        logger.debug("Persistence initialized with {} and {} durability", gameStore.getClass().getSimpleName(), durability);
+    }
+
+    private ScheduledExecutorService startCheckpoints(long intervalMillis) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkpointQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        return scheduler;
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (RuntimeException e) {
+            logger.warn("Periodic checkpoint failed", e);
+        }
     }
 
     /**
      * Saves a new game state and returns the saved record with ID.
+     * The game is committed straight away, and fsynced with the first write made durable after it.
      */
     public GameRecord saveNewGame(GameState gameState, LocalDateTime startedAt) {
         GameRecord record = GameConverter.toRecord(gameState, null, startedAt);
-        GameRecord savedRecord = gameDAO.saveGame(record);
+        GameRecord savedRecord = gameStore.saveGame(record);
+        gameStore.tryLockGame(savedRecord.getId());
+        cache.invalidate();
         logger.debug("Saved new game with ID: {}", savedRecord.getId());
         return savedRecord;
     }
 
     /**
-     * Updates an existing game state.
+     * Records the most recent guess of a game with the configured durability.
+     */
+    public void recordGuess(GameState gameState, Long gameId) {
+        recordGuess(gameState, gameId, null);
+    }
+
+    /**
+     * Records the most recent guess of a game by appending it to the guess log,
+     * without rewriting the game's full guess history.
+     *
+     * @param gameDurability the game's durability mode, or null for the configured one
+     */
+    public void recordGuess(GameState gameState, Long gameId, DurabilityMode gameDurability) {
+        List<GameState.GuessResult> history = gameState.getGuessHistory();
+        if (history.isEmpty()) {
+            return;
+        }
+        int guessNumber = history.size() - 1;
+        GameConverter.GuessResult guess = GameConverter.toGuessResult(history.get(guessNumber));
+        if (writeQueue == null) {
+            gameStore.appendGuess(gameId, guessNumber, guess);
+        } else if (gameDurability == DurabilityMode.PER_GUESS) {
+            // Commit queued writes first, then fsync this guess (and the WAL frames before it)
+            writeQueue.flush();
+            gameStore.runDurably(() -> gameStore.appendGuess(gameId, guessNumber, guess));
+        } else {
+            writeQueue.appendGuess(gameId, guessNumber, guess);
+        }
+        cache.invalidate();
+        logger.debug("Recorded guess {} for game with ID: {}", guessNumber, gameId);
+    }
+
+    /**
+     * Updates an existing game state with the configured durability.
      */
     public void updateGame(GameState gameState, Long gameId, LocalDateTime startedAt) {
+        updateGame(gameState, gameId, startedAt, null);
+    }
+
+    /**
+     * Updates an existing game state, writing its full guess history.
+     * In {@link DurabilityMode#PER_GUESS} mode the update is fsynced before this returns, and in
+     * {@link DurabilityMode#PER_GAME_END} mode a finished game is.
+     * A finished game is committed and then released to other processes.
+     *
+     * @param gameDurability the game's durability mode, or null for the configured one
+     */
+    public void updateGame(GameState gameState, Long gameId, LocalDateTime startedAt, DurabilityMode gameDurability) {
         GameRecord record = GameConverter.toRecord(gameState, gameId, startedAt);
-        gameDAO.updateGame(record);
+        writeUpdate(record, gameState.isGameEnded(), gameDurability != null ? gameDurability : durability);
+        if (gameState.isGameEnded()) {
+            release(gameId);
+        }
         logger.debug("Updated game with ID: {}", gameId);
     }
 
+    private void release(long gameId) {
+        // Another process that claims the game next must find it finished, not still queued
+        flushPendingWrites();
+        gameStore.unlockGame(gameId);
+    }
+
+    private void writeUpdate(GameRecord record, boolean gameEnded, DurabilityMode gameDurability) {
+        if (writeQueue == null) {
+            gameStore.updateGame(record);
+        } else if (gameDurability == DurabilityMode.PER_GUESS
+            || gameEnded && gameDurability == DurabilityMode.PER_GAME_END) {
+            // Commit queued writes first, then fsync this update (and the WAL frames before it)
+            writeQueue.flush();
+            gameStore.runDurably(() -> gameStore.updateGame(record));
+        } else {
+            writeQueue.updateGame(record);
+        }
+        cache.invalidate();
+    }
+
+    /**
+     * Commits queued writes and checkpoints the database so everything saved so far is on disk.
+     */
+    public void checkpoint() {
+        flushPendingWrites();
+        gameStore.checkpoint();
+    }
+
+    /**
+     * Waits until all queued writes are committed. Does nothing when writes are synchronous.
+     */
+    public void flushPendingWrites() {
+        if (writeQueue != null) {
+            writeQueue.flush();
+        }
+    }
+
     /**
      * Checks if the most recent game is incomplete.
      */
     public boolean isLastGameIncomplete() {
-        return gameDAO.isLastGameIncomplete();
+        return lastIncompleteRecord().isPresent();
     }
 
     /**
-     * Gets the last incomplete game for resume functionality.
+     * Gets the last incomplete game for resume functionality, claiming it for this process.
+     * A game another process is playing is not returned. The claim lasts until the game ends,
+     * is abandoned, or the store is closed.
+     * The game is restored from its stored feedback; if resumed-game verification is enabled,
+     * the feedback is re-scored in the background and a mismatch is logged.
      */
     public Optional<GameConverter.GameStateResult> getLastIncompleteGame() {
-        if (gameDAO.isLastGameIncomplete()) {
-            Optional<GameRecord> record = gameDAO.getLastGame();
-            if (record.isPresent()) {
-                GameConverter.GameStateResult result = GameConverter.fromRecord(record.get());
-                logger.debug("Found incomplete game with ID: {}", record.get().getId());
-                return Optional.of(result);
-            }
+        Optional<GameRecord> record = claimLastIncompleteRecord();
+        if (record.isEmpty()) {
+            return Optional.empty();
         }
-        return Optional.empty();
+
+        GameConverter.GameStateResult result;
+        try {
+            result = GameConverter.fromRecord(record.get());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Incomplete game {} cannot be restored and will not be offered for resume",
+                record.get().getId(), e);
+            gameStore.unlockGame(record.get().getId());
+            return Optional.empty();
+        }
+        if (verifyResumedGames) {
+            verifyInBackground(record.get());
+        }
+        logger.debug("Found incomplete game with ID: {}", record.get().getId());
+        return Optional.of(result);
+    }
+
+    private void verifyInBackground(GameRecord record) {
+        CompletableFuture.supplyAsync(() -> GameConverter.verifyGuesses(record))
+            .thenAccept(valid -> {
+                if (valid) {
+                    logger.debug("Verified guess history of game {}", record.getId());
+                } else {
+                    logger.warn("Stored guess feedback of game {} does not match its secret code", record.getId());
+                }
+            });
     }
 
     /**
-     * Marks the last game as abandoned.
+     * Marks the last game as abandoned if it is still in progress and no other process is playing it.
      */
     public void markLastGameAsAbandoned() {
-        Optional<GameRecord> existing = gameDAO.getLastGame();
+        Optional<GameRecord> existing = claimLastIncompleteRecord();
         if (existing.isPresent()) {
             GameRecord record = existing.get();
             GameRecord updatedRecord = new GameRecord(
@@ -78,30 +288,273 @@ public class GamePersistenceService implements AutoCloseable {
                 GameStatus.ABANDONED.name(),
                 record.getStartedAt(),
                 LocalDateTime.now(),
-                record.getGuessesJson()
+                record.getGuesses()
             );
-            gameDAO.updateGame(updatedRecord);
+            writeUpdate(updatedRecord, true, durability);
+            release(record.getId());
             logger.debug("Marked game {} as abandoned", record.getId());
         }
     }
 
     /**
-     * Gets all games for history display.
+     * Claims the last game if it is in progress, and reads it again under the claim: the cached
+     * copy may predate another process finishing the game or starting a newer one.
      */
-    public List<GameRecord> getAllGames() {
-        return gameDAO.getAllGames();
+    private Optional<GameRecord> claimLastIncompleteRecord() {
+        Optional<GameRecord> cached = lastIncompleteRecord();
+        if (cached.isEmpty()) {
+            return cached;
+        }
+        long gameId = cached.get().getId();
+        if (!gameStore.tryLockGame(gameId)) {
+            logger.info("Incomplete game {} is being played by another process", gameId);
+            return Optional.empty();
+        }
+        cache.invalidate();
+        Optional<GameRecord> current = lastIncompleteRecord();
+        if (current.isEmpty() || current.get().getId() != gameId) {
+            logger.debug("Game {} is no longer the last incomplete game", gameId);
+            gameStore.unlockGame(gameId);
+            return Optional.empty();
+        }
+        return current;
+    }
+
+    private Optional<GameRecord> lastIncompleteRecord() {
+        List<GameRecord> recent = recentGames().games();
+        return recent.stream().findFirst()
+            .filter(record -> GameStatus.IN_PROGRESS.name().equals(record.getStatus()));
+    }
+
+    private RecentGames recentGames() {
+        return recentGames.get(() -> {
+            flushPendingWrites();
+            GamePage page = gameStore.getGamesPage(null, recentGamesCacheSize);
+            return new RecentGames(page.games().stream().map(this::withAppendedGuesses).toList(), !page.hasMore());
+        });
+    }
+
+    /**
+     * Gets one page of games for history display, newest first.
+     * Pages that fall within the cached recent games are served without a query.
+     *
+     * @param after the cursor returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of games on the page
+     */
+    public GamePage getGamesPage(GamePage.Cursor after, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive, got: " + pageSize);
+        }
+        GamePage cached = recentGames().page(after, pageSize);
+        if (cached != null) {
+            return cached;
+        }
+        flushPendingWrites();
+        GamePage page = gameStore.getGamesPage(after, pageSize);
+        return new GamePage(page.games().stream().map(this::withAppendedGuesses).toList(), page.nextCursor());
+    }
+
+    /**
+     * Streams every game, newest first, fetching them a page at a time.
+     * Only one page is held in memory, so this suits exports of arbitrarily large histories.
+     *
+     * @param pageSize the number of games fetched per query
+     */
+    public Stream<GameRecord> streamAllGames(int pageSize) {
+        return Stream.iterate(getGamesPage(null, pageSize), Objects::nonNull,
+                page -> page.hasMore() ? getGamesPage(page.nextCursor(), pageSize) : null)
+            .flatMap(page -> page.games().stream());
+    }
+
+    /**
+     * Writes every game to a stream, newest first, a page at a time, so memory use does not
+     * grow with the size of the history. The stream is flushed but not closed.
+     *
+     * @param out the stream to write to
+     * @param format the file format
+     * @return the number of games written
+     * @throws IOException if writing fails
+     */
+    public long exportGames(OutputStream out, ExportFormat format) throws IOException {
+        long exported = 0;
+        try (Stream<GameRecord> games = streamAllGames(EXPORT_PAGE_SIZE)) {
+            Iterator<GameRecord> iterator = games.iterator();
+            if (format == ExportFormat.NDJSON) {
+                try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+                    generator.setRootValueSeparator(new SerializedString("\n"));
+                    while (iterator.hasNext()) {
+                        GameRecordJson.write(generator, iterator.next());
+                        exported++;
+                    }
+                    if (exported > 0) {
+                        generator.writeRaw('\n');
+                    }
+                }
+            } else {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                GameRecordCsv.writeHeader(writer);
+                while (iterator.hasNext()) {
+                    GameRecordCsv.write(writer, iterator.next());
+                    exported++;
+                }
+                writer.flush();
+            }
+        }
+        logger.info("Exported {} games as {}", exported, format);
+        return exported;
+    }
+
+    /**
+     * Imports games from an NDJSON stream written by {@link #exportGames}, parsing one record at a
+     * time and saving them in bulk, {@value #IMPORT_TRANSACTION_SIZE} games per transaction.
+     * Imported games get new IDs; finished ones are added to the statistics.
+     * A malformed record stops the import; the transactions committed before it are kept.
+     *
+     * @param in the NDJSON stream; it is not closed
+     * @return the number of games imported
+     * @throws IOException if reading fails or a record is malformed
+     */
+    public long importGames(InputStream in) throws IOException {
+        flushPendingWrites();
+        long imported = 0;
+        List<GameRecord> batch = new ArrayList<>();
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            while (parser.nextToken() != null) {
+                batch.add(GameRecordJson.read(parser));
+                if (batch.size() == IMPORT_TRANSACTION_SIZE) {
+                    gameStore.saveGames(batch);
+                    cache.invalidate();
+                    imported += batch.size();
+                    batch.clear();
+                }
+            }
+        }
+        gameStore.saveGames(batch);
+        cache.invalidate();
+        imported += batch.size();
+        logger.info("Imported {} games", imported);
+        return imported;
+    }
+
+    /**
+     * Gets win/loss statistics for each game configuration that has been played.
+     */
+    public List<GameStats> getStatistics() {
+        return statistics.get(() -> {
+            flushPendingWrites();
+            return gameStore.getStatistics();
+        });
+    }
+
+    /**
+     * Counts all saved games.
+     */
+    public long countGames() {
+        return gameCount.get(() -> {
+            flushPendingWrites();
+            return gameStore.countGames();
+        });
+    }
+
+    /**
+     * Merges guesses from the guess log into an in-progress game's record.
+     * Finished games have their full history in the record already.
+     */
+    private GameRecord withAppendedGuesses(GameRecord record) {
+        if (!GameStatus.IN_PROGRESS.name().equals(record.getStatus())) {
+            return record;
+        }
+        return GameConverter.withAppendedGuesses(record, gameStore.getAppendedGuesses(record.getId()));
+    }
+
+    /**
+     * Archives finished games older than the retention period now instead of waiting for the next scheduled run.
+     *
+     * @return the number of games archived, or 0 if no retention period is configured
+     */
+    public int archiveExpiredGames() {
+        if (archiver == null) {
+            return 0;
+        }
+        flushPendingWrites();
+        return archiver.archiveExpiredGames();
+    }
+
+    /**
+     * Writes a consistent copy of the saved games to a file while play continues.
+     * Queued writes are committed first so the copy includes every game saved so far.
+     *
+     * @param destination the file to write the copy to
+     * @param progress called as the copy proceeds
+     * @throws UnsupportedOperationException if the storage backend cannot be backed up
+     */
+    public void backup(Path destination, Consumer<BackupProgress> progress) {
+        flushPendingWrites();
+        gameStore.backup(destination, progress);
     }
 
     /**
      * Clears all game history.
      */
     public void clearAllGames() {
-        gameDAO.deleteAllGames();
+        flushPendingWrites();
+        gameStore.deleteAllGames();
+        cache.invalidate();
         logger.info("Cleared all game history");
     }
 
+    /**
+     * The most recent games, newest first.
+     *
+     * @param games up to the cache size of the most recent games
+     * @param complete true if these are all the games there are
+     */
+    private record RecentGames(List<GameRecord> games, boolean complete) {
+
+        /**
+         * Gets a page of the cached games, or null if the page reaches past them.
+         */
+        GamePage page(GamePage.Cursor after, int pageSize) {
+            int start = 0;
+            if (after != null) {
+                start = -1;
+                for (int i = 0; i < games.size(); i++) {
+                    GameRecord game = games.get(i);
+                    if (game.getId() == after.id() && game.getStartedAt().equals(after.startedAt())) {
+                        start = i + 1;
+                        break;
+                    }
+                }
+                if (start < 0) {
+                    return null;
+                }
+            }
+
+            int end = start + pageSize;
+            if (end > games.size() && !complete) {
+                return null;
+            }
+            List<GameRecord> page = games.subList(start, Math.min(end, games.size()));
+            boolean hasMore = end < games.size() || !complete;
+            return new GamePage(List.copyOf(page), hasMore ? GamePage.Cursor.after(page.get(page.size() - 1)) : null);
+        }
+    }
+
     @Override
     public void close() throws Exception {
-        gameDAO.close();
+        if (checkpointScheduler != null) {
+            checkpointScheduler.shutdownNow();
+        }
+        if (archiver != null) {
+            archiver.close();
+        }
+        try {
+            if (writeQueue != null) {
+                writeQueue.close();
+                gameStore.checkpoint();
+            }
+        } finally {
+            gameStore.close();
+        }
     }
 }
@@ -1,11 +1,15 @@
 package org.alanc.mastermind.persistence;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Represents a game record in the database.
  * Contains game state, configuration, and metadata for persistence.
+ * Records read from a store keep their guess history encoded and decode it on the first call to
+ * {@link #getGuesses()}; the guess count and last guess are kept separately, so summaries
+ * can be shown without decoding the history.
  */
 public class GameRecord {
     private final Long id;
@@ -16,7 +20,10 @@ public class GameRecord {
     private final String status; // IN_PROGRESS, WON, LOST
     private final LocalDateTime startedAt;
     private final LocalDateTime completedAt;
-    private final String guessesJson; // JSON string of guess history
+    private final int guessCount;
+    private final GameConverter.GuessResult lastGuess;
+    private final byte[] encodedGuesses;
+    private volatile List<GameConverter.GuessResult> guesses;
 
     /**
      * Creates a new game record.
@@ -29,11 +36,11 @@ public class GameRecord {
      * @param status the current game status
      * @param startedAt when the game was started
      * @param completedAt when the game was completed (null if in progress)
-     * @param guessesJson JSON string containing the guess history
+     * @param guesses the guess history, oldest first
      */
     public GameRecord(Long id, String secretCode, int maxAttempts, int codeLength, 
                      int maxNumber, String status, LocalDateTime startedAt, 
-                     LocalDateTime completedAt, String guessesJson) {
+                     LocalDateTime completedAt, List<GameConverter.GuessResult> guesses) {
         this.id = id;
         this.secretCode = secretCode;
         this.maxAttempts = maxAttempts;
@@ -42,7 +49,47 @@ public class GameRecord {
         this.status = status;
         this.startedAt = startedAt;
         this.completedAt = completedAt;
-        this.guessesJson = guessesJson;
+        this.guesses = List.copyOf(guesses);
+        this.guessCount = guesses.size();
+        this.lastGuess = guesses.isEmpty() ? null : guesses.get(guesses.size() - 1);
+        this.encodedGuesses = null;
+    }
+
+    /**
+     * Creates a record whose guess history stays encoded until it is first needed.
+     *
+     * @param encodedGuesses the history as written by {@link GameConverter#encodeGuesses(List)},
+     *                       or null for no guesses
+     * @param guessCount the number of guesses in the history
+     * @param lastGuess the most recent guess, or null if there are none
+     */
+    GameRecord(Long id, String secretCode, int maxAttempts, int codeLength, int maxNumber, String status,
+               LocalDateTime startedAt, LocalDateTime completedAt, byte[] encodedGuesses,
+               int guessCount, GameConverter.GuessResult lastGuess) {
+        this.id = id;
+        this.secretCode = secretCode;
+        this.maxAttempts = maxAttempts;
+        this.codeLength = codeLength;
+        this.maxNumber = maxNumber;
+        this.status = status;
+        this.startedAt = startedAt;
+        this.completedAt = completedAt;
+        this.encodedGuesses = encodedGuesses;
+        this.guessCount = encodedGuesses != null ? guessCount : 0;
+        this.lastGuess = encodedGuesses != null ? lastGuess : null;
+        this.guesses = encodedGuesses != null ? null : List.of();
+    }
+
+    /**
+     * Returns a copy of this record with a different ID, sharing its guess history as it is held.
+     */
+    GameRecord withId(Long id) {
+        if (encodedGuesses == null) {
+            return new GameRecord(id, secretCode, maxAttempts, codeLength, maxNumber, status,
+                startedAt, completedAt, guesses);
+        }
+        return new GameRecord(id, secretCode, maxAttempts, codeLength, maxNumber, status,
+            startedAt, completedAt, encodedGuesses, guessCount, lastGuess);
     }
 
     // Getters
@@ -54,5 +101,37 @@ public class GameRecord {
     public String getStatus() { return status; }
     public LocalDateTime getStartedAt() { return startedAt; }
     public LocalDateTime getCompletedAt() { return completedAt; }
-    public String getGuessesJson() { return guessesJson; }
+    public int getGuessCount() { return guessCount; }
+
+    /**
+     * Gets the most recent guess and its feedback, or null if no guess has been made.
+     */
+    public GameConverter.GuessResult getLastGuess() { return lastGuess; }
+
+    /**
+     * Gets the guess history, oldest first, decoding it on first use.
+     *
+     * @throws IllegalArgumentException if the stored history cannot be decoded
+     */
+    public List<GameConverter.GuessResult> getGuesses() {
+        List<GameConverter.GuessResult> decoded = guesses;
+        if (decoded == null) {
+            decoded = Collections.unmodifiableList(GameConverter.decodeGuesses(encodedGuesses));
+            guesses = decoded;
+        }
+        return decoded;
+    }
+
+    /**
+     * Gets the guess history in its encoded form, encoding it if the record was built from a list.
+     * The returned array must not be modified.
+     */
+    byte[] getEncodedGuesses() {
+        return encodedGuesses != null ? encodedGuesses : GameConverter.encodeGuesses(guesses);
+    }
+
+    /**
+     * Gets the guess history serialized as a JSON array.
+     */
+    public String getGuessesJson() { return GameConverter.serializeGuesses(getGuesses()); }
 }
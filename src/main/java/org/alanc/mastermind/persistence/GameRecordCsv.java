@@ -0,0 +1,71 @@
+package org.alanc.mastermind.persistence;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+
+/**
+ * Writes game records as RFC 4180 CSV rows, one record at a time.
+ */
+final class GameRecordCsv {
+    static final String HEADER =
+        "id,secret_code,max_attempts,code_length,max_number,status,started_at,completed_at,guesses";
+
+    private GameRecordCsv() {
+        // Utility class
+    }
+
+    static void writeHeader(Writer writer) throws IOException {
+        writer.write(HEADER);
+        writer.write("\r\n");
+    }
+
+    static void write(Writer writer, GameRecord record) throws IOException {
+        writer.write(String.valueOf(record.getId()));
+        writer.write(',');
+        writeField(writer, record.getSecretCode());
+        writer.write(',');
+        writer.write(String.valueOf(record.getMaxAttempts()));
+        writer.write(',');
+        writer.write(String.valueOf(record.getCodeLength()));
+        writer.write(',');
+        writer.write(String.valueOf(record.getMaxNumber()));
+        writer.write(',');
+        writeField(writer, record.getStatus());
+        writer.write(',');
+        writeTimestamp(writer, record.getStartedAt());
+        writer.write(',');
+        writeTimestamp(writer, record.getCompletedAt());
+        writer.write(',');
+
+        StringBuilder guesses = new StringBuilder();
+        for (GameConverter.GuessResult guess : record.getGuesses()) {
+            if (!guesses.isEmpty()) {
+                guesses.append(';');
+            }
+            guesses.append(guess.guess()).append('/')
+                .append(guess.correctNumbers()).append('/')
+                .append(guess.correctLocations());
+        }
+        writeField(writer, guesses.toString());
+        writer.write("\r\n");
+    }
+
+    private static void writeTimestamp(Writer writer, LocalDateTime dateTime) throws IOException {
+        if (dateTime != null) {
+            writer.write(dateTime.toString());
+        }
+    }
+
+    private static void writeField(Writer writer, String value) throws IOException {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+            || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,175 @@
+package org.alanc.mastermind.persistence;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes game records as JSON objects one token at a time through a streaming
+ * parser or generator, so no intermediate tree or map is built per record.
+ * Timestamps are written as ISO-8601 local date-times.
+ */
+final class GameRecordJson {
+
+    private GameRecordJson() {
+        // Utility class
+    }
+
+    static void write(JsonGenerator generator, GameRecord record) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", record.getId());
+        generator.writeStringField("secretCode", record.getSecretCode());
+        generator.writeNumberField("maxAttempts", record.getMaxAttempts());
+        generator.writeNumberField("codeLength", record.getCodeLength());
+        generator.writeNumberField("maxNumber", record.getMaxNumber());
+        generator.writeStringField("status", record.getStatus());
+        writeTimestamp(generator, "startedAt", record.getStartedAt());
+        writeTimestamp(generator, "completedAt", record.getCompletedAt());
+        generator.writeFieldName("guesses");
+        writeGuesses(generator, record.getGuesses());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes a guess history as a JSON array of guess objects.
+     */
+    static void writeGuesses(JsonGenerator generator, List<GameConverter.GuessResult> guesses) throws IOException {
+        generator.writeStartArray();
+        for (GameConverter.GuessResult guess : guesses) {
+            generator.writeStartObject();
+            generator.writeStringField("guess", guess.guess());
+            generator.writeNumberField("correctNumbers", guess.correctNumbers());
+            generator.writeNumberField("correctLocations", guess.correctLocations());
+            generator.writeBooleanField("allCorrect", guess.allCorrect());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Reads the record whose START_OBJECT token the parser is positioned on, leaving the parser
+     * on its END_OBJECT token. Unknown fields are skipped.
+     *
+     * @throws JsonParseException if a required field is missing or has the wrong type,
+     *                            or a guess does not have codeLength pegs
+     */
+    static GameRecord read(JsonParser parser) throws IOException {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+        Long id = null;
+        String secretCode = null;
+        String status = null;
+        Integer maxAttempts = null;
+        Integer codeLength = null;
+        Integer maxNumber = null;
+        LocalDateTime startedAt = null;
+        LocalDateTime completedAt = null;
+        List<GameConverter.GuessResult> guesses = List.of();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> id = value == JsonToken.VALUE_NULL ? null : parser.getLongValue();
+                case "secretCode" -> secretCode = parser.getValueAsString();
+                case "maxAttempts" -> maxAttempts = parser.getIntValue();
+                case "codeLength" -> codeLength = parser.getIntValue();
+                case "maxNumber" -> maxNumber = parser.getIntValue();
+                case "status" -> status = parser.getValueAsString();
+                case "startedAt" -> startedAt = readTimestamp(parser);
+                case "completedAt" -> completedAt = readTimestamp(parser);
+                case "guesses" -> guesses = readGuesses(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        expect(parser, parser.currentToken(), JsonToken.END_OBJECT);
+
+        if (secretCode == null || status == null || maxAttempts == null || codeLength == null
+                || maxNumber == null || startedAt == null) {
+            throw new JsonParseException(parser, "Game record is missing a required field");
+        }
+        try {
+            GameStatus.valueOf(status);
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException(parser, "Unknown game status: " + status);
+        }
+        for (GameConverter.GuessResult guess : guesses) {
+            if (GameConverter.parsePegs(guess.guess()).length != codeLength) {
+                throw new JsonParseException(parser, "Guess does not have " + codeLength + " pegs: " + guess.guess());
+            }
+        }
+        return new GameRecord(id, secretCode, maxAttempts, codeLength, maxNumber, status,
+            startedAt, completedAt, guesses);
+    }
+
+    /**
+     * Reads the guess array whose START_ARRAY token the parser is positioned on, leaving the parser
+     * on its END_ARRAY token. Unknown fields are skipped.
+     *
+     * @throws JsonParseException if a guess has no pegs or a peg is not a non-negative number
+     */
+    static List<GameConverter.GuessResult> readGuesses(JsonParser parser) throws IOException {
+        expect(parser, parser.currentToken(), JsonToken.START_ARRAY);
+        List<GameConverter.GuessResult> guesses = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String guess = null;
+            int correctNumbers = 0;
+            int correctLocations = 0;
+            boolean allCorrect = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "guess" -> guess = parser.getValueAsString();
+                    case "correctNumbers" -> correctNumbers = parser.getIntValue();
+                    case "correctLocations" -> correctLocations = parser.getIntValue();
+                    case "allCorrect" -> allCorrect = parser.getBooleanValue();
+                    default -> parser.skipChildren();
+                }
+            }
+            if (guess == null) {
+                throw new JsonParseException(parser, "Guess is missing its pegs");
+            }
+            try {
+                GameConverter.parsePegs(guess);
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException(parser, e.getMessage(), e);
+            }
+            guesses.add(new GameConverter.GuessResult(guess, correctNumbers, correctLocations, allCorrect));
+        }
+        expect(parser, parser.currentToken(), JsonToken.END_ARRAY);
+        return guesses;
+    }
+
+    private static LocalDateTime readTimestamp(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(parser, parser.currentToken(), JsonToken.VALUE_STRING);
+        try {
+            return LocalDateTime.parse(parser.getText());
+        } catch (DateTimeParseException e) {
+            throw new JsonParseException(parser, "Invalid timestamp: " + parser.getText(), e);
+        }
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws JsonParseException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but found " + actual);
+        }
+    }
+
+    private static void writeTimestamp(JsonGenerator generator, String field, LocalDateTime dateTime) throws IOException {
+        if (dateTime == null) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeStringField(field, dateTime.toString());
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package org.alanc.mastermind.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Creates the game database schema and migrates older databases to it.
+ * The schema version is tracked in SQLite's user_version pragma; each migration
+ * runs in its own transaction and bumps the version when it commits.
+ */
+final class GameSchema {
+    private static final Logger logger = LoggerFactory.getLogger(GameSchema.class);
+
+    /**
+     * Version history:
+     * 0 - timestamps stored as ISO-8601 TEXT, no indexes
+     * 1 - timestamps stored as epoch milliseconds, indexes on start time and status
+     * 2 - guess history stored in the binary guesses_blob column instead of guesses_json
+     * 3 - per-configuration statistics tables
+     * 4 - guess count and last guess stored as columns, so summaries skip guesses_blob
+     */
+    static final int CURRENT_VERSION = 4;
+
+    private static final String CREATE_GAMES_TABLE = """
+        CREATE TABLE IF NOT EXISTS games (
+            id INTEGER PRIMARY KEY AUTOINCREMENT,
+            secret_code TEXT NOT NULL,
+            max_attempts INTEGER NOT NULL,
+            code_length INTEGER NOT NULL,
+            max_number INTEGER NOT NULL,
+            status TEXT NOT NULL,
+            started_at INTEGER NOT NULL,
+            completed_at INTEGER,
+            guesses_blob BLOB,
+            guess_count INTEGER NOT NULL DEFAULT 0,
+            last_guess TEXT,
+            last_correct_numbers INTEGER,
+            last_correct_locations INTEGER
+        )
+        """;
+
+    // Games table as of version 1; migrations must not depend on the current layout
+    private static final String CREATE_GAMES_TABLE_V1 = """
+        CREATE TABLE games (
+            id INTEGER PRIMARY KEY AUTOINCREMENT,
+            secret_code TEXT NOT NULL,
+            max_attempts INTEGER NOT NULL,
+            code_length INTEGER NOT NULL,
+            max_number INTEGER NOT NULL,
+            status TEXT NOT NULL,
+            started_at INTEGER NOT NULL,
+            completed_at INTEGER,
+            guesses_json TEXT
+        )
+        """;
+
+    // Append-only log of guesses made since the game's guess history was last written
+    private static final String CREATE_GUESSES_TABLE = """
+        CREATE TABLE IF NOT EXISTS guesses (
+            game_id INTEGER NOT NULL,
+            guess_number INTEGER NOT NULL,
+            guess TEXT NOT NULL,
+            correct_numbers INTEGER NOT NULL,
+            correct_locations INTEGER NOT NULL,
+            all_correct INTEGER NOT NULL,
+            PRIMARY KEY (game_id, guess_number)
+        ) WITHOUT ROWID
+        """;
+
+    // Finished-game counts per configuration, updated as games finish
+    private static final String CREATE_STATS_TABLE = """
+        CREATE TABLE IF NOT EXISTS game_stats (
+            code_length INTEGER NOT NULL,
+            max_number INTEGER NOT NULL,
+            max_attempts INTEGER NOT NULL,
+            wins INTEGER NOT NULL DEFAULT 0,
+            losses INTEGER NOT NULL DEFAULT 0,
+            abandons INTEGER NOT NULL DEFAULT 0,
+            PRIMARY KEY (code_length, max_number, max_attempts)
+        ) WITHOUT ROWID
+        """;
+
+    // Histogram of won games per configuration by number of guesses taken
+    private static final String CREATE_STATS_GUESSES_TABLE = """
+        CREATE TABLE IF NOT EXISTS game_stats_guesses (
+            code_length INTEGER NOT NULL,
+            max_number INTEGER NOT NULL,
+            max_attempts INTEGER NOT NULL,
+            guess_count INTEGER NOT NULL,
+            games INTEGER NOT NULL,
+            PRIMARY KEY (code_length, max_number, max_attempts, guess_count)
+        ) WITHOUT ROWID
+        """;
+
+    // (started_at, id) serves "most recent game" lookups and ordered history scans
+    private static final String CREATE_STARTED_AT_INDEX =
+        "CREATE INDEX IF NOT EXISTS idx_games_started_at ON games (started_at, id)";
+    private static final String CREATE_STATUS_INDEX =
+        "CREATE INDEX IF NOT EXISTS idx_games_status ON games (status, started_at)";
+
+    private GameSchema() {
+        // Utility class
+    }
+
+    /**
+     * Brings the database up to {@link #CURRENT_VERSION}, creating it from scratch if it is empty.
+     *
+     * @param connection a writable connection to the database
+     * @throws SQLException if the schema cannot be created or migrated, or the database
+     *                      was written by a newer version of the application
+     */
+    static void apply(Connection connection) throws SQLException {
+        int version = getVersion(connection);
+        if (version > CURRENT_VERSION) {
+            throw new SQLException("Database schema version " + version
+                + " is newer than the supported version " + CURRENT_VERSION);
+        }
+
+        if (!tableExists(connection, "games")) {
+            inTransaction(connection, () -> {
+                if (tableExists(connection, "games")) {
+                    return;
+                }
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute(CREATE_GAMES_TABLE);
+                    stmt.execute(CREATE_GUESSES_TABLE);
+                    stmt.execute(CREATE_STARTED_AT_INDEX);
+                    stmt.execute(CREATE_STATUS_INDEX);
+                    stmt.execute(CREATE_STATS_TABLE);
+                    stmt.execute(CREATE_STATS_GUESSES_TABLE);
+                }
+                setVersion(connection, CURRENT_VERSION);
+            });
+            logger.debug("Created database schema version {}", CURRENT_VERSION);
+            return;
+        }
+
+        while (version < CURRENT_VERSION) {
+            int from = version;
+            inTransaction(connection, () -> {
+                // Another process sharing the database may have migrated it since the version was read
+                if (getVersion(connection) != from) {
+                    return;
+                }
+                migrate(connection, from);
+                setVersion(connection, from + 1);
+                logger.info("Migrated database schema from version {} to {}", from, from + 1);
+            });
+            version = getVersion(connection);
+        }
+    }
+
+    private static void migrate(Connection connection, int fromVersion) throws SQLException {
+        switch (fromVersion) {
+            case 0 -> migrateTextTimestampsToEpochMillis(connection);
+            case 1 -> migrateGuessesJsonToBlob(connection);
+            case 2 -> createStatisticsTables(connection);
+            case 3 -> addGuessSummaryColumns(connection);
+            default -> throw new SQLException("No migration from schema version " + fromVersion);
+        }
+    }
+
+    /**
+     * Rebuilds the games table with INTEGER timestamps, converting each row's ISO-8601 text
+     * in the system time zone, and adds the lookup indexes.
+     */
+    private static void migrateTextTimestampsToEpochMillis(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("ALTER TABLE games RENAME TO games_v0");
+            stmt.execute(CREATE_GAMES_TABLE_V1);
+            stmt.execute(CREATE_GUESSES_TABLE);
+        }
+
+        String insertSql = """
+            INSERT INTO games (id, secret_code, max_attempts, code_length, max_number,
+                             status, started_at, completed_at, guesses_json)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+        int migrated = 0;
+        try (Statement select = connection.createStatement();
+             ResultSet rs = select.executeQuery("SELECT * FROM games_v0");
+             PreparedStatement insert = connection.prepareStatement(insertSql)) {
+            while (rs.next()) {
+                String completedAt = rs.getString("completed_at");
+                insert.setLong(1, rs.getLong("id"));
+                insert.setString(2, rs.getString("secret_code"));
+                insert.setInt(3, rs.getInt("max_attempts"));
+                insert.setInt(4, rs.getInt("code_length"));
+                insert.setInt(5, rs.getInt("max_number"));
+                insert.setString(6, rs.getString("status"));
+                insert.setLong(7, GameDAO.toEpochMillis(LocalDateTime.parse(rs.getString("started_at"))));
+                if (completedAt != null) {
+                    insert.setLong(8, GameDAO.toEpochMillis(LocalDateTime.parse(completedAt)));
+                } else {
+                    insert.setNull(8, Types.INTEGER);
+                }
+                insert.setString(9, rs.getString("guesses_json"));
+                insert.addBatch();
+                migrated++;
+            }
+            insert.executeBatch();
+        }
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP TABLE games_v0");
+            stmt.execute(CREATE_STARTED_AT_INDEX);
+            stmt.execute(CREATE_STATUS_INDEX);
+        }
+        logger.debug("Converted timestamps of {} game records", migrated);
+    }
+
+    /**
+     * Re-encodes each game's JSON guess history into the binary guesses_blob column
+     * and drops guesses_json.
+     */
+    private static void migrateGuessesJsonToBlob(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("ALTER TABLE games ADD COLUMN guesses_blob BLOB");
+        }
+
+        int migrated = 0;
+        try (Statement select = connection.createStatement();
+             ResultSet rs = select.executeQuery("SELECT id, guesses_json FROM games");
+             PreparedStatement update = connection.prepareStatement("UPDATE games SET guesses_blob = ? WHERE id = ?")) {
+            while (rs.next()) {
+                List<GameConverter.GuessResult> guesses = GameConverter.deserializeGuesses(rs.getString("guesses_json"));
+                update.setBytes(1, GameConverter.encodeGuesses(guesses));
+                update.setLong(2, rs.getLong("id"));
+                update.addBatch();
+                migrated++;
+            }
+            update.executeBatch();
+        }
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("ALTER TABLE games DROP COLUMN guesses_json");
+        }
+        logger.debug("Re-encoded guess history of {} game records", migrated);
+    }
+
+    /**
+     * Creates the statistics tables and fills them from the games already finished.
+     */
+    private static void createStatisticsTables(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(CREATE_STATS_TABLE);
+            stmt.execute(CREATE_STATS_GUESSES_TABLE);
+            stmt.execute("""
+                INSERT INTO game_stats (code_length, max_number, max_attempts, wins, losses, abandons)
+                SELECT code_length, max_number, max_attempts,
+                       SUM(status = 'WON'), SUM(status = 'LOST'), SUM(status = 'ABANDONED')
+                FROM games
+                WHERE status IN ('WON', 'LOST', 'ABANDONED')
+                GROUP BY code_length, max_number, max_attempts
+                """);
+        }
+
+        String upsertSql = """
+            INSERT INTO game_stats_guesses (code_length, max_number, max_attempts, guess_count, games)
+            VALUES (?, ?, ?, ?, 1)
+            ON CONFLICT (code_length, max_number, max_attempts, guess_count) DO UPDATE SET games = games + 1
+            """;
+        try (Statement select = connection.createStatement();
+             ResultSet rs = select.executeQuery(
+                 "SELECT code_length, max_number, max_attempts, guesses_blob FROM games WHERE status = 'WON'");
+             PreparedStatement upsert = connection.prepareStatement(upsertSql)) {
+            while (rs.next()) {
+                byte[] guesses = rs.getBytes("guesses_blob");
+                upsert.setInt(1, rs.getInt("code_length"));
+                upsert.setInt(2, rs.getInt("max_number"));
+                upsert.setInt(3, rs.getInt("max_attempts"));
+                upsert.setInt(4, guesses != null ? GameConverter.countGuesses(guesses) : 0);
+                upsert.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Adds the guess count and last guess columns and fills them from each game's guess history.
+     */
+    private static void addGuessSummaryColumns(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("ALTER TABLE games ADD COLUMN guess_count INTEGER NOT NULL DEFAULT 0");
+            stmt.execute("ALTER TABLE games ADD COLUMN last_guess TEXT");
+            stmt.execute("ALTER TABLE games ADD COLUMN last_correct_numbers INTEGER");
+            stmt.execute("ALTER TABLE games ADD COLUMN last_correct_locations INTEGER");
+        }
+
+        String updateSql = """
+            UPDATE games SET guess_count = ?, last_guess = ?, last_correct_numbers = ?, last_correct_locations = ?
+            WHERE id = ?
+            """;
+        int migrated = 0;
+        try (Statement select = connection.createStatement();
+             ResultSet rs = select.executeQuery("SELECT id, guesses_blob FROM games WHERE guesses_blob IS NOT NULL");
+             PreparedStatement update = connection.prepareStatement(updateSql)) {
+            while (rs.next()) {
+                byte[] guesses = rs.getBytes("guesses_blob");
+                GameConverter.GuessResult last = GameConverter.decodeLastGuess(guesses);
+                if (last == null) {
+                    continue;
+                }
+                update.setInt(1, GameConverter.countGuesses(guesses));
+                update.setString(2, last.guess());
+                update.setInt(3, last.correctNumbers());
+                update.setInt(4, last.correctLocations());
+                update.setLong(5, rs.getLong("id"));
+                update.addBatch();
+                migrated++;
+            }
+            update.executeBatch();
+        }
+        logger.debug("Stored guess summaries of {} game records", migrated);
+    }
+
+    private static int getVersion(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void setVersion(Connection connection, int version) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA user_version = " + version);
+        }
+    }
+
+    private static boolean tableExists(Connection connection, String table) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+            stmt.setString(1, table);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static void inTransaction(Connection connection, SchemaWork work) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            work.run();
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SchemaWork {
+        void run() throws SQLException;
+    }
+}
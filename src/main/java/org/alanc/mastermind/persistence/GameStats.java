@@ -0,0 +1,54 @@
+package org.alanc.mastermind.persistence;
+
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Aggregate results of all finished games played with one configuration.
+ * Maintained incrementally as games finish, so reading it does not scan game history.
+ *
+ * @param codeLength the length of the secret code
+ * @param maxNumber the maximum number value in the code
+ * @param maxAttempts the maximum number of attempts allowed
+ * @param wins the number of games won
+ * @param losses the number of games lost
+ * @param abandons the number of games abandoned before finishing
+ * @param guessesToWin number of won games by how many guesses they took
+ */
+public record GameStats(int codeLength, int maxNumber, int maxAttempts,
+                        long wins, long losses, long abandons,
+                        SortedMap<Integer, Long> guessesToWin) {
+
+    public GameStats {
+        guessesToWin = Collections.unmodifiableSortedMap(new TreeMap<>(guessesToWin));
+    }
+
+    /**
+     * @return the number of finished games, including abandoned ones
+     */
+    public long totalGames() {
+        return wins + losses + abandons;
+    }
+
+    /**
+     * @return the fraction of finished games that were won, or 0 if there are none
+     */
+    public double winRate() {
+        long total = totalGames();
+        return total == 0 ? 0.0 : (double) wins / total;
+    }
+
+    /**
+     * @return the mean number of guesses taken in won games, or 0 if none were won
+     */
+    public double averageGuessesToWin() {
+        long games = 0;
+        long guesses = 0;
+        for (var entry : guessesToWin.entrySet()) {
+            games += entry.getValue();
+            guesses += entry.getKey() * entry.getValue();
+        }
+        return games == 0 ? 0.0 : (double) guesses / games;
+    }
+}
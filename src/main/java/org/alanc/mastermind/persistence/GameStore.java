@@ -0,0 +1,193 @@
+package org.alanc.mastermind.persistence;
+
+import org.alanc.mastermind.config.DurabilityMode;
+import org.alanc.mastermind.config.PersistenceConfig;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Storage backend for games.
+ * {@link GamePersistenceService} works against this interface; the backend is chosen by
+ * {@link PersistenceConfig#getBackend()} and opened with {@link #open(PersistenceConfig)}.
+ * Implementations must be safe to call from the game loop and the write-behind writer thread at once.
+ */
+public interface GameStore extends AutoCloseable {
+
+    /**
+     * Opens the store selected by the configuration.
+     *
+     * @param config the persistence configuration
+     * @return a new store; the caller is responsible for closing it
+     */
+    static GameStore open(PersistenceConfig config) {
+        return switch (config.getBackend()) {
+            case SQLITE -> config.isSharded()
+                ? new ShardedGameStore(config)
+                : new GameDAO(config.getDatabasePath(), config);
+            case IN_MEMORY -> new InMemoryGameStore();
+            case EVENT_LOG -> new EventLogGameStore(Path.of(config.getEventLogDirectory()),
+                config.getEventLogSegmentBytes());
+        };
+    }
+
+    /**
+     * Saves a new game record and returns it with the generated ID.
+     */
+    GameRecord saveGame(GameRecord record);
+
+    /**
+     * Saves many new games at once, for bulk imports. The games get fresh IDs, and those
+     * already finished are counted in the statistics.
+     *
+     * @param records the games to save
+     */
+    void saveGames(List<GameRecord> records);
+
+    /**
+     * Updates an existing game record.
+     * The record's guess history supersedes any guesses appended for the game.
+     * When the update moves the game from in progress to a finished status, the game is
+     * counted in the statistics exactly once.
+     */
+    void updateGame(GameRecord record);
+
+    /**
+     * Appends a single guess to a game's guess log.
+     * Appending a guess number again replaces that guess, so a retried batch can replay its appends.
+     *
+     * @param gameId the game the guess belongs to
+     * @param guessNumber the zero-based position of the guess in the game's history
+     * @param guess the guess and its feedback
+     */
+    void appendGuess(long gameId, int guessNumber, GameConverter.GuessResult guess);
+
+    /**
+     * Gets the guesses appended for a game since its guess history was last written, in order.
+     */
+    List<GameConverter.GuessResult> getAppendedGuesses(long gameId);
+
+    /**
+     * Checks if the most recent game is incomplete.
+     */
+    boolean isLastGameIncomplete();
+
+    /**
+     * Gets the most recent game record.
+     */
+    Optional<GameRecord> getLastGame();
+
+    /**
+     * Gets the most recent game record if it is still in progress.
+     */
+    Optional<GameRecord> getLastIncompleteGame();
+
+    /**
+     * Gets one page of game records ordered by start time (newest first).
+     *
+     * @param after the cursor returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of games on the page
+     * @return the page, with a cursor for the next page if more games exist
+     */
+    GamePage getGamesPage(GamePage.Cursor after, int pageSize);
+
+    /**
+     * Counts all game records.
+     */
+    long countGames();
+
+    /**
+     * Gets the statistics of finished games for every configuration that has been played.
+     */
+    List<GameStats> getStatistics();
+
+    /**
+     * Gets finished games that started before a cutoff, oldest first.
+     *
+     * @param cutoff only games started strictly before this are returned
+     * @param limit the maximum number of games to return
+     * @return up to {@code limit} WON, LOST or ABANDONED games
+     */
+    List<GameRecord> getFinishedGamesBefore(LocalDateTime cutoff, int limit);
+
+    /**
+     * Deletes games by ID. The statistics keep counting the deleted games.
+     *
+     * @param gameIds the games to delete; unknown IDs are ignored
+     */
+    void deleteGames(Collection<Long> gameIds);
+
+    /**
+     * Deletes all game records and their statistics.
+     */
+    void deleteAllGames();
+
+    /**
+     * Copies a consistent snapshot of the store to a file while games keep being written.
+     *
+     * @param destination the file to write the snapshot to; an existing file is replaced
+     * @param progress called after each step of the copy
+     * @throws UnsupportedOperationException if the store cannot be backed up this way
+     */
+    default void backup(Path destination, Consumer<BackupProgress> progress) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support online backups");
+    }
+
+    /**
+     * Runs several store operations as a single unit.
+     * Stores without transactions run the operations directly.
+     *
+     * @param work the operations to run
+     */
+    void runInTransaction(Runnable work);
+
+    /**
+     * Applies the settings for a durability mode. Does nothing for stores that do not write to disk.
+     *
+     * @param mode the durability mode
+     */
+    default void configureDurability(DurabilityMode mode) {
+    }
+
+    /**
+     * Runs several store operations as a single unit that is on disk when this returns.
+     *
+     * @param work the operations to run
+     */
+    default void runDurably(Runnable work) {
+        runInTransaction(work);
+    }
+
+    /**
+     * Makes everything written so far durable. Does nothing for stores that do not write to disk.
+     */
+    default void checkpoint() {
+    }
+
+    /**
+     * Claims a game for this process so that other processes sharing the store leave it alone,
+     * without waiting. Claiming a game this store already holds succeeds.
+     * Stores that cannot be shared between processes always succeed.
+     *
+     * @param gameId the game to claim
+     * @return true if this process now holds the game, false if another process does
+     */
+    default boolean tryLockGame(long gameId) {
+        return true;
+    }
+
+    /**
+     * Releases a game claimed by {@link #tryLockGame(long)}. Does nothing if the game is not held.
+     *
+     * @param gameId the game to release
+     */
+    default void unlockGame(long gameId) {
+    }
+
+    @Override
+    void close();
+}
@@ -0,0 +1,284 @@
+package org.alanc.mastermind.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link GameStore} that keeps games in memory only, for simulations, benchmarks and
+ * other headless runs that do not need games to survive a restart.
+ * Built on concurrent collections and compare-and-set updates, so no operation takes a lock.
+ * There are no transactions: each write is visible as soon as it is applied, and
+ * {@link #runInTransaction(Runnable)} simply runs its work.
+ */
+public class InMemoryGameStore implements GameStore {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryGameStore.class);
+    private static final Comparator<GameKey> NEWEST_FIRST =
+        Comparator.comparing(GameKey::startedAt).thenComparingLong(GameKey::id).reversed();
+
+    private final AtomicLong nextId = new AtomicLong();
+    private final Map<Long, GameRecord> games = new ConcurrentHashMap<>();
+    private final NavigableSet<GameKey> byStartTime = new ConcurrentSkipListSet<>(NEWEST_FIRST);
+    private final Map<Long, ConcurrentNavigableMap<Integer, GameConverter.GuessResult>> appendedGuesses =
+        new ConcurrentHashMap<>();
+    private final Map<ConfigKey, ConfigStats> statistics = new ConcurrentHashMap<>();
+
+    @Override
+    public GameRecord saveGame(GameRecord record) {
+        long id = nextId.incrementAndGet();
+        GameRecord saved = record.withId(id);
+        games.put(id, saved);
+        byStartTime.add(new GameKey(saved.getStartedAt(), id));
+        logger.debug("Saved game record with ID: {}", id);
+        return saved;
+    }
+
+    @Override
+    public void saveGames(List<GameRecord> records) {
+        saveAll(records);
+    }
+
+    /**
+     * Saves new games, counting the finished ones in the statistics.
+     *
+     * @return the saved games with their IDs
+     */
+    List<GameRecord> saveAll(List<GameRecord> records) {
+        List<GameRecord> saved = new ArrayList<>(records.size());
+        for (GameRecord record : records) {
+            GameRecord game = saveGame(record);
+            if (!GameStatus.IN_PROGRESS.name().equals(game.getStatus())) {
+                recordFinishedGame(game);
+            }
+            saved.add(game);
+        }
+        return saved;
+    }
+
+    /**
+     * Puts back a game that was saved earlier under its original ID, counting it in the
+     * statistics if it is finished. Later saves get IDs above every restored one.
+     * Used by stores that rebuild their games from disk on startup.
+     */
+    void restore(GameRecord record) {
+        long id = record.getId();
+        nextId.accumulateAndGet(id, Math::max);
+        GameRecord previous = games.put(id, record);
+        if (previous != null) {
+            byStartTime.remove(new GameKey(previous.getStartedAt(), id));
+        }
+        byStartTime.add(new GameKey(record.getStartedAt(), id));
+        restoreStatistics(record);
+    }
+
+    /**
+     * @return the highest ID handed out or reserved so far, or 0 if there is none
+     */
+    long lastIssuedId() {
+        return nextId.get();
+    }
+
+    /**
+     * Makes later saves get IDs above the given one, for IDs used by games that are gone.
+     */
+    void reserveIds(long highestUsedId) {
+        nextId.accumulateAndGet(highestUsedId, Math::max);
+    }
+
+    /**
+     * Counts a finished game in the statistics without storing it, for games deleted after they finished.
+     */
+    void restoreStatistics(GameRecord record) {
+        if (!GameStatus.IN_PROGRESS.name().equals(record.getStatus())) {
+            recordFinishedGame(record);
+        }
+    }
+
+    @Override
+    public void updateGame(GameRecord record) {
+        long id = record.getId();
+        GameRecord previous;
+        do {
+            previous = games.get(id);
+            if (previous == null) {
+                logger.debug("Ignoring update of unknown game ID: {}", id);
+                return;
+            }
+        } while (!games.replace(id, previous, record));
+
+        appendedGuesses.remove(id);
+        if (GameStatus.IN_PROGRESS.name().equals(previous.getStatus())
+                && !GameStatus.IN_PROGRESS.name().equals(record.getStatus())) {
+            recordFinishedGame(record);
+        }
+        logger.debug("Updated game record ID: {}", id);
+    }
+
+    private void recordFinishedGame(GameRecord record) {
+        ConfigStats stats = statistics.computeIfAbsent(
+            new ConfigKey(record.getCodeLength(), record.getMaxNumber(), record.getMaxAttempts()),
+            key -> new ConfigStats());
+        switch (GameStatus.valueOf(record.getStatus())) {
+            case WON -> {
+                stats.wins.increment();
+                stats.guessesToWin.computeIfAbsent(record.getGuessCount(), count -> new LongAdder()).increment();
+            }
+            case LOST -> stats.losses.increment();
+            case ABANDONED -> stats.abandons.increment();
+            default -> { }
+        }
+    }
+
+    @Override
+    public void appendGuess(long gameId, int guessNumber, GameConverter.GuessResult guess) {
+        appendedGuesses.computeIfAbsent(gameId, id -> new ConcurrentSkipListMap<>()).put(guessNumber, guess);
+    }
+
+    @Override
+    public List<GameConverter.GuessResult> getAppendedGuesses(long gameId) {
+        ConcurrentNavigableMap<Integer, GameConverter.GuessResult> guesses = appendedGuesses.get(gameId);
+        return guesses == null ? List.of() : List.copyOf(guesses.values());
+    }
+
+    @Override
+    public boolean isLastGameIncomplete() {
+        return getLastIncompleteGame().isPresent();
+    }
+
+    @Override
+    public Optional<GameRecord> getLastGame() {
+        for (GameKey key : byStartTime) {
+            GameRecord record = games.get(key.id());
+            if (record != null) {
+                return Optional.of(record);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<GameRecord> getLastIncompleteGame() {
+        return getLastGame().filter(record -> GameStatus.IN_PROGRESS.name().equals(record.getStatus()));
+    }
+
+    @Override
+    public GamePage getGamesPage(GamePage.Cursor after, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive, got: " + pageSize);
+        }
+        NavigableSet<GameKey> remaining = after == null
+            ? byStartTime
+            : byStartTime.tailSet(new GameKey(after.startedAt(), after.id()), false);
+
+        List<GameRecord> page = new ArrayList<>(pageSize);
+        for (GameKey key : remaining) {
+            GameRecord record = games.get(key.id());
+            if (record == null) {
+                continue;
+            }
+            if (page.size() == pageSize) {
+                return new GamePage(page, GamePage.Cursor.after(page.get(pageSize - 1)));
+            }
+            page.add(record);
+        }
+        return new GamePage(page, null);
+    }
+
+    @Override
+    public long countGames() {
+        return games.size();
+    }
+
+    @Override
+    public List<GameStats> getStatistics() {
+        return statistics.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey(Comparator.comparingInt(ConfigKey::codeLength)
+                .thenComparingInt(ConfigKey::maxNumber)
+                .thenComparingInt(ConfigKey::maxAttempts)))
+            .map(entry -> entry.getValue().snapshot(entry.getKey()))
+            .toList();
+    }
+
+    @Override
+    public List<GameRecord> getFinishedGamesBefore(LocalDateTime cutoff, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive, got: " + limit);
+        }
+        List<GameRecord> finished = new ArrayList<>();
+        for (GameKey key : byStartTime.descendingSet()) {
+            if (finished.size() == limit || !key.startedAt().isBefore(cutoff)) {
+                break;
+            }
+            GameRecord record = games.get(key.id());
+            if (record != null && !GameStatus.IN_PROGRESS.name().equals(record.getStatus())) {
+                finished.add(record);
+            }
+        }
+        return finished;
+    }
+
+    @Override
+    public void deleteGames(Collection<Long> gameIds) {
+        for (long id : gameIds) {
+            GameRecord removed = games.remove(id);
+            if (removed != null) {
+                byStartTime.remove(new GameKey(removed.getStartedAt(), id));
+                appendedGuesses.remove(id);
+            }
+        }
+        logger.debug("Deleted {} game records", gameIds.size());
+    }
+
+    @Override
+    public void deleteAllGames() {
+        int count = games.size();
+        byStartTime.clear();
+        games.clear();
+        appendedGuesses.clear();
+        statistics.clear();
+        logger.info("Deleted {} game records", count);
+    }
+
+    @Override
+    public void runInTransaction(Runnable work) {
+        work.run();
+    }
+
+    @Override
+    public void close() {
+        logger.debug("In-memory game store closed with {} games", games.size());
+    }
+
+    private record GameKey(LocalDateTime startedAt, long id) {}
+
+    private record ConfigKey(int codeLength, int maxNumber, int maxAttempts) {}
+
+    private static final class ConfigStats {
+        final LongAdder wins = new LongAdder();
+        final LongAdder losses = new LongAdder();
+        final LongAdder abandons = new LongAdder();
+        final Map<Integer, LongAdder> guessesToWin = new ConcurrentHashMap<>();
+
+        GameStats snapshot(ConfigKey key) {
+            TreeMap<Integer, Long> histogram = new TreeMap<>();
+            guessesToWin.forEach((guesses, games) -> histogram.put(guesses, games.sum()));
+            return new GameStats(key.codeLength(), key.maxNumber(), key.maxAttempts(),
+                wins.sum(), losses.sum(), abandons.sum(), histogram);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package org.alanc.mastermind.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * One fixed-size file of the event log, memory-mapped in full.
+ * Records are laid out back to back from the start of the file as
+ * {@code [int length][int crc][byte type][payload]}, where length counts the type byte and
+ * payload and the CRC-32C covers the same bytes. The unwritten rest of the file is zero,
+ * so a zero length marks the end of the segment's records.
+ * Not thread-safe; the owning store serializes appends.
+ */
+final class LogSegment implements AutoCloseable {
+    static final int HEADER_BYTES = Integer.BYTES * 2;
+
+    private static final String FILE_PREFIX = "events-";
+    private static final String FILE_SUFFIX = ".log";
+
+    private final long number;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int position;
+
+    private LogSegment(long number, FileChannel channel, MappedByteBuffer buffer) {
+        this.number = number;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Opens a segment file, creating it if needed, and maps the given number of bytes of it.
+     * Appends start at the beginning; recovery moves the position past the records it finds.
+     */
+    static LogSegment open(Path directory, long number, int sizeBytes) throws IOException {
+        FileChannel channel = FileChannel.open(fileFor(directory, number),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                Math.max(sizeBytes, channel.size()));
+            return new LogSegment(number, channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    static Path fileFor(Path directory, long number) {
+        return directory.resolve(String.format("%s%016d%s", FILE_PREFIX, number, FILE_SUFFIX));
+    }
+
+    /**
+     * Gets the segment number encoded in a segment file name, or -1 if the file is not a segment.
+     */
+    static long numberOf(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(FILE_PREFIX) || !name.endsWith(FILE_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    long number() {
+        return number;
+    }
+
+    int position() {
+        return position;
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    boolean hasRoomFor(int payloadBytes) {
+        return position + HEADER_BYTES + 1 + payloadBytes <= buffer.capacity();
+    }
+
+    /**
+     * Appends a record at the current position.
+     *
+     * @return the offset the record was written at
+     */
+    int append(byte type, byte[] payload) {
+        int offset = position;
+        CRC32C crc = new CRC32C();
+        crc.update(type);
+        crc.update(payload);
+
+        buffer.put(offset + HEADER_BYTES, type);
+        buffer.put(offset + HEADER_BYTES + 1, payload);
+        buffer.putInt(offset + Integer.BYTES, (int) crc.getValue());
+        // The length goes in last, so a record is never visible before its body
+        buffer.putInt(offset, payload.length + 1);
+        position = offset + HEADER_BYTES + 1 + payload.length;
+        return offset;
+    }
+
+    /**
+     * Reads the record at an offset.
+     *
+     * @return the record, or null if there is no intact record there
+     */
+    Record read(int offset) {
+        if (offset < 0 || offset > buffer.capacity() - HEADER_BYTES) {
+            return null;
+        }
+        int length = buffer.getInt(offset);
+        if (length <= 0 || length > buffer.capacity() - offset - HEADER_BYTES) {
+            return null;
+        }
+        ByteBuffer body = buffer.slice(offset + HEADER_BYTES, length);
+        CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+        if ((int) crc.getValue() != buffer.getInt(offset + Integer.BYTES)) {
+            return null;
+        }
+        return new Record(body.get(0), body.slice(1, length - 1), offset + HEADER_BYTES + length);
+    }
+
+    /**
+     * Checks whether an offset is past the last record, as opposed to holding a damaged one.
+     */
+    boolean isEnd(int offset) {
+        return offset > buffer.capacity() - HEADER_BYTES || buffer.getInt(offset) == 0;
+    }
+
+    /**
+     * Moves the append position to an offset and zeroes everything after it, discarding
+     * a torn record left behind by a crash.
+     */
+    void truncate(int offset) {
+        if (!isEnd(offset)) {
+            for (int i = offset; i < buffer.capacity(); i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+        position = offset;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * A record read back from a segment.
+     *
+     * @param type the record type
+     * @param payload the record payload, positioned at its start
+     * @param nextOffset the offset just past the record
+     */
+    record Record(byte type, ByteBuffer payload, int nextOffset) {}
+}
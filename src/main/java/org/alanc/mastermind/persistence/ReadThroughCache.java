@@ -0,0 +1,53 @@
+package org.alanc.mastermind.persistence;
+
+import java.util.function.Supplier;
+
+/**
+ * A set of cached values that are invalidated together.
+ * Each {@link Slot} loads its value on first use and serves it until the next {@link #invalidate()},
+ * which only bumps a generation counter. A value loaded while an invalidation happens is returned
+ * to its caller but not kept, so a slow load can never put data older than a write back in the cache.
+ */
+final class ReadThroughCache {
+    private long generation;
+
+    /**
+     * Creates a slot that shares this cache's invalidation.
+     */
+    <T> Slot<T> slot() {
+        return new Slot<>();
+    }
+
+    /**
+     * Drops every cached value. Call after each write, once the write is visible to loaders.
+     */
+    synchronized void invalidate() {
+        generation++;
+    }
+
+    final class Slot<T> {
+        private T value;
+        private long loadedIn = -1;
+
+        /**
+         * Gets the cached value, loading it if the slot is empty or was invalidated.
+         */
+        T get(Supplier<T> loader) {
+            long loadingIn;
+            synchronized (ReadThroughCache.this) {
+                if (loadedIn == generation) {
+                    return value;
+                }
+                loadingIn = generation;
+            }
+            T loaded = loader.get();
+            synchronized (ReadThroughCache.this) {
+                if (loadingIn == generation) {
+                    value = loaded;
+                    loadedIn = loadingIn;
+                }
+            }
+            return loaded;
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package org.alanc.mastermind.persistence;
+
+import org.alanc.mastermind.config.DurabilityMode;
+import org.alanc.mastermind.config.PersistenceConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link GameStore} that spreads games across several SQLite files, one {@link GameDAO} each.
+ * Every shard has its own writer thread, so games in different shards are written in parallel
+ * instead of queueing for one database's write lock.
+ *
+ * <p>New games go to the shards in turn. A game's ID encodes its shard: the game with ID n in
+ * shard k is known as {@code n * shardCount + k}, so every later call for the game is routed by
+ * {@code id % shardCount}. The shard count is recorded next to the shards when they are created
+ * and must not change afterwards.
+ *
+ * <p>Queries over all games ask every shard and merge the answers: pages and oldest-first lists
+ * by (startedAt, id), counts by adding them up, statistics per configuration.
+ *
+ * <p>There are no transactions across shards. {@link #runInTransaction(Runnable)} collects the
+ * writes its work makes, then commits each shard's share in one transaction on that shard's
+ * writer thread, all shards at once. A failure in one shard does not roll back the others.
+ */
+public class ShardedGameStore implements GameStore {
+    private static final Logger logger = LoggerFactory.getLogger(ShardedGameStore.class);
+    private static final Comparator<GameRecord> OLDEST_FIRST =
+        Comparator.comparing(GameRecord::getStartedAt).thenComparing(GameRecord::getId);
+    private static final Comparator<GameStats> BY_CONFIGURATION = Comparator.comparingInt(GameStats::codeLength)
+        .thenComparingInt(GameStats::maxNumber)
+        .thenComparingInt(GameStats::maxAttempts);
+
+    private final List<GameDAO> shards = new ArrayList<>();
+    private final List<ExecutorService> writers = new ArrayList<>();
+    private final AtomicLong nextShard = new AtomicLong();
+    // Writes made inside runInTransaction on this thread, by shard, waiting to be committed
+    private final ThreadLocal<List<List<Consumer<GameDAO>>>> pendingWrites = new ThreadLocal<>();
+
+    /**
+     * Opens the shards named by the configuration's database path and shard count.
+     *
+     * @throws IllegalStateException if the shards were created with a different shard count
+     */
+    public ShardedGameStore(PersistenceConfig config) {
+        int shardCount = config.getShardCount();
+        checkShardCount(Path.of(config.getDatabasePath() + ".shards"), shardCount);
+        try {
+            for (int shard = 0; shard < shardCount; shard++) {
+                shards.add(new GameDAO(shardPath(config.getDatabasePath(), shard), config));
+                String threadName = "game-shard-" + shard + "-writer";
+                writers.add(Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, threadName);
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+            }
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+        logger.debug("Opened {} game database shards", shardCount);
+    }
+
+    /**
+     * Names the file of one shard: {@code games.db} becomes {@code games-<shard>.db}.
+     */
+    static String shardPath(String databasePath, int shard) {
+        int dot = databasePath.lastIndexOf('.');
+        int separator = Math.max(databasePath.lastIndexOf('/'), databasePath.lastIndexOf(File.separatorChar));
+        if (dot > separator + 1) {
+            return databasePath.substring(0, dot) + "-" + shard + databasePath.substring(dot);
+        }
+        return databasePath + "-" + shard;
+    }
+
+    private static void checkShardCount(Path layoutFile, int shardCount) {
+        String stored;
+        try {
+            if (!Files.exists(layoutFile)) {
+                Files.writeString(layoutFile, shardCount + "\n");
+                return;
+            }
+            stored = Files.readString(layoutFile).trim();
+        } catch (IOException e) {
+            logger.error("Failed to read shard layout {}", layoutFile, e);
+            throw new RuntimeException("Failed to read shard layout", e);
+        }
+        if (!stored.equals(String.valueOf(shardCount))) {
+            throw new IllegalStateException("Games are stored in " + stored + " shards but "
+                + shardCount + " are configured; see " + layoutFile);
+        }
+    }
+
+    private int shardOf(long gameId) {
+        return (int) Math.floorMod(gameId, (long) shards.size());
+    }
+
+    private long localId(long gameId) {
+        return Math.floorDiv(gameId, shards.size());
+    }
+
+    private GameRecord toGlobal(int shard, GameRecord record) {
+        return record.withId(record.getId() * shards.size() + shard);
+    }
+
+    private GameRecord toLocal(GameRecord record) {
+        return record.withId(localId(record.getId()));
+    }
+
+    private int takeShard() {
+        return (int) Math.floorMod(nextShard.getAndIncrement(), (long) shards.size());
+    }
+
+    @Override
+    public GameRecord saveGame(GameRecord record) {
+        int shard = takeShard();
+        return toGlobal(shard, onWriter(shard, dao -> dao.saveGame(record)));
+    }
+
+    @Override
+    public void saveGames(List<GameRecord> records) {
+        Map<Integer, List<GameRecord>> byShard = new HashMap<>();
+        for (GameRecord record : records) {
+            byShard.computeIfAbsent(takeShard(), shard -> new ArrayList<>()).add(record);
+        }
+        Map<Integer, Consumer<GameDAO>> writes = new HashMap<>();
+        byShard.forEach((shard, shardRecords) -> writes.put(shard, dao -> dao.saveGames(shardRecords)));
+        write(writes);
+    }
+
+    @Override
+    public void updateGame(GameRecord record) {
+        GameRecord local = toLocal(record);
+        write(Map.of(shardOf(record.getId()), dao -> dao.updateGame(local)));
+    }
+
+    @Override
+    public void appendGuess(long gameId, int guessNumber, GameConverter.GuessResult guess) {
+        long local = localId(gameId);
+        write(Map.of(shardOf(gameId), dao -> dao.appendGuess(local, guessNumber, guess)));
+    }
+
+    @Override
+    public List<GameConverter.GuessResult> getAppendedGuesses(long gameId) {
+        return shards.get(shardOf(gameId)).getAppendedGuesses(localId(gameId));
+    }
+
+    @Override
+    public boolean isLastGameIncomplete() {
+        return getLastIncompleteGame().isPresent();
+    }
+
+    /**
+     * Gets the most recent game across all shards.
+     */
+    @Override
+    public Optional<GameRecord> getLastGame() {
+        Optional<GameRecord> last = Optional.empty();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            int current = shard;
+            Optional<GameRecord> candidate = shards.get(shard).getLastGame().map(record -> toGlobal(current, record));
+            if (candidate.isPresent() && (last.isEmpty() || OLDEST_FIRST.compare(candidate.get(), last.get()) > 0)) {
+                last = candidate;
+            }
+        }
+        return last;
+    }
+
+    @Override
+    public Optional<GameRecord> getLastIncompleteGame() {
+        return getLastGame().filter(record -> GameStatus.IN_PROGRESS.name().equals(record.getStatus()));
+    }
+
+    /**
+     * Gets one page of games across all shards, newest first.
+     * Each shard returns up to a page of games after the cursor, and the page is the newest of those.
+     */
+    @Override
+    public GamePage getGamesPage(GamePage.Cursor after, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive, got: " + pageSize);
+        }
+        List<GameRecord> games = new ArrayList<>();
+        boolean shardHasMore = false;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            GamePage page = shards.get(shard).getGamesPage(localCursor(after, shard), pageSize);
+            for (GameRecord record : page.games()) {
+                games.add(toGlobal(shard, record));
+            }
+            shardHasMore |= page.hasMore();
+        }
+        games.sort(OLDEST_FIRST.reversed());
+
+        if (games.size() <= pageSize && !shardHasMore) {
+            return new GamePage(games, null);
+        }
+        List<GameRecord> pageGames = new ArrayList<>(games.subList(0, Math.min(pageSize, games.size())));
+        return new GamePage(pageGames, GamePage.Cursor.after(pageGames.get(pageGames.size() - 1)));
+    }
+
+    /**
+     * Translates a cursor to a shard's own IDs: the shard's games before the cursor are those
+     * whose ID {@code n} satisfies {@code n * shardCount + shard < id}.
+     */
+    private GamePage.Cursor localCursor(GamePage.Cursor after, int shard) {
+        if (after == null) {
+            return null;
+        }
+        long localId = Math.floorDiv(after.id() - shard + shards.size() - 1, shards.size());
+        return new GamePage.Cursor(after.startedAt(), localId);
+    }
+
+    @Override
+    public long countGames() {
+        long count = 0;
+        for (GameDAO shard : shards) {
+            count += shard.countGames();
+        }
+        return count;
+    }
+
+    /**
+     * Gets the statistics of every shard, added up per configuration.
+     */
+    @Override
+    public List<GameStats> getStatistics() {
+        Map<List<Integer>, GameStats> merged = new HashMap<>();
+        for (GameDAO shard : shards) {
+            for (GameStats stats : shard.getStatistics()) {
+                merged.merge(List.of(stats.codeLength(), stats.maxNumber(), stats.maxAttempts()), stats,
+                    ShardedGameStore::addStatistics);
+            }
+        }
+        return merged.values().stream().sorted(BY_CONFIGURATION).toList();
+    }
+
+    private static GameStats addStatistics(GameStats first, GameStats second) {
+        TreeMap<Integer, Long> guessesToWin = new TreeMap<>(first.guessesToWin());
+        second.guessesToWin().forEach((guesses, games) -> guessesToWin.merge(guesses, games, Long::sum));
+        return new GameStats(first.codeLength(), first.maxNumber(), first.maxAttempts(),
+            first.wins() + second.wins(), first.losses() + second.losses(), first.abandons() + second.abandons(),
+            guessesToWin);
+    }
+
+    @Override
+    public List<GameRecord> getFinishedGamesBefore(LocalDateTime cutoff, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive, got: " + limit);
+        }
+        List<GameRecord> games = new ArrayList<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            for (GameRecord record : shards.get(shard).getFinishedGamesBefore(cutoff, limit)) {
+                games.add(toGlobal(shard, record));
+            }
+        }
+        games.sort(OLDEST_FIRST);
+        return games.size() <= limit ? games : new ArrayList<>(games.subList(0, limit));
+    }
+
+    @Override
+    public void deleteGames(Collection<Long> gameIds) {
+        Map<Integer, List<Long>> byShard = new HashMap<>();
+        for (long gameId : gameIds) {
+            byShard.computeIfAbsent(shardOf(gameId), shard -> new ArrayList<>()).add(localId(gameId));
+        }
+        Map<Integer, Consumer<GameDAO>> writes = new HashMap<>();
+        byShard.forEach((shard, localIds) -> writes.put(shard, dao -> dao.deleteGames(localIds)));
+        write(writes);
+    }
+
+    @Override
+    public void deleteAllGames() {
+        Map<Integer, Consumer<GameDAO>> writes = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            writes.put(shard, GameDAO::deleteAllGames);
+        }
+        write(writes);
+    }
+
+    /**
+     * Runs the work, holding back its writes, then commits each shard's writes in one
+     * transaction on the shard's writer thread. Reads made by the work do not see its own writes,
+     * and new games are saved as the work runs.
+     */
+    @Override
+    public void runInTransaction(Runnable work) {
+        runBatched(work, GameDAO::runInTransaction);
+    }
+
+    /**
+     * Like {@link #runInTransaction(Runnable)}, with each shard's transaction fsynced.
+     */
+    @Override
+    public void runDurably(Runnable work) {
+        runBatched(work, GameDAO::runDurably);
+    }
+
+    private void runBatched(Runnable work, BiConsumer<GameDAO, Runnable> transaction) {
+        if (pendingWrites.get() != null) {
+            work.run(); // join the enclosing batch
+            return;
+        }
+        List<List<Consumer<GameDAO>>> batch = new ArrayList<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            batch.add(new ArrayList<>());
+        }
+        pendingWrites.set(batch);
+        try {
+            work.run();
+        } finally {
+            pendingWrites.remove();
+        }
+
+        List<CompletableFuture<Void>> commits = new ArrayList<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            List<Consumer<GameDAO>> writes = batch.get(shard);
+            if (!writes.isEmpty()) {
+                GameDAO dao = shards.get(shard);
+                commits.add(CompletableFuture.runAsync(
+                    () -> transaction.accept(dao, () -> writes.forEach(write -> write.accept(dao))), writers.get(shard)));
+            }
+        }
+        awaitAll(commits);
+    }
+
+    /**
+     * Makes writes to some shards: held back if a batch is open on this thread, otherwise run on
+     * the shards' writer threads in parallel, returning once all are done.
+     */
+    private void write(Map<Integer, Consumer<GameDAO>> writes) {
+        List<List<Consumer<GameDAO>>> batch = pendingWrites.get();
+        if (batch != null) {
+            writes.forEach((shard, write) -> batch.get(shard).add(write));
+            return;
+        }
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        writes.forEach((shard, write) ->
+            results.add(CompletableFuture.runAsync(() -> write.accept(shards.get(shard)), writers.get(shard))));
+        awaitAll(results);
+    }
+
+    private <T> T onWriter(int shard, Function<GameDAO, T> call) {
+        CompletableFuture<T> result = CompletableFuture.supplyAsync(() -> call.apply(shards.get(shard)), writers.get(shard));
+        awaitAll(List.of(result));
+        return result.join();
+    }
+
+    /**
+     * Waits for every future, then rethrows the first failure.
+     */
+    private static void awaitAll(List<? extends CompletableFuture<?>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void configureDurability(DurabilityMode mode) {
+        shards.forEach(shard -> shard.configureDurability(mode));
+    }
+
+    @Override
+    public void checkpoint() {
+        List<CompletableFuture<Void>> checkpoints = new ArrayList<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            GameDAO dao = shards.get(shard);
+            checkpoints.add(CompletableFuture.runAsync(dao::checkpoint, writers.get(shard)));
+        }
+        awaitAll(checkpoints);
+    }
+
+    @Override
+    public boolean tryLockGame(long gameId) {
+        return shards.get(shardOf(gameId)).tryLockGame(localId(gameId));
+    }
+
+    @Override
+    public void unlockGame(long gameId) {
+        shards.get(shardOf(gameId)).unlockGame(localId(gameId));
+    }
+
+    @Override
+    public void close() {
+        for (ExecutorService writer : writers) {
+            writer.shutdown();
+        }
+        for (ExecutorService writer : writers) {
+            try {
+                if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                    writer.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                writer.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (GameDAO shard : shards) {
+            shard.close();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.alanc.mastermind.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A connection together with the statements prepared on it.
+ * Each SQL string is compiled once and the statement is reused on later calls,
+ * so callers must not close the statements they get back, only their result sets.
+ * Not thread-safe; callers own the connection while using it.
+ */
+class StatementCache implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(StatementCache.class);
+
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+    StatementCache(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Returns the cached statement for the SQL, preparing it on first use.
+     * Parameters left over from the previous use are cleared.
+     */
+    PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement stmt = statements.get(sql);
+        if (stmt == null) {
+            stmt = connection.prepareStatement(sql);
+            statements.put(sql, stmt);
+        } else {
+            stmt.clearParameters();
+        }
+        return stmt;
+    }
+
+    Connection connection() {
+        return connection;
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        for (PreparedStatement stmt : statements.values()) {
+            try {
+                stmt.close();
+            } catch (SQLException e) {
+                logger.warn("Error closing cached statement", e);
+            }
+        }
+        statements.clear();
+        connection.close();
+    }
+}
@@ -0,0 +1,293 @@
+package org.alanc.mastermind.persistence;
+
+import org.alanc.mastermind.config.PersistenceConfig;
+import org.alanc.mastermind.util.ErrorHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded write-behind queue for game saves.
+ * Writes are committed by a dedicated writer thread in batched transactions (group commit),
+ * so the game loop does not wait for the database. A queued write waits at most
+ * {@link PersistenceConfig#getMaxStaleness()} before it is committed.
+ *
+ * A full-record update of a game supersedes every earlier queued write for the same game,
+ * so those writes are dropped from the queue (coalesced).
+ *
+ * A batch that fails to commit goes back to the front of the queue and is retried after
+ * {@link #RETRY_DELAY} or at the next {@link #flush()}; the failure is thrown from the flush that
+ * was waiting for it, and from {@link #close()} if writes are still uncommitted at shutdown.
+ */
+public class WriteBehindQueue implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindQueue.class);
+    static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+
+    private final GameStore gameStore;
+    private final int capacity;
+    private final int maxBatchSize;
+    private final long maxStalenessNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition committed = lock.newCondition();
+    private final ArrayDeque<PendingWrite> queue = new ArrayDeque<>();
+    private final Thread writerThread;
+
+    private long enqueuedCount;
+    private long completedCount;
+    private boolean flushRequested;
+    private boolean closed;
+    private RuntimeException lastFailure;
+    private long failureCount;
+
+    public WriteBehindQueue(GameStore gameStore, PersistenceConfig config) {
+        this.gameStore = gameStore;
+        this.capacity = config.getWriteQueueCapacity();
+        this.maxBatchSize = config.getMaxBatchSize();
+        this.maxStalenessNanos = config.getMaxStaleness().toNanos();
+        this.writerThread = new Thread(this::runWriter, "game-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues a guess to be appended to a game's guess log.
+     */
+    public void appendGuess(long gameId, int guessNumber, GameConverter.GuessResult guess) {
+        enqueue(new PendingWrite(gameId, false, store -> store.appendGuess(gameId, guessNumber, guess)));
+    }
+
+    /**
+     * Queues a full update of a game record, replacing any queued writes for the same game.
+     */
+    public void updateGame(GameRecord record) {
+        enqueue(new PendingWrite(record.getId(), true, store -> store.updateGame(record)));
+    }
+
+    /**
+     * Commits all writes queued before this call and waits until they are written.
+     *
+     * @throws RuntimeException if a batch fails to commit while waiting; its writes stay queued
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            long target = enqueuedCount;
+            long failuresBefore = failureCount;
+            flushRequested = true;
+            notEmpty.signalAll();
+            while (completedCount < target) {
+                if (failureCount != failuresBefore) {
+                    throw new RuntimeException("Failed to commit queued game writes", lastFailure);
+                }
+                if (!writerThread.isAlive()) {
+                    throw new IllegalStateException("Write-behind writer thread is not running");
+                }
+                committed.await(100, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return the number of writes waiting to be committed */
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(PendingWrite write) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Write-behind queue is closed");
+            }
+            if (write.supersedesEarlier()) {
+                int before = queue.size();
+                queue.removeIf(pending -> pending.gameId() == write.gameId());
+                int coalesced = before - queue.size();
+                if (coalesced > 0) {
+                    completedCount += coalesced; // superseded writes count as done
+                    logger.debug("Coalesced {} queued writes for game ID: {}", coalesced, write.gameId());
+                }
+            }
+            while (queue.size() >= capacity) {
+                notFull.awaitUninterruptibly();
+            }
+            queue.addLast(write);
+            enqueuedCount++;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runWriter() {
+        while (true) {
+            List<PendingWrite> batch = takeBatch();
+            if (batch.isEmpty()) {
+                return; // closed and drained
+            }
+            if (!commit(batch) && !awaitRetry()) {
+                return; // closed, and the final attempt failed; close() reports the queued writes
+            }
+        }
+    }
+
+    /**
+     * Waits after a failed commit until the retry delay passes, a flush is requested or the
+     * queue is closed.
+     *
+     * @return false if the queue was already closed when the commit failed
+     */
+    private boolean awaitRetry() {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            long waitNanos = RETRY_DELAY.toNanos();
+            while (waitNanos > 0 && !flushRequested && !closed) {
+                try {
+                    waitNanos = notEmpty.awaitNanos(waitNanos);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for a batch: until the batch is full, the oldest write reaches the maximum staleness,
+     * a flush is requested, or the queue is closed.
+     */
+    private List<PendingWrite> takeBatch() {
+        lock.lock();
+        try {
+            while (queue.isEmpty() && !closed) {
+                notEmpty.awaitUninterruptibly();
+            }
+            while (!queue.isEmpty() && queue.size() < maxBatchSize && !flushRequested && !closed) {
+                long waitNanos = queue.peekFirst().enqueuedAt() + maxStalenessNanos - System.nanoTime();
+                if (waitNanos <= 0) {
+                    break;
+                }
+                try {
+                    notEmpty.awaitNanos(waitNanos);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+            List<PendingWrite> batch = new ArrayList<>(Math.min(queue.size(), maxBatchSize));
+            while (!queue.isEmpty() && batch.size() < maxBatchSize) {
+                batch.add(queue.pollFirst());
+            }
+            if (queue.isEmpty()) {
+                flushRequested = false;
+            }
+            notFull.signalAll();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Commits a batch, or puts it back at the front of the queue if the commit fails.
+     *
+     * @return true if the batch was committed
+     */
+    private boolean commit(List<PendingWrite> batch) {
+        long start = System.nanoTime();
+        RuntimeException failure = null;
+        try {
+            gameStore.runInTransaction(() -> batch.forEach(write -> write.action().apply(gameStore)));
+            logger.debug("Committed {} queued writes in {} ms", batch.size(),
+                    Duration.ofNanos(System.nanoTime() - start).toMillis());
+        } catch (RuntimeException e) {
+            ErrorHandler.handleResourceError(logger, "write-behind batch of " + batch.size() + " writes", e, true);
+            failure = e;
+        }
+
+        lock.lock();
+        try {
+            if (failure == null) {
+                completedCount += batch.size();
+            } else {
+                for (int i = batch.size() - 1; i >= 0; i--) {
+                    queue.addFirst(batch.get(i));
+                }
+                lastFailure = failure;
+                failureCount++;
+                flushRequested = false; // the next flush asks for the retry
+            }
+            committed.signalAll();
+            return failure == null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting writes, commits everything still queued, and stops the writer thread.
+     *
+     * @throws RuntimeException if queued writes could not be committed
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        lock.lock();
+        try {
+            if (!queue.isEmpty()) {
+                throw new RuntimeException("Failed to commit " + queue.size() + " queued game writes", lastFailure);
+            }
+        } finally {
+            lock.unlock();
+        }
+        logger.debug("Write-behind queue drained and closed");
+    }
+
+    @FunctionalInterface
+    private interface WriteAction {
+        void apply(GameStore store);
+    }
+
+    private record PendingWrite(long gameId, boolean supersedesEarlier, WriteAction action, long enqueuedAt) {
+        PendingWrite(long gameId, boolean supersedesEarlier, WriteAction action) {
+            this(gameId, supersedesEarlier, action, System.nanoTime());
+        }
+    }
+}
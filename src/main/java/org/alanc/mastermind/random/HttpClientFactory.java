@@ -0,0 +1,99 @@
+package org.alanc.mastermind.random;
+
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.alanc.mastermind.config.HttpClientConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides the single OkHttpClient shared by all random.org services.
+ * Sharing one client means one dispatcher and one connection pool per process,
+ * so connections (and their TLS handshakes) are reused across services.
+ */
+public final class HttpClientFactory {
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientFactory.class);
+
+    private static HttpClientConfig config = HttpClientConfig.defaults();
+    private static final RequestMetrics metrics = new RequestMetrics();
+    private static OkHttpClient client;
+
+    /**
+     * Sets the configuration used to build the shared client.
+     * Must be called before the first call to {@link #shared()}.
+     *
+     * @param httpClientConfig the client configuration
+     * @throws IllegalStateException if the shared client has already been created
+     */
+    public static synchronized void configure(HttpClientConfig httpClientConfig) {
+        if (client != null) {
+            throw new IllegalStateException("Shared HTTP client has already been created");
+        }
+        config = httpClientConfig;
+    }
+
+    /**
+     * Gets the shared client, creating it on first use.
+     *
+     * @return the process-wide OkHttpClient
+     */
+    public static synchronized OkHttpClient shared() {
+        if (client == null) {
+            client = createClient(config);
+            logger.debug("Created shared HTTP client (connect timeout {}, read timeout {}, {} idle connections, HTTP/2 {})",
+                    config.getConnectTimeout(), config.getReadTimeout(), config.getMaxIdleConnections(),
+                    config.isHttp2Enabled() ? "enabled" : "disabled");
+        }
+        return client;
+    }
+
+    /**
+     * Gets the per-host request metrics collected by the shared client.
+     *
+     * @return the request metrics
+     */
+    public static RequestMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Shuts down the shared client's dispatcher and evicts all pooled connections.
+     * A new client is created if {@link #shared()} is called afterwards.
+     */
+    public static synchronized void shutdown() {
+        if (client == null) {
+            return;
+        }
+        logger.debug("Shutting down shared HTTP client");
+        metrics.getAllStats().values().forEach(stats ->
+                logger.info("HTTP metrics for {}: {} requests, {} failures, {} ms average, {} ms max",
+                        stats.host(), stats.requests(), stats.failures(),
+                        String.format("%.1f", stats.averageMillis()), stats.maxMillis()));
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+        client = null;
+    }
+
+    private static OkHttpClient createClient(HttpClientConfig config) {
+        List<Protocol> protocols = config.isHttp2Enabled()
+                ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                : List.of(Protocol.HTTP_1_1);
+
+        return new OkHttpClient.Builder()
+                .connectTimeout(config.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .readTimeout(config.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .connectionPool(new ConnectionPool(config.getMaxIdleConnections(),
+                        config.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS))
+                .protocols(protocols)
+                .addInterceptor(metrics)
+                .build();
+    }
+
+    private HttpClientFactory() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+}
@@ -0,0 +1,65 @@
+package org.alanc.mastermind.random;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Tracks recent response times of a random number service in a fixed-size ring buffer
+ * and answers percentile queries over them.
+ */
+public class LatencyTracker {
+    private final long[] samplesNanos;
+    private final int minSamples;
+    private int nextIndex;
+    private int count;
+
+    /**
+     * Creates a tracker that keeps the most recent samples.
+     *
+     * @param capacity the number of samples to keep (must be positive)
+     * @param minSamples the number of samples required before percentiles are reported
+     */
+    public LatencyTracker(int capacity, int minSamples) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive, got: " + capacity);
+        }
+        this.samplesNanos = new long[capacity];
+        this.minSamples = Math.max(1, minSamples);
+    }
+
+    /**
+     * Records one observed response time, replacing the oldest sample when full.
+     *
+     * @param latency the observed response time
+     */
+    public synchronized void record(Duration latency) {
+        samplesNanos[nextIndex] = latency.toNanos();
+        nextIndex = (nextIndex + 1) % samplesNanos.length;
+        count = Math.min(count + 1, samplesNanos.length);
+    }
+
+    /**
+     * Computes a percentile of the recorded response times (nearest-rank method).
+     *
+     * @param percentile the percentile between 0 (exclusive) and 1 (inclusive), e.g. 0.95
+     * @return the percentile, or empty if fewer than the minimum number of samples were recorded
+     */
+    public synchronized Optional<Duration> percentile(double percentile) {
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("percentile must be in (0, 1], got: " + percentile);
+        }
+        if (count < minSamples) {
+            return Optional.empty();
+        }
+        long[] sorted = Arrays.copyOf(samplesNanos, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile * count) - 1;
+        return Optional.of(Duration.ofNanos(sorted[Math.max(0, rank)]));
+    }
+
+    /** @return the number of samples currently held */
+    public synchronized int getSampleCount() {
+        return count;
+    }
+}
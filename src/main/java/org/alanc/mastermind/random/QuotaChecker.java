@@ -1,7 +1,6 @@
 package org.alanc.mastermind.random;
 
 import okhttp3.HttpUrl;
-import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 import org.alanc.mastermind.util.ErrorHandler;
@@ -9,14 +8,29 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.OptionalLong;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Checks the random.org API quota for this client's IP address.
+ * Keeps the last known quota in a cache that can be refreshed on a background schedule
+ * and is decremented locally as random services consume bits.
+ */
 public class QuotaChecker implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(QuotaChecker.class);
 
     private static final String QUOTA_API = "https://www.random.org/quota/";
-    private static final OkHttpClient client = new OkHttpClient();
 
     private final String quotaApi;
+    private final AtomicLong cachedQuota = new AtomicLong();
+    // Null until the quota is first retrieved; the cached quota is meaningless before that
+    private volatile Instant lastRefreshed;
+    private ScheduledExecutorService refreshScheduler;
 
     public QuotaChecker() {
         this(QUOTA_API);
@@ -26,6 +40,20 @@ public class QuotaChecker implements AutoCloseable {
         this.quotaApi = quotaApi;
     }
 
+    /**
+     * Estimates how many quota bits random.org charges for a request.
+     * Each integer costs the number of bits needed to represent the requested range.
+     *
+     * @param quantity the number of integers requested
+     * @param min the minimum value (inclusive)
+     * @param max the maximum value (inclusive)
+     * @return the estimated cost in bits
+     */
+    public static long estimateCost(int quantity, int min, int max) {
+        long range = (long) max - min + 1;
+        int bitsPerNumber = range <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(range - 1);
+        return (long) quantity * bitsPerNumber;
+    }
 
     public int getQuota() {
         logger.debug("Checking random.org API quota");
@@ -41,13 +69,15 @@ public class QuotaChecker implements AutoCloseable {
                 .url(url)
                 .build();
 
-        try (Response response = client.newCall(request).execute()) {
+        try (Response response = HttpClientFactory.shared().newCall(request).execute()) {
             if (!response.isSuccessful() || response.body() == null) {
                 logger.warn("Error encountered when retrieving quota from random.org. Response code: {}", response.code());
                 return -1;
             }
             int quota = Integer.parseInt(response.body().string().trim());
             logger.debug("Retrieved current random.org quota: {} bits", quota);
+            cachedQuota.set(quota);
+            lastRefreshed = Instant.now();
             return quota;
         } catch (IOException e) {
             ErrorHandler.handleNetworkError(logger, "Random.org quota API", e, true);
@@ -59,14 +89,85 @@ public class QuotaChecker implements AutoCloseable {
         }
     }
 
-    @Override
-    public void close() throws Exception {
-        shutdown();
+    /**
+     * Starts a background task that refreshes the cached quota at a fixed delay.
+     * The first refresh runs immediately. Calling this more than once has no effect.
+     *
+     * @param interval the delay between refreshes
+     */
+    public synchronized void startBackgroundRefresh(Duration interval) {
+        if (refreshScheduler != null) {
+            return;
+        }
+        refreshScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "quota-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refreshScheduler.scheduleWithFixedDelay(this::refreshQuietly, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        logger.debug("Started background quota refresh every {}", interval);
     }
 
-    public static void shutdown() {
-        logger.debug("Shutting down QuotaChecker HTTP client");
-        client.dispatcher().executorService().shutdown();
-        client.connectionPool().evictAll();
+    private void refreshQuietly() {
+        try {
+            getQuota();
+        } catch (RuntimeException e) {
+            logger.warn("Background quota refresh failed", e);
+        }
+    }
+
+    /**
+     * Gets the last known quota without making a network call.
+     * The quota is negative once it has been overdrawn.
+     *
+     * @return the cached quota in bits, or empty if it has never been retrieved
+     */
+    public OptionalLong getCachedQuota() {
+        return lastRefreshed == null ? OptionalLong.empty() : OptionalLong.of(cachedQuota.get());
+    }
+
+    /**
+     * Gets the time of the last successful quota retrieval.
+     *
+     * @return the last refresh time, or null if the quota has never been retrieved
+     */
+    public Instant getLastRefreshed() {
+        return lastRefreshed;
+    }
+
+    /**
+     * Decrements the cached quota by bits consumed by a successful random.org request.
+     * Does nothing while the quota is unknown.
+     *
+     * @param bits the number of bits consumed
+     */
+    public void recordUsage(long bits) {
+        if (lastRefreshed != null) {
+            cachedQuota.addAndGet(-bits);
+        }
+    }
+
+    /**
+     * Checks whether the cached quota can cover a request without contacting random.org.
+     * An unknown quota is treated as sufficient so the request is still attempted.
+     *
+     * @param bits the estimated cost of the request
+     * @return false only if the cached quota is known to be lower than the cost
+     */
+    public boolean hasQuotaFor(long bits) {
+        return lastRefreshed == null || cachedQuota.get() >= bits;
+    }
+
+    /**
+     * Stops the background refresh task. The shared HTTP client is shut down
+     * separately through {@link HttpClientFactory#shutdown()}.
+     */
+    @Override
+    public synchronized void close() {
+        if (refreshScheduler != null) {
+            logger.debug("Stopping background quota refresh");
+            refreshScheduler.shutdownNow();
+            refreshScheduler = null;
+        }
     }
 }
\ No newline at end of file
@@ -1,5 +1,9 @@
 package org.alanc.mastermind.random;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Service interface for generating random numbers for Mastermind games.
  * Supports different implementations (external APIs, local generators, test mocks).
@@ -15,6 +19,57 @@ public interface RandomNumberService extends AutoCloseable {
      * @return space-separated string (e.g., "3 7 1 4") or null if generation fails
      */
     String generate(int quantity, int min, int max);
+
+    /**
+     * Generates several independent sequences of random numbers, e.g. one secret code per game
+     * when multiple games are started at once.
+     * Default implementation calls {@link #generate(int, int, int)} once per sequence;
+     * remote services should override this to fetch all sequences in a single request.
+     *
+     * @param count the number of sequences to generate (must be positive)
+     * @param quantity the number of random numbers in each sequence (must be positive)
+     * @param min the minimum value (inclusive)
+     * @param max the maximum value (inclusive)
+     * @return list of {@code count} space-separated strings, or null if generation fails
+     */
+    default List<String> generateBatch(int count, int quantity, int min, int max) {
+        List<String> sequences = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String sequence = generate(quantity, min, max);
+            if (sequence == null) {
+                return null;
+            }
+            sequences.add(sequence);
+        }
+        return sequences;
+    }
+
+    /**
+     * Generates a sequence of random numbers without blocking the caller.
+     * Default implementation runs {@link #generate(int, int, int)} on the common fork-join pool;
+     * remote services should override this so that cancelling the future aborts the request.
+     *
+     * @param quantity the number of random numbers to generate (must be positive)
+     * @param min the minimum value (inclusive)
+     * @param max the maximum value (inclusive)
+     * @return future completing with a space-separated string, or with null if generation fails
+     */
+    default CompletableFuture<String> generateAsync(int quantity, int min, int max) {
+        return CompletableFuture.supplyAsync(() -> generate(quantity, min, max));
+    }
+
+    /**
+     * Estimates the external quota (in bits) consumed by generating the given numbers.
+     * Default implementation returns 0 for services without a quota.
+     *
+     * @param quantity the number of random numbers to generate
+     * @param min the minimum value (inclusive)
+     * @param max the maximum value (inclusive)
+     * @return the estimated quota cost in bits
+     */
+    default long estimateQuotaCost(int quantity, int min, int max) {
+        return 0;
+    }
     
     /**
      * Closes any resources held by this service.
@@ -2,6 +2,10 @@ package org.alanc.mastermind.random;
 
 import okhttp3.*;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.alanc.mastermind.util.ErrorHandler;
 import org.slf4j.Logger;
@@ -15,9 +19,9 @@ public class RandomOrgService implements RandomNumberService {
     private static final Logger logger = LoggerFactory.getLogger(RandomOrgService.class);
 
     private static final String RANDOM_ORG_API = "https://www.random.org/integers";
-    private static final OkHttpClient client = new OkHttpClient();
 
     private final String randomNumberApi;
+    private final QuotaChecker quotaChecker;
 
     public RandomOrgService() {
         this(RANDOM_ORG_API);
@@ -25,13 +29,73 @@ public class RandomOrgService implements RandomNumberService {
 
     // for custom API urls if that ever happens
     public RandomOrgService(String randomNumberApi) {
+        this(randomNumberApi, null);
+    }
+
+    /**
+     * Creates a service that consults the quota checker's cached quota before each request
+     * and reports consumed bits back to it.
+     *
+     * @param quotaChecker the quota checker to share quota state with
+     */
+    public RandomOrgService(QuotaChecker quotaChecker) {
+        this(RANDOM_ORG_API, quotaChecker);
+    }
+
+    public RandomOrgService(String randomNumberApi, QuotaChecker quotaChecker) {
         this.randomNumberApi = randomNumberApi;
+        this.quotaChecker = quotaChecker;
     }
 
     @Override
     public String generate(int quantity, int min, int max) {
         logger.debug("Generating {} random numbers from {} to {} using random.org api.", quantity, min, max);
 
+        validateRequest(quantity, min, max);
+        return requestNumbers(quantity, min, max);
+    }
+
+    /**
+     * Generates all sequences with a single random.org request of {@code count * quantity} numbers,
+     * then splits the response into {@code count} sequences.
+     */
+    @Override
+    public List<String> generateBatch(int count, int quantity, int min, int max) {
+        logger.debug("Generating {} sequences of {} random numbers from {} to {} using random.org api.",
+                count, quantity, min, max);
+
+        if (count < 1) {
+            throw new IllegalArgumentException("Count must be positive, got: " + count);
+        }
+        if ((long) count * quantity > 10000) {
+            throw new IllegalArgumentException("Total quantity (count * quantity) must not exceed 10000");
+        }
+        validateRequest(count * quantity, min, max);
+
+        String numbers = requestNumbers(count * quantity, min, max);
+        if (numbers == null) {
+            return null;
+        }
+
+        String[] parts = numbers.split(" ");
+        if (parts.length != count * quantity) {
+            logger.warn("Expected {} numbers from random.org api but received {}", count * quantity, parts.length);
+            return null;
+        }
+
+        List<String> sequences = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sequences.add(String.join(" ", Arrays.copyOfRange(parts, i * quantity, (i + 1) * quantity)));
+        }
+        return sequences;
+    }
+
+    @Override
+    public long estimateQuotaCost(int quantity, int min, int max) {
+        return QuotaChecker.estimateCost(quantity, min, max);
+    }
+
+    private void validateRequest(int quantity, int min, int max) {
         if (quantity < 1 || quantity > 10000) {
             throw new IllegalArgumentException("Quantity must be between 1 and 10000");
         }
@@ -44,7 +108,79 @@ public class RandomOrgService implements RandomNumberService {
         if (min > max) {
             throw new IllegalArgumentException("Min value (" + min + ") cannot be greater than max value (" + max + ")");
         }
+    }
+
+    private String requestNumbers(int quantity, int min, int max) {
+        long quotaCost = estimateQuotaCost(quantity, min, max);
+        if (!reserveQuota(quantity, quotaCost)) {
+            return null;
+        }
+
+        try (Response response = HttpClientFactory.shared().newCall(buildRequest(quantity, min, max)).execute()) {
+            return parseResponse(response, quantity, quotaCost);
+        } catch (IOException e) {
+            ErrorHandler.handleNetworkError(logger, "Random.org API", e, true);
+        }
+        return null;
+    }
+
+    /**
+     * Sends the request asynchronously on the shared client's dispatcher.
+     * Cancelling the returned future cancels the underlying HTTP call.
+     */
+    @Override
+    public CompletableFuture<String> generateAsync(int quantity, int min, int max) {
+        logger.debug("Generating {} random numbers from {} to {} asynchronously using random.org api.", quantity, min, max);
+
+        validateRequest(quantity, min, max);
+        long quotaCost = estimateQuotaCost(quantity, min, max);
+        if (!reserveQuota(quantity, quotaCost)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<String> future = new CompletableFuture<>();
+        Call call = HttpClientFactory.shared().newCall(buildRequest(quantity, min, max));
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                logger.debug("Cancelling random.org request");
+                call.cancel();
+            }
+        });
+
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call failedCall, IOException e) {
+                if (!failedCall.isCanceled()) {
+                    ErrorHandler.handleNetworkError(logger, "Random.org API", e, true);
+                }
+                future.complete(null);
+            }
+
+            @Override
+            public void onResponse(Call completedCall, Response response) {
+                try (response) {
+                    future.complete(parseResponse(response, quantity, quotaCost));
+                } catch (IOException e) {
+                    ErrorHandler.handleNetworkError(logger, "Random.org API", e, true);
+                    future.complete(null);
+                }
+            }
+        });
+        return future;
+    }
+
+    private boolean reserveQuota(int quantity, long quotaCost) {
+        logger.info("Requesting {} numbers from random.org api, estimated quota cost: {} bits", quantity, quotaCost);
 
+        if (quotaChecker != null && !quotaChecker.hasQuotaFor(quotaCost)) {
+            logger.warn("Skipping random.org request: cached quota of {} bits cannot cover {} bits",
+                    quotaChecker.getCachedQuota().orElse(0), quotaCost);
+            return false;
+        }
+        return true;
+    }
+
+    private Request buildRequest(int quantity, int min, int max) {
         HttpUrl baseUrl = HttpUrl.parse(randomNumberApi);
 
         HttpUrl url = baseUrl.newBuilder()
@@ -57,37 +193,26 @@ public class RandomOrgService implements RandomNumberService {
                 .addQueryParameter("rnd", "new")
                 .build();
 
-        Request request = new Request.Builder()
+        return new Request.Builder()
                 .url(url)
                 .build();
-
-        try (Response response = client.newCall(request).execute()) {
-            ResponseBody responseBody = response.body();
-            if (!response.isSuccessful() || responseBody == null) {
-                logger.warn("Error encountered when generating numbers using random.org api. Response code {}", response.code());
-                return null;
-            }
-            String responseString = responseBody.string();
-            String formattedRandomNumbers = responseString
-                    .replaceAll("[\\r\\n]+", " ")  // Replace any line endings with space
-                    .replaceAll("\\s+", " ")       // Collapse multiple whitespace to single space
-                    .trim();
-            logger.debug("Successfully generated {} random numbers using random.org api: {}", quantity, formattedRandomNumbers);
-            return formattedRandomNumbers;
-        } catch (IOException e) {
-            ErrorHandler.handleNetworkError(logger, "Random.org API", e, true);
-        }
-        return null;
     }
 
-    @Override
-    public void close() throws Exception {
-        shutdown();
-    }
-
-    public static void shutdown() {
-        logger.debug("Shutting down RandomOrgService HTTP client");
-        client.dispatcher().executorService().shutdown();
-        client.connectionPool().evictAll();
+    private String parseResponse(Response response, int quantity, long quotaCost) throws IOException {
+        ResponseBody responseBody = response.body();
+        if (!response.isSuccessful() || responseBody == null) {
+            logger.warn("Error encountered when generating numbers using random.org api. Response code {}", response.code());
+            return null;
+        }
+        String responseString = responseBody.string();
+        String formattedRandomNumbers = responseString
+                .replaceAll("[\\r\\n]+", " ")  // Replace any line endings with space
+                .replaceAll("\\s+", " ")       // Collapse multiple whitespace to single space
+                .trim();
+        logger.debug("Successfully generated {} random numbers using random.org api: {}", quantity, formattedRandomNumbers);
+        if (quotaChecker != null) {
+            quotaChecker.recordUsage(quotaCost);
+        }
+        return formattedRandomNumbers;
     }
 }
@@ -0,0 +1,92 @@
+package org.alanc.mastermind.random;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-host request metrics for the shared HTTP client.
+ * Installed as an interceptor so every request made through the client is counted.
+ */
+public class RequestMetrics implements Interceptor {
+    private final Map<String, HostCounters> hosts = new ConcurrentHashMap<>();
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        HostCounters counters = hosts.computeIfAbsent(chain.request().url().host(), host -> new HostCounters());
+        long start = System.nanoTime();
+        try {
+            Response response = chain.proceed(chain.request());
+            counters.record(System.nanoTime() - start, !response.isSuccessful());
+            return response;
+        } catch (IOException | RuntimeException e) {
+            counters.record(System.nanoTime() - start, true);
+            throw e;
+        }
+    }
+
+    /**
+     * Gets a snapshot of the metrics for a single host.
+     *
+     * @param host the host name (e.g., "www.random.org")
+     * @return the host's metrics, or an empty snapshot if no requests were made
+     */
+    public HostStats getStats(String host) {
+        HostCounters counters = hosts.get(host);
+        return counters == null ? new HostStats(host, 0, 0, 0, 0) : counters.snapshot(host);
+    }
+
+    /**
+     * Gets snapshots of the metrics for all hosts, ordered by host name.
+     *
+     * @return map of host name to metrics
+     */
+    public Map<String, HostStats> getAllStats() {
+        Map<String, HostStats> stats = new TreeMap<>();
+        hosts.forEach((host, counters) -> stats.put(host, counters.snapshot(host)));
+        return stats;
+    }
+
+    private static final class HostCounters {
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long elapsedNanos, boolean failed) {
+            requests.incrementAndGet();
+            if (failed) {
+                failures.incrementAndGet();
+            }
+            totalNanos.addAndGet(elapsedNanos);
+            maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+        }
+
+        HostStats snapshot(String host) {
+            return new HostStats(host, requests.get(), failures.get(),
+                    totalNanos.get() / 1_000_000, maxNanos.get() / 1_000_000);
+        }
+    }
+
+    /**
+     * Snapshot of request metrics for one host.
+     *
+     * @param host the host name
+     * @param requests total number of requests
+     * @param failures requests that failed with an I/O error or unsuccessful status code
+     * @param totalMillis cumulative request time in milliseconds
+     * @param maxMillis slowest request time in milliseconds
+     */
+    public record HostStats(String host, long requests, long failures, long totalMillis, long maxMillis) {
+
+        /** @return the mean request time in milliseconds, or 0 if no requests were made */
+        public double averageMillis() {
+            return requests == 0 ? 0 : (double) totalMillis / requests;
+        }
+    }
+}
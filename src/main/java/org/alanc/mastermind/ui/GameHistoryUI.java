@@ -1,9 +1,10 @@
 package org.alanc.mastermind.ui;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.alanc.mastermind.manager.GameManager;
+import org.alanc.mastermind.persistence.GameConverter;
+import org.alanc.mastermind.persistence.GamePage;
 import org.alanc.mastermind.persistence.GameRecord;
+import org.alanc.mastermind.persistence.GameStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.time.format.DateTimeFormatter;
@@ -18,10 +19,13 @@ import static org.alanc.mastermind.util.Utils.readLine;
 public class GameHistoryUI {
     private static final Logger logger = LoggerFactory.getLogger(GameHistoryUI.class);
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final int PAGE_SIZE = 10;
 
     /**
-     * Shows the game history display.
+     * Shows the game history display, one page at a time.
+     * Only the page on screen is loaded, so the display opens immediately however many games are saved.
+     * Each game is listed with its guess count and last guess; the full history of a game is
+     * shown when the player enters its number.
      * 
      * @param scanner the input scanner
      * @param gameManager the game manager to get history from
@@ -29,31 +33,37 @@ public class GameHistoryUI {
     public static void show(Scanner scanner, GameManager gameManager) {
         logger.info("Displaying game history");
         
-        List<GameRecord> games = gameManager.getAllGames();
+        GamePage page = gameManager.getGameHistoryPage(null, PAGE_SIZE);
         
-        if (games.isEmpty()) {
+        if (page.games().isEmpty()) {
             logger.info("No games found in history database");
             System.out.println("No games found in history.");
         } else {
-            logger.info("Displaying {} games in history", games.size());
             System.out.println("GAME HISTORY");
             System.out.println("==============");
             System.out.println();
+            showStatistics(gameManager.getStatistics());
             
-            for (int i = 0; i < games.size(); i++) {
-                GameRecord game = games.get(i);
-                System.out.printf("%d. %s | Status: %s | Started: %s |%n",
-                    (i + 1),
-                    formatGameInfo(game),
-                    game.getStatus(),
-                    game.getStartedAt().format(DATE_FORMAT)
-                );
-                
-                String guessHistory = formatGuessHistory(game.getGuessesJson());
-                if (!guessHistory.isEmpty()) {
-                    System.out.printf("   Guesses:\n%s", guessHistory);
+            int shown = 0;
+            while (true) {
+                int firstOnPage = shown + 1;
+                for (GameRecord game : page.games()) {
+                    shown++;
+                    System.out.printf("%d. %s | Status: %s | Started: %s |%n",
+                        shown,
+                        formatGameInfo(game),
+                        game.getStatus(),
+                        game.getStartedAt().format(DATE_FORMAT)
+                    );
+                    System.out.printf("   %s%n", formatGuessSummary(game));
+                    System.out.println();
                 }
-                System.out.println();
+                logger.debug("Displayed {} games in history", shown);
+
+                if (!showGuessesOnRequest(scanner, page, firstOnPage)) {
+                    break;
+                }
+                page = gameManager.getGameHistoryPage(page.nextCursor(), PAGE_SIZE);
             }
         }
         
@@ -61,6 +71,23 @@ public class GameHistoryUI {
         readLine(scanner, "Press Enter to return to Options menu\n");
     }
 
+    private static void showStatistics(List<GameStats> statistics) {
+        if (statistics.isEmpty()) {
+            return;
+        }
+        System.out.println("Results by configuration:");
+        for (GameStats stats : statistics) {
+            System.out.printf("   %d attempts, %d digits, 0-%d: %d won, %d lost, %d abandoned (%.0f%% won",
+                stats.maxAttempts(), stats.codeLength(), stats.maxNumber(),
+                stats.wins(), stats.losses(), stats.abandons(), stats.winRate() * 100);
+            if (stats.wins() > 0) {
+                System.out.printf(", %.1f guesses per win", stats.averageGuessesToWin());
+            }
+            System.out.println(")");
+        }
+        System.out.println();
+    }
+
     private static String formatGameInfo(GameRecord game) {
         StringBuilder info = new StringBuilder();
         info.append("Code: ").append(game.getSecretCode());
@@ -69,42 +96,57 @@ public class GameHistoryUI {
         return info.toString();
     }
 
-    private static String formatGuessHistory(String guessesJson) {
-        try {
-            if (guessesJson == null || guessesJson.trim().isEmpty()) {
-                return "";
+    /**
+     * Lets the player expand games on the page until they move on.
+     * A game's full guess history is only decoded here, when it is asked for.
+     *
+     * @return true if the player asked for the next page
+     */
+    private static boolean showGuessesOnRequest(Scanner scanner, GamePage page, int firstOnPage) {
+        int lastOnPage = firstOnPage + page.games().size() - 1;
+        String prompt = page.hasMore()
+            ? "Enter a game number to show its guesses, press Enter to show more games, or type 'q' to stop: "
+            : "Enter a game number to show its guesses, or press Enter to stop: ";
+        while (true) {
+            String input = readLine(scanner, prompt).trim();
+            if (input.isEmpty()) {
+                return page.hasMore();
             }
-            
-            List<GuessResult> guesses = mapper.readValue(guessesJson,
-                mapper.getTypeFactory().constructCollectionType(List.class, GuessResult.class));
-            
-            if (guesses.isEmpty()) {
-                return "";
+            if ("q".equalsIgnoreCase(input)) {
+                return false;
             }
-            
-            StringBuilder history = new StringBuilder();
-            for (int i = 0; i < guesses.size(); i++) {
-                GuessResult guess = guesses.get(i);
-                history.append(String.format("   [%s: %d correct numbers, %d correct locations]\n",
-                    guess.guess(), guess.correctNumbers(), guess.correctLocations()));
+            try {
+                int number = Integer.parseInt(input);
+                if (number >= firstOnPage && number <= lastOnPage) {
+                    GameRecord game = page.games().get(number - firstOnPage);
+                    System.out.printf("%d. Guesses:%n%s%n", number, formatGuessHistory(game.getGuesses()));
+                    continue;
+                }
+            } catch (NumberFormatException e) {
+                // Fall through to the hint below
             }
-            
-            return history.toString();
-        } catch (JsonProcessingException e) {
-            logger.error("Failed to parse guess history: {}", guessesJson, e);
-            return "";
+            System.out.println("Please enter a number between " + firstOnPage + " and " + lastOnPage);
         }
     }
 
-    /**
-     * Record representing a single guess result for history display.
-     * 
-     * @param guess the player's guess as a string
-     * @param correctNumbers number of correct digits in wrong positions
-     * @param correctLocations number of correct digits in correct positions  
-     * @param allCorrect whether this guess was completely correct
-     */
-    public record GuessResult(String guess, int correctNumbers, int correctLocations, boolean allCorrect) {}
+    private static String formatGuessSummary(GameRecord game) {
+        GameConverter.GuessResult last = game.getLastGuess();
+        if (last == null) {
+            return "No guesses";
+        }
+        return String.format("%d %s | Last: [%s: %d correct numbers, %d correct locations]",
+            game.getGuessCount(), game.getGuessCount() == 1 ? "guess" : "guesses",
+            last.guess(), last.correctNumbers(), last.correctLocations());
+    }
+
+    private static String formatGuessHistory(List<GameConverter.GuessResult> guesses) {
+        StringBuilder history = new StringBuilder();
+        for (GameConverter.GuessResult guess : guesses) {
+            history.append(String.format("   [%s: %d correct numbers, %d correct locations]\n",
+                guess.guess(), guess.correctNumbers(), guess.correctLocations()));
+        }
+        return history.toString();
+    }
 
     private GameHistoryUI() {
         throw new UnsupportedOperationException("Utility class cannot be instantiated");
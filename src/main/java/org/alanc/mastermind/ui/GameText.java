@@ -66,7 +66,8 @@ public final class GameText {
                 5) RESET TO DEFAULT SETTINGS
                 6) VIEW GAME HISTORY
                 7) CLEAR GAME HISTORY
-                8) RETURN TO MAIN MENU
+                8) BACK UP GAME HISTORY
+                9) RETURN TO MAIN MENU
                 
                 ******************************************
                 """),
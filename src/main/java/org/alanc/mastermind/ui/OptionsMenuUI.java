@@ -5,12 +5,16 @@ import org.alanc.mastermind.manager.GameManager;
 import org.alanc.mastermind.util.ErrorHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Scanner;
 import static org.alanc.mastermind.ui.GameText.*;
 import static org.alanc.mastermind.util.Utils.*;
 
 public class OptionsMenuUI {
     private static final Logger logger = LoggerFactory.getLogger(OptionsMenuUI.class);
+    private static final DateTimeFormatter BACKUP_TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
 
     public static void show(Scanner scanner, GameManager gameManager) {
         while (true) {
@@ -18,7 +22,7 @@ public class OptionsMenuUI {
             printUI(Messages.OPTIONS_MENU);
 
             try {
-                int selection = readNumberInRange(scanner, "Please enter a number: ", 1, 8);
+                int selection = readNumberInRange(scanner, "Please enter a number: ", 1, 9);
                 logger.info("User selected options menu option: {}", selection);
 
                 switch (selection) {
@@ -27,7 +31,7 @@ public class OptionsMenuUI {
                     case 3 -> changeMaxNumber(scanner, gameManager);
                     case 4 -> {
                         logger.info("User requested Random.org quota check");
-                        QuotaUI.show(scanner);
+                        QuotaUI.show(scanner, gameManager.getQuotaChecker());
                     }
                     case 5 -> resetToDefaults(scanner, gameManager);
                     case 6 -> {
@@ -39,6 +43,10 @@ public class OptionsMenuUI {
                         clearGameHistory(scanner, gameManager);
                     }
                     case 8 -> {
+                        logger.info("User requested game history backup");
+                        backupGameHistory(scanner, gameManager);
+                    }
+                    case 9 -> {
                         logger.info("User exiting options menu");
                         return;
                     }
@@ -100,7 +108,7 @@ public class OptionsMenuUI {
         String confirmation = readLine(scanner, "Type 'yes' to confirm: ");
         
         if ("yes".equalsIgnoreCase(confirmation.trim())) {
-            int gameCount = gameManager.getAllGames().size();
+            long gameCount = gameManager.countGames();
             gameManager.clearGameHistory();
             logger.info("User cleared all game history ({} games deleted)", gameCount);
             System.out.println("Game history cleared successfully!");
@@ -112,6 +120,25 @@ public class OptionsMenuUI {
         readLine(scanner, "Press Enter to return to Options menu\n");
     }
 
+    private static void backupGameHistory(Scanner scanner, GameManager gameManager) {
+        String defaultFile = "mastermind_games-backup-"
+                + LocalDateTime.now().format(BACKUP_TIMESTAMP_FORMAT) + ".db";
+        String input = readLine(scanner, "Backup file (press Enter for " + defaultFile + "): ").trim();
+        Path destination = Path.of(input.isEmpty() ? defaultFile : input);
+
+        try {
+            gameManager.backupGameHistory(destination, progress ->
+                    System.out.printf("\rBacking up... %3d%%", Math.round(progress.fraction() * 100)));
+            System.out.println();
+            System.out.println("Game history backed up to " + destination.toAbsolutePath());
+        } catch (UnsupportedOperationException e) {
+            logger.info("Backup not available: {}", e.getMessage());
+            System.out.println("Backups are only available when games are stored in a SQLite database.");
+        }
+
+        readLine(scanner, "Press Enter to return to Options menu\n");
+    }
+
     private OptionsMenuUI() {
         throw new UnsupportedOperationException("Utility class cannot be instantiated");
     }
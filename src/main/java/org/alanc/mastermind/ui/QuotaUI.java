@@ -3,30 +3,35 @@ package org.alanc.mastermind.ui;
 import org.alanc.mastermind.random.QuotaChecker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.util.OptionalLong;
 import java.util.Scanner;
 import static org.alanc.mastermind.util.Utils.*;
 
 public class QuotaUI {
     private static final Logger logger = LoggerFactory.getLogger(QuotaUI.class);
 
-    public static void show(Scanner scanner) {
+    public static void show(Scanner scanner, QuotaChecker quotaChecker) {
         logger.info("Checking random.org API quota");
 
-        System.out.println("Checking random.org API quota...");
-        QuotaChecker quotaChecker = new QuotaChecker();
-        int quota = quotaChecker.getQuota();
+        if (quotaChecker.getCachedQuota().isEmpty()) {
+            System.out.println("Checking random.org API quota...");
+            quotaChecker.getQuota();
+        } else {
+            logger.debug("Using cached random.org quota last refreshed at {}", quotaChecker.getLastRefreshed());
+        }
+        OptionalLong quota = quotaChecker.getCachedQuota();
 
-        if (quota > 0) {
-            System.out.printf("✓ Current Random.org quota: %,d bits remaining\n", quota);
-            logger.info("Random.org quota check successful: {} bits remaining", quota);
+        if (quota.isPresent() && quota.getAsLong() > 0) {
+            System.out.printf("✓ Current Random.org quota: %,d bits remaining\n", quota.getAsLong());
+            logger.info("Random.org quota check successful: {} bits remaining", quota.getAsLong());
 
-        } else if (quota == 0) {
+        } else if (quota.isPresent()) {
             System.out.println("⚠ Your Random.org quota is exhausted.");
             System.out.println("The application will fall back to pseudo-random number generation.");
             logger.warn("Random.org quota exhausted");
 
         } else {
-            // quota == -1 means error retrieving quota
+            // the quota has never been retrieved
             System.out.println("✗ Unable to check Random.org quota");
             System.out.println("Possible reasons:");
             System.out.println("  • No internet connection");
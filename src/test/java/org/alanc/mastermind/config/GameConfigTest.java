@@ -59,6 +59,15 @@ class GameConfigTest {
             assertEquals(4, modified.getCodeLength());  // Preserved
             assertEquals(7, modified.getMaxNumber());   // Preserved
         }
+
+        @Test
+        @DisplayName("Should leave durability to persistence unless a game asks for one")
+        void testDurability() {
+            assertNull(GameConfig.defaults().getDurability());
+
+            GameConfig ranked = new GameConfig.Builder().durability(DurabilityMode.PER_GUESS).build();
+            assertEquals(DurabilityMode.PER_GUESS, GameConfig.Builder.from(ranked).maxAttempts(5).build().getDurability());
+        }
     }
 
     @Nested
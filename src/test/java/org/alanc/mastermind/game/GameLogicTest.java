@@ -1,11 +1,18 @@
 package org.alanc.mastermind.game;
 
 import org.alanc.mastermind.config.GameConfig;
+import org.alanc.mastermind.config.HedgingConfig;
+import org.alanc.mastermind.random.RandomNumberService;
 import org.alanc.mastermind.random.TestRandomNumberService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @DisplayName("GameLogic Tests")
@@ -51,6 +58,134 @@ class GameLogicTest {
         }
     }
 
+    @Nested
+    @DisplayName("Batch Game Creation")
+    class BatchGameCreationTests {
+
+        @Test
+        @DisplayName("Should create one game per generated secret code")
+        void testCreateNewGames() {
+            List<GameState> games = gameLogic.createNewGames(defaultConfig, 3);
+
+            assertEquals(3, games.size());
+            games.forEach(game -> assertEquals("1 2 3 4", game.getSecretCode()));
+        }
+
+        @Test
+        @DisplayName("Should fallback to MathRandom when batch generation fails")
+        void testBatchFallbackToMathRandom() {
+            GameLogic logicWithFailingService = new GameLogic(new TestRandomNumberService("", true));
+
+            List<GameState> games = logicWithFailingService.createNewGames(defaultConfig, 2);
+
+            assertEquals(2, games.size());
+            games.forEach(game -> assertEquals(4, game.getSecretCode().split(" ").length));
+        }
+    }
+
+    @Nested
+    @DisplayName("Hedged Generation")
+    class HedgedGenerationTests {
+
+        private final HedgingConfig fastHedge =
+                new HedgingConfig(0.5, Duration.ofMillis(50), Duration.ofMillis(10), Duration.ofMillis(200));
+
+        @Test
+        @DisplayName("Should use the remote result when it answers before the deadline")
+        void testRemoteAnswersInTime() {
+            GameLogic hedgedLogic = new GameLogic(testRandomService, fastHedge);
+
+            GameState gameState = hedgedLogic.createNewGame(defaultConfig);
+
+            assertEquals("1 2 3 4", gameState.getSecretCode());
+        }
+
+        @Test
+        @DisplayName("Should fall back to local generator when the remote misses the deadline")
+        void testRemoteMissesDeadline() {
+            RandomNumberService slowService = (quantity, min, max) -> {
+                try {
+                    Thread.sleep(5_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "1 2 3 4";
+            };
+            GameLogic hedgedLogic = new GameLogic(slowService, fastHedge);
+
+            long start = System.nanoTime();
+            GameState gameState = hedgedLogic.createNewGame(defaultConfig);
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            assertEquals(4, gameState.getSecretCode().split(" ").length);
+            assertTrue(elapsed.compareTo(Duration.ofSeconds(2)) < 0, "Game start took " + elapsed);
+        }
+
+        @Test
+        @DisplayName("Should derive the deadline from observed response times")
+        void testDeadlineFromObservedLatency() {
+            GameLogic hedgedLogic = new GameLogic(testRandomService, fastHedge);
+            assertEquals(Duration.ofMillis(50), hedgedLogic.getHedgeDeadline());
+
+            for (int i = 0; i < 10; i++) {
+                hedgedLogic.createNewGame(defaultConfig);
+            }
+
+            assertEquals(Duration.ofMillis(10), hedgedLogic.getHedgeDeadline()); // fast answers clamp to the minimum
+        }
+
+        @Test
+        @DisplayName("Should raise the deadline again once the remote slows down")
+        void testDeadlineRisesWhenLatencyRises() {
+            AtomicLong delayMillis = new AtomicLong();
+            RandomNumberService service = (quantity, min, max) -> {
+                try {
+                    Thread.sleep(delayMillis.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "1 2 3 4";
+            };
+            GameLogic hedgedLogic = new GameLogic(service, fastHedge);
+            for (int i = 0; i < 10; i++) {
+                hedgedLogic.createNewGame(defaultConfig);
+            }
+            assertEquals(Duration.ofMillis(10), hedgedLogic.getHedgeDeadline());
+
+            delayMillis.set(150);
+            for (int i = 0; i < 20; i++) {
+                hedgedLogic.createNewGame(defaultConfig);
+            }
+
+            assertTrue(hedgedLogic.getHedgeDeadline().compareTo(Duration.ofMillis(10)) > 0,
+                    "Deadline stayed at " + hedgedLogic.getHedgeDeadline());
+        }
+
+        @Test
+        @DisplayName("Should not let failed answers pull the deadline down")
+        void testFailuresAreNotLatencySamples() {
+            RandomNumberService exhaustedService = new RandomNumberService() {
+                @Override
+                public String generate(int quantity, int min, int max) {
+                    return null;
+                }
+
+                @Override
+                public CompletableFuture<String> generateAsync(int quantity, int min, int max) {
+                    return CompletableFuture.completedFuture(null); // quota exhausted, answers at once
+                }
+            };
+            GameLogic hedgedLogic = new GameLogic(exhaustedService, fastHedge);
+
+            for (int i = 0; i < 10; i++) {
+                GameState gameState = hedgedLogic.createNewGame(defaultConfig);
+                assertEquals(4, gameState.getSecretCode().split(" ").length);
+            }
+
+            assertEquals(Duration.ofMillis(50), hedgedLogic.getHedgeDeadline());
+        }
+    }
+
     @Nested
     @DisplayName("Guess Processing")
     class GuessProcessingTests {
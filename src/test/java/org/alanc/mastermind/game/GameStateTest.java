@@ -5,6 +5,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
+
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @DisplayName("GameState Tests")
@@ -134,4 +137,55 @@ class GameStateTest {
             assertEquals("2 correct numbers and 2 correct locations.", partialResult.provideFeedback());
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Restoring Saved Games")
+    class RestoreTests {
+
+        @Test
+        @DisplayName("Should restore the same state as replaying the guesses")
+        void testRestoreMatchesReplay() {
+            GameState played = initialState
+                .withGuess(new int[]{1, 2, 3, 5})
+                .withGuess(new int[]{4, 3, 2, 1});
+
+            GameState restored = GameState.restore("1 2 3 4", defaultConfig, played.getGuessHistory());
+
+            assertEquals(played.getGuessHistory(), restored.getGuessHistory());
+            assertEquals(played.getAttemptsRemaining(), restored.getAttemptsRemaining());
+            assertFalse(restored.isGameEnded());
+            assertTrue(restored.isHistoryConsistent());
+        }
+
+        @Test
+        @DisplayName("Should restore a won game as ended")
+        void testRestoreWonGame() {
+            GameState played = initialState.withGuess(new int[]{1, 2, 3, 4});
+
+            GameState restored = GameState.restore("1 2 3 4", defaultConfig, played.getGuessHistory());
+
+            assertTrue(restored.isGameEnded());
+            assertTrue(restored.hasPlayerWon());
+        }
+
+        @Test
+        @DisplayName("Should reject guesses after a winning guess")
+        void testRejectHistoryAfterWin() {
+            var win = new GameState.GuessResult("1 2 3 4", 4, 4, true);
+            var miss = new GameState.GuessResult("1 2 3 5", 3, 3, false);
+
+            assertThrows(IllegalArgumentException.class,
+                () -> GameState.restore("1 2 3 4", defaultConfig, List.of(win, miss)));
+        }
+
+        @Test
+        @DisplayName("Should detect feedback that does not match the secret code")
+        void testDetectInconsistentFeedback() {
+            var tampered = new GameState.GuessResult("1 2 3 5", 4, 4, false);
+
+            GameState restored = GameState.restore("1 2 3 4", defaultConfig, List.of(tampered));
+
+            assertFalse(restored.isHistoryConsistent());
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package org.alanc.mastermind.manager;
 
 import org.alanc.mastermind.config.GameConfig;
+import org.alanc.mastermind.config.PersistenceConfig;
+import org.alanc.mastermind.config.StorageBackend;
+import org.alanc.mastermind.random.QuotaChecker;
 import org.alanc.mastermind.random.TestRandomNumberService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,7 +20,8 @@ class GameManagerTest {
     @BeforeEach
     void setUp() {
         testRandomService = new TestRandomNumberService("1 2 3 4");
-        gameManager = new GameManager(testRandomService);
+        gameManager = new GameManager(testRandomService, new QuotaChecker(), null,
+            new PersistenceConfig.Builder().backend(StorageBackend.IN_MEMORY).build());
     }
 
     @Nested
@@ -0,0 +1,192 @@
+package org.alanc.mastermind.persistence;
+
+import org.alanc.mastermind.config.DurabilityMode;
+import org.alanc.mastermind.config.PersistenceConfig;
+import org.alanc.mastermind.config.StorageBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.alanc.mastermind.persistence.GameRecords.createRecord;
+import static org.alanc.mastermind.persistence.GameRecords.finish;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for EventLogGameStore.
+ */
+class EventLogGameStoreTest {
+    private static final int SEGMENT_BYTES = PersistenceConfig.MIN_EVENT_LOG_SEGMENT_BYTES;
+
+    @TempDir
+    Path directory;
+
+    private EventLogGameStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new EventLogGameStore(directory, SEGMENT_BYTES);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void testOpenSelectsBackendFromConfig() {
+        PersistenceConfig config = new PersistenceConfig.Builder()
+            .backend(StorageBackend.EVENT_LOG)
+            .eventLogDirectory(directory.resolve("opened").toString())
+            .build();
+        try (GameStore opened = GameStore.open(config)) {
+            assertInstanceOf(EventLogGameStore.class, opened);
+        }
+    }
+
+    @Test
+    void testRecoversInProgressGameWithAppendedGuesses() {
+        LocalDateTime startedAt = LocalDateTime.of(2024, 3, 1, 9, 30, 15, 123_456_789);
+        GameRecord saved = store.saveGame(createRecord(startedAt));
+        store.appendGuess(saved.getId(), 0, new GameConverter.GuessResult("1 2 3 5", 3, 3, false));
+        store.appendGuess(saved.getId(), 1, new GameConverter.GuessResult("5 6 7 1", 1, 0, false));
+
+        reopen();
+
+        GameRecord resumed = store.getLastIncompleteGame().orElseThrow();
+        assertEquals(saved.getId(), resumed.getId());
+        assertEquals(startedAt, resumed.getStartedAt());
+        assertEquals("1 2 3 4", resumed.getSecretCode());
+        assertEquals(List.of(
+            new GameConverter.GuessResult("1 2 3 5", 3, 3, false),
+            new GameConverter.GuessResult("5 6 7 1", 1, 0, false)), store.getAppendedGuesses(saved.getId()));
+    }
+
+    @Test
+    void testRecoversFinishedGamesStatisticsAndIds() {
+        GameRecord first = store.saveGame(createRecord(LocalDateTime.now().minusMinutes(1)));
+        store.appendGuess(first.getId(), 0, new GameConverter.GuessResult("1 2 3 4", 4, 4, true));
+        store.updateGame(finish(first, "WON"));
+        GameRecord second = store.saveGame(createRecord(LocalDateTime.now()));
+        long updatedPosition = store.latestStatePosition(first.getId()).orElseThrow();
+
+        reopen();
+
+        assertEquals(2, store.countGames());
+        assertEquals(updatedPosition, store.latestStatePosition(first.getId()).orElseThrow());
+        assertTrue(store.getAppendedGuesses(first.getId()).isEmpty());
+        GameStats stats = store.getStatistics().get(0);
+        assertEquals(1, stats.wins());
+        assertEquals(Map.of(1, 1L), stats.guessesToWin());
+        assertTrue(store.saveGame(createRecord(LocalDateTime.now())).getId() > second.getId());
+    }
+
+    @Test
+    void testDamagedTailIsDiscardedAndLogStaysWritable() throws IOException {
+        GameRecord saved = store.saveGame(createRecord(LocalDateTime.now()));
+        store.appendGuess(saved.getId(), 0, new GameConverter.GuessResult("1 2 3 5", 3, 3, false));
+        store.appendGuess(saved.getId(), 1, new GameConverter.GuessResult("5 6 7 1", 1, 0, false));
+        store.close();
+
+        // Flip the last written byte, as a torn write of the final record would leave it
+        try (RandomAccessFile file = new RandomAccessFile(onlySegment().toFile(), "rw")) {
+            long last = file.length() - 1;
+            file.seek(last);
+            while (file.read() == 0) {
+                file.seek(--last);
+            }
+            file.seek(last);
+            int value = file.read();
+            file.seek(last);
+            file.write(value ^ 0xFF);
+        }
+
+        store = new EventLogGameStore(directory, SEGMENT_BYTES);
+        assertEquals(1, store.getAppendedGuesses(saved.getId()).size());
+
+        store.appendGuess(saved.getId(), 1, new GameConverter.GuessResult("6 6 6 6", 0, 0, false));
+        reopen();
+        assertEquals("6 6 6 6", store.getAppendedGuesses(saved.getId()).get(1).guess());
+    }
+
+    @Test
+    void testRollsOverToNewSegmentsAndRecoversAllOfThem() throws IOException {
+        store.configureDurability(DurabilityMode.PERIODIC_CHECKPOINT);
+        for (int i = 0; i < 200; i++) {
+            store.saveGame(createRecord(LocalDateTime.now().plusSeconds(i)));
+        }
+        store.checkpoint();
+
+        reopen();
+
+        assertEquals(200, store.countGames());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.count() > 1);
+        }
+    }
+
+    @Test
+    void testDeletedGamesStayDeletedAndCountedAfterRestart() {
+        GameRecord saved = store.saveGame(createRecord(LocalDateTime.now().minusDays(2)));
+        store.updateGame(finish(saved, "LOST"));
+        GameRecord kept = store.saveGame(createRecord(LocalDateTime.now()));
+
+        store.deleteGames(List.of(saved.getId()));
+        reopen();
+
+        assertEquals(1, store.countGames());
+        assertEquals(kept.getId(), store.getLastGame().orElseThrow().getId());
+        assertEquals(1, store.getStatistics().get(0).losses());
+    }
+
+    @Test
+    void testDeleteAllGamesSurvivesRestart() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            store.saveGame(createRecord(LocalDateTime.now().plusSeconds(i)));
+        }
+        store.deleteAllGames();
+        store.checkpoint();
+
+        reopen();
+
+        assertEquals(0, store.countGames());
+        assertTrue(store.getLastGame().isEmpty());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.count() <= 2);
+        }
+        assertEquals(101, store.saveGame(createRecord(LocalDateTime.now())).getId());
+    }
+
+    @Test
+    void testIdsOfRemovedGamesAreNotReusedAfterRestart() {
+        GameRecord first = store.saveGame(createRecord(LocalDateTime.now().minusDays(2)));
+        GameRecord second = store.saveGame(createRecord(LocalDateTime.now().minusDays(1)));
+        store.deleteGames(List.of(first.getId(), second.getId()));
+
+        reopen();
+
+        assertEquals(second.getId() + 1, store.saveGame(createRecord(LocalDateTime.now())).getId());
+    }
+
+    private void reopen() {
+        store.close();
+        store = new EventLogGameStore(directory, SEGMENT_BYTES);
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = files.toList();
+            assertEquals(1, segments.size());
+            return segments.get(0);
+        }
+    }
+}
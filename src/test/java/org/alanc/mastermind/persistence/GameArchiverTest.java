@@ -0,0 +1,151 @@
+package org.alanc.mastermind.persistence;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.alanc.mastermind.config.PersistenceConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.alanc.mastermind.persistence.GameRecords.createRecord;
+import static org.alanc.mastermind.persistence.GameRecords.finish;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for GameArchiver.
+ */
+class GameArchiverTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+    private static final Clock CLOCK = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+    @TempDir
+    Path directory;
+
+    private InMemoryGameStore store;
+    private GameArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryGameStore();
+        archiver = new GameArchiver(store, directory, Duration.ofDays(30), 2, CLOCK);
+    }
+
+    @Test
+    void testArchivesOnlyExpiredFinishedGamesInBatches() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            store.updateGame(finish(store.saveGame(createRecord(NOW.minusDays(40 + i))), "LOST"));
+        }
+        GameRecord oldInProgress = store.saveGame(createRecord(NOW.minusDays(60)));
+        GameRecord recent = store.saveGame(createRecord(NOW.minusDays(1)));
+        store.updateGame(finish(recent, "WON"));
+
+        assertEquals(5, archiver.archiveExpiredGames());
+
+        assertEquals(2, store.countGames());
+        assertEquals(List.of(recent.getId(), oldInProgress.getId()),
+            store.getGamesPage(null, 10).games().stream().map(GameRecord::getId).toList());
+        assertEquals(3, archiveFiles().size());
+        assertEquals(5, readArchivedGames().size());
+        assertEquals(5, store.getStatistics().get(0).losses());
+    }
+
+    @Test
+    void testArchivedGamesKeepTheirHistory() throws IOException {
+        GameRecord saved = store.saveGame(createRecord(NOW.minusDays(45)));
+        store.updateGame(finish(saved, "WON"));
+
+        archiver.archiveExpiredGames();
+
+        JsonNode archived = readArchivedGames().get(0);
+        assertEquals(saved.getId(), archived.get("id").asLong());
+        assertEquals("WON", archived.get("status").asText());
+        assertEquals(saved.getStartedAt().toString(), archived.get("startedAt").asText());
+        assertEquals("1 2 3 4", archived.get("guesses").get(0).get("guess").asText());
+        assertTrue(archived.get("guesses").get(0).get("allCorrect").asBoolean());
+    }
+
+    @Test
+    void testNothingToArchive() throws IOException {
+        store.updateGame(finish(store.saveGame(createRecord(NOW.minusDays(1))), "LOST"));
+
+        assertEquals(0, archiver.archiveExpiredGames());
+        assertTrue(archiveFiles().isEmpty());
+    }
+
+    @Test
+    void testArchivingAfterRestartKeepsEarlierArchives(@TempDir Path logDirectory) throws IOException {
+        int segmentBytes = PersistenceConfig.MIN_EVENT_LOG_SEGMENT_BYTES;
+        try (EventLogGameStore log = new EventLogGameStore(logDirectory, segmentBytes)) {
+            archiveTwoExpiredGames(log);
+        }
+        try (EventLogGameStore log = new EventLogGameStore(logDirectory, segmentBytes)) {
+            archiveTwoExpiredGames(log);
+        }
+
+        assertEquals(2, archiveFiles().size());
+        assertEquals(4, readArchivedGames().stream().map(game -> game.get("id").asLong()).distinct().count());
+    }
+
+    @Test
+    void testArchiveFileIsNeverReplaced() throws IOException {
+        Files.createDirectories(directory);
+        Path existing = directory.resolve("games-1-2.ndjson.gz");
+        Files.write(existing, new byte[]{1, 2, 3});
+        store.updateGame(finish(store.saveGame(createRecord(NOW.minusDays(40))), "LOST"));
+        store.updateGame(finish(store.saveGame(createRecord(NOW.minusDays(41))), "WON"));
+
+        assertEquals(2, archiver.archiveExpiredGames());
+
+        assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(existing));
+        assertTrue(Files.exists(directory.resolve("games-1-2.1.ndjson.gz")));
+    }
+
+    private void archiveTwoExpiredGames(GameStore gameStore) {
+        for (int i = 0; i < 2; i++) {
+            GameRecord saved = gameStore.saveGame(createRecord(NOW.minusDays(40 + i)));
+            gameStore.updateGame(finish(saved, "LOST"));
+        }
+        assertEquals(2, new GameArchiver(gameStore, directory, Duration.ofDays(30), 2, CLOCK).archiveExpiredGames());
+    }
+
+    private List<Path> archiveFiles() throws IOException {
+        if (!Files.exists(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+
+    private List<JsonNode> readArchivedGames() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<JsonNode> games = new ArrayList<>();
+        for (Path file : archiveFiles()) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        games.add(mapper.readTree(line));
+                    }
+                }
+            }
+        }
+        return games;
+    }
+}
@@ -4,6 +4,8 @@ import org.alanc.mastermind.config.GameConfig;
 import org.alanc.mastermind.game.GameState;
 import org.junit.jupiter.api.Test;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -59,4 +61,162 @@ class GameConverterTest {
         assertEquals("WON", record.getStatus());
         assertNotNull(record.getCompletedAt());
     }
+
+    @Test
+    void testWithAppendedGuesses() {
+        GameConfig config = GameConfig.defaults();
+        GameState gameState = GameState.createNew("1 2 3 4", config);
+        GameRecord record = GameConverter.toRecord(gameState, 1L, LocalDateTime.now());
+
+        gameState = gameState.withGuess(new int[]{1, 2, 3, 5});
+        GameRecord merged = GameConverter.withAppendedGuesses(record,
+            List.of(GameConverter.toGuessResult(gameState.getGuessHistory().get(0))));
+
+        GameConverter.GameStateResult result = GameConverter.fromRecord(merged);
+        assertEquals(1, result.gameState().getGuessHistory().size());
+        assertEquals(gameState.getAttemptsRemaining(), result.gameState().getAttemptsRemaining());
+    }
+
+    @Test
+    void testEncodeDecodeGuessesRoundTrip() {
+        List<GameConverter.GuessResult> guesses = List.of(
+            new GameConverter.GuessResult("0 1 2 7", 1, 0, false),
+            new GameConverter.GuessResult("7 7 0 3", 3, 2, false),
+            new GameConverter.GuessResult("1 2 3 4", 4, 4, true)
+        );
+
+        assertEquals(guesses, GameConverter.decodeGuesses(GameConverter.encodeGuesses(guesses)));
+    }
+
+    @Test
+    void testEncodeDecodeLongCodesWithLargePegs() {
+        // Codes of 16+ pegs store feedback as varints rather than nibbles
+        String guess = "1000 0 1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 300";
+        List<GameConverter.GuessResult> guesses = List.of(
+            new GameConverter.GuessResult(guess, 18, 17, false),
+            new GameConverter.GuessResult(guess, 18, 18, true)
+        );
+
+        assertEquals(guesses, GameConverter.decodeGuesses(GameConverter.encodeGuesses(guesses)));
+    }
+
+    @Test
+    void testEncodeEmptyHistory() {
+        assertTrue(GameConverter.decodeGuesses(GameConverter.encodeGuesses(List.of())).isEmpty());
+    }
+
+    @Test
+    void testEncodedHistoryIsMuchSmallerThanJson() {
+        GameState gameState = GameState.createNew("1 2 3 4", GameConfig.defaults());
+        for (int i = 0; i < 9; i++) {
+            gameState = gameState.withGuess(new int[]{i % 8, 1, 2, 3});
+        }
+        List<GameConverter.GuessResult> guesses = GameConverter.toRecord(gameState, 1L, LocalDateTime.now()).getGuesses();
+
+        int encodedSize = GameConverter.encodeGuesses(guesses).length;
+        int jsonSize = GameConverter.serializeGuesses(guesses).length();
+
+        assertTrue(encodedSize * 10 <= jsonSize, "encoded " + encodedSize + " bytes vs JSON " + jsonSize);
+    }
+
+    @Test
+    void testDecodeRejectsTruncatedData() {
+        byte[] encoded = GameConverter.encodeGuesses(List.of(new GameConverter.GuessResult("1 2 3 4", 4, 4, true)));
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length - 1);
+
+        assertThrows(IllegalArgumentException.class, () -> GameConverter.decodeGuesses(truncated));
+    }
+
+    @Test
+    void testEncodeRejectsMalformedGuess() {
+        assertThrows(IllegalArgumentException.class,
+            () -> GameConverter.encodeGuesses(List.of(new GameConverter.GuessResult("1 x 3 4", 0, 0, false))));
+    }
+
+    @Test
+    void testVerifyGuessesDetectsTamperedFeedback() {
+        GameState gameState = GameState.createNew("1 2 3 4", GameConfig.defaults())
+            .withGuess(new int[]{1, 2, 3, 5});
+        GameRecord record = GameConverter.toRecord(gameState, 1L, LocalDateTime.now());
+        GameRecord tampered = new GameRecord(1L, "1 2 3 4", record.getMaxAttempts(), 4, record.getMaxNumber(),
+            "IN_PROGRESS", record.getStartedAt(), null,
+            List.of(new GameConverter.GuessResult("1 2 3 5", 2, 1, false)));
+
+        assertTrue(GameConverter.verifyGuesses(record));
+        assertFalse(GameConverter.verifyGuesses(tampered));
+    }
+
+    @Test
+    void testGuessJsonRoundTrip() {
+        List<GameConverter.GuessResult> guesses = List.of(
+            new GameConverter.GuessResult("0 1 2 7", 1, 0, false),
+            new GameConverter.GuessResult("1 2 3 4", 4, 4, true)
+        );
+
+        String json = GameConverter.serializeGuesses(guesses);
+
+        assertEquals("[{\"guess\":\"0 1 2 7\",\"correctNumbers\":1,\"correctLocations\":0,\"allCorrect\":false},"
+            + "{\"guess\":\"1 2 3 4\",\"correctNumbers\":4,\"correctLocations\":4,\"allCorrect\":true}]", json);
+        assertEquals(guesses, GameConverter.deserializeGuesses(json));
+        assertEquals("[]", GameConverter.serializeGuesses(List.of()));
+    }
+
+    @Test
+    void testDeserializeGuessesToleratesUnknownFieldsAndRejectsMalformedJson() {
+        assertEquals(List.of(new GameConverter.GuessResult("1 2 3 4", 4, 4, true)),
+            GameConverter.deserializeGuesses(
+                "[{\"allCorrect\":true,\"note\":{\"x\":1},\"guess\":\"1 2 3 4\",\"correctNumbers\":4,\"correctLocations\":4}]"));
+        assertTrue(GameConverter.deserializeGuesses("").isEmpty());
+        assertTrue(GameConverter.deserializeGuesses("[{\"correctNumbers\":4}]").isEmpty());
+        assertTrue(GameConverter.deserializeGuesses("[{\"guess\":").isEmpty());
+    }
+
+    @Test
+    void testDecodeLastGuessMatchesFullDecode() {
+        String longGuess = "1000 0 1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 300";
+        List<List<GameConverter.GuessResult>> histories = List.of(
+            List.of(
+                new GameConverter.GuessResult("0 1 2 7", 1, 0, false),
+                new GameConverter.GuessResult("7 7 0 3", 3, 2, false),
+                new GameConverter.GuessResult("1 2 3 4", 4, 4, true)),
+            List.of(
+                new GameConverter.GuessResult(longGuess, 18, 17, false),
+                new GameConverter.GuessResult("1 0 1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 3", 2, 1, false))
+        );
+
+        for (List<GameConverter.GuessResult> guesses : histories) {
+            byte[] encoded = GameConverter.encodeGuesses(guesses);
+            assertEquals(guesses.get(guesses.size() - 1), GameConverter.decodeLastGuess(encoded));
+        }
+        assertNull(GameConverter.decodeLastGuess(GameConverter.encodeGuesses(List.of())));
+    }
+
+    @Test
+    void testRecordWithEncodedGuessesDecodesOnlyWhenAsked() {
+        GameConverter.GuessResult last = new GameConverter.GuessResult("1 2 3 4", 4, 4, true);
+        byte[] encoded = GameConverter.encodeGuesses(List.of(new GameConverter.GuessResult("1 2 3 5", 3, 3, false), last));
+        GameRecord record = new GameRecord(1L, "1 2 3 4", 10, 4, 7, "WON", LocalDateTime.now(), LocalDateTime.now(),
+            encoded, 2, last);
+        // A damaged history only fails once it is actually decoded
+        GameRecord damaged = new GameRecord(1L, "1 2 3 4", 10, 4, 7, "WON", LocalDateTime.now(), LocalDateTime.now(),
+            Arrays.copyOf(encoded, encoded.length - 1), 2, last);
+
+        assertEquals(2, damaged.getGuessCount());
+        assertEquals(last, damaged.getLastGuess());
+        assertThrows(IllegalArgumentException.class, damaged::getGuesses);
+        assertEquals(List.of(new GameConverter.GuessResult("1 2 3 5", 3, 3, false), last), record.getGuesses());
+        assertSame(record.getGuesses(), record.getGuesses());
+        assertSame(encoded, record.withId(2L).getEncodedGuesses());
+    }
+
+    @Test
+    void testGuessesJsonOfRecordWithEncodedGuesses() {
+        List<GameConverter.GuessResult> guesses = List.of(
+            new GameConverter.GuessResult("1 2 3 5", 3, 3, false),
+            new GameConverter.GuessResult("1 2 3 4", 4, 4, true));
+        GameRecord record = new GameRecord(1L, "1 2 3 4", 10, 4, 7, "WON", LocalDateTime.now(), LocalDateTime.now(),
+            GameConverter.encodeGuesses(guesses), 2, guesses.get(1));
+
+        assertEquals(guesses, GameConverter.deserializeGuesses(record.getGuessesJson()));
+    }
 }
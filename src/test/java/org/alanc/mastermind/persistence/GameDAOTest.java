@@ -1,13 +1,23 @@
 package org.alanc.mastermind.persistence;
 
+import org.alanc.mastermind.config.PersistenceConfig;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import java.io.File;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import static org.alanc.mastermind.persistence.GameRecords.finish;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -15,6 +25,7 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 class GameDAOTest {
     private static final String TEST_DB = "test_games.db";
+    private static final String BACKUP_DB = "test_games_backup.db";
     private GameDAO gameDAO;
 
     @BeforeEach
@@ -41,6 +52,33 @@ class GameDAOTest {
         assertEquals(record.getStatus(), saved.getStatus());
     }
 
+    @Test
+    void testGuessSummaryIsStoredAndUpdated() {
+        GameRecord saved = gameDAO.saveGame(createTestGameRecord());
+        GameRecord loaded = gameDAO.getLastGame().orElseThrow();
+        assertEquals(0, loaded.getGuessCount());
+        assertNull(loaded.getLastGuess());
+
+        List<GameConverter.GuessResult> guesses = List.of(
+            new GameConverter.GuessResult("1 2 3 5", 3, 3, false),
+            new GameConverter.GuessResult("1 2 4 3", 4, 2, false));
+        gameDAO.updateGame(new GameRecord(saved.getId(), saved.getSecretCode(), saved.getMaxAttempts(),
+            saved.getCodeLength(), saved.getMaxNumber(), "IN_PROGRESS", saved.getStartedAt(), null, guesses));
+
+        loaded = gameDAO.getLastGame().orElseThrow();
+        assertEquals(2, loaded.getGuessCount());
+        assertEquals(guesses.get(1), loaded.getLastGuess());
+        assertEquals(guesses, loaded.getGuesses());
+    }
+
+    @Test
+    void testSavedGamesGetDistinctIncreasingIds() {
+        GameRecord first = gameDAO.saveGame(createTestGameRecord());
+        GameRecord second = gameDAO.saveGame(createTestGameRecord());
+
+        assertTrue(second.getId() > first.getId());
+    }
+
     @Test
     void testGetLastGame() {
         GameRecord record = createTestGameRecord();
@@ -62,18 +100,369 @@ class GameDAOTest {
         assertTrue(gameDAO.isLastGameIncomplete());
     }
 
+    @Test
+    void testGetLastIncompleteGame() {
+        assertTrue(gameDAO.getLastIncompleteGame().isEmpty());
+
+        GameRecord saved = gameDAO.saveGame(createTestGameRecord());
+        assertEquals(saved.getId(), gameDAO.getLastIncompleteGame().orElseThrow().getId());
+
+        gameDAO.updateGame(finish(saved, "WON"));
+        assertTrue(gameDAO.getLastIncompleteGame().isEmpty());
+    }
+
+    @Test
+    void testLastGameBreaksStartTimeTiesById() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        gameDAO.saveGame(new GameRecord(null, "1 2 3 4", 10, 4, 9, "LOST", startedAt, startedAt, List.of()));
+        GameRecord second = gameDAO.saveGame(new GameRecord(null, "4 3 2 1", 10, 4, 9, "IN_PROGRESS", startedAt, null, List.of()));
+
+        assertEquals(second.getId(), gameDAO.getLastGame().orElseThrow().getId());
+        assertTrue(gameDAO.isLastGameIncomplete());
+    }
+
+    @Test
+    void testTimestampsRoundTripToTheMillisecond() {
+        LocalDateTime startedAt = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_000_000);
+        LocalDateTime completedAt = startedAt.plusMinutes(5);
+        gameDAO.saveGame(new GameRecord(null, "1 2 3 4", 10, 4, 9, "WON", startedAt, completedAt, List.of()));
+
+        GameRecord loaded = gameDAO.getLastGame().orElseThrow();
+        assertEquals(startedAt, loaded.getStartedAt());
+        assertEquals(completedAt, loaded.getCompletedAt());
+    }
+
     @Test
     void testDeleteAllGames() {
         gameDAO.saveGame(createTestGameRecord());
         gameDAO.saveGame(createTestGameRecord());
         
-        List<GameRecord> before = gameDAO.getAllGames();
-        assertEquals(2, before.size());
+        assertEquals(2, gameDAO.countGames());
         
         gameDAO.deleteAllGames();
         
-        List<GameRecord> after = gameDAO.getAllGames();
-        assertTrue(after.isEmpty());
+        assertEquals(0, gameDAO.countGames());
+        assertTrue(gameDAO.getGamesPage(null, 10).games().isEmpty());
+    }
+
+    @Test
+    void testAppendAndGetGuesses() {
+        GameRecord saved = gameDAO.saveGame(createTestGameRecord());
+
+        gameDAO.appendGuess(saved.getId(), 0, new GameConverter.GuessResult("1 2 3 5", 3, 3, false));
+        gameDAO.appendGuess(saved.getId(), 1, new GameConverter.GuessResult("1 2 3 4", 4, 4, true));
+
+        List<GameConverter.GuessResult> guesses = gameDAO.getAppendedGuesses(saved.getId());
+        assertEquals(2, guesses.size());
+        assertEquals("1 2 3 5", guesses.get(0).guess());
+        assertTrue(guesses.get(1).allCorrect());
+    }
+
+    @Test
+    void testUpdateGameClearsAppendedGuesses() {
+        GameRecord saved = gameDAO.saveGame(createTestGameRecord());
+        gameDAO.appendGuess(saved.getId(), 0, new GameConverter.GuessResult("1 2 3 4", 4, 4, true));
+
+        gameDAO.updateGame(new GameRecord(saved.getId(), "1 2 3 4", 10, 4, 9, "WON",
+            saved.getStartedAt(), LocalDateTime.now(),
+            List.of(new GameConverter.GuessResult("1 2 3 4", 4, 4, true))));
+
+        assertTrue(gameDAO.getAppendedGuesses(saved.getId()).isEmpty());
+        assertEquals("WON", gameDAO.getLastGame().orElseThrow().getStatus());
+    }
+
+    @Test
+    void testReadsProceedWhileWriteTransactionIsOpen() throws Exception {
+        gameDAO.saveGame(createTestGameRecord());
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> gameDAO.runInTransaction(() -> {
+            gameDAO.saveGame(createTestGameRecord());
+            writing.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        try {
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+            // Readers see the last committed snapshot without waiting for the writer
+            long games = CompletableFuture.supplyAsync(gameDAO::countGames)
+                .get(2, TimeUnit.SECONDS);
+            assertEquals(1, games);
+        } finally {
+            release.countDown();
+            writer.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(2, gameDAO.countGames());
+    }
+
+    @Test
+    void testGamesPagesWalkHistoryNewestFirst() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int i = 0; i < 5; i++) {
+            gameDAO.saveGame(new GameRecord(null, "1 2 3 " + i, 10, 4, 9, "WON",
+                base.plusMinutes(i), base.plusMinutes(i), List.of()));
+        }
+        // Same start time as the newest game: ordered by id
+        gameDAO.saveGame(new GameRecord(null, "1 2 3 5", 10, 4, 9, "IN_PROGRESS",
+            base.plusMinutes(4), null, List.of()));
+
+        GamePage first = gameDAO.getGamesPage(null, 4);
+        assertEquals(List.of("1 2 3 5", "1 2 3 4", "1 2 3 3", "1 2 3 2"),
+            first.games().stream().map(GameRecord::getSecretCode).toList());
+        assertTrue(first.hasMore());
+
+        GamePage second = gameDAO.getGamesPage(first.nextCursor(), 4);
+        assertEquals(List.of("1 2 3 1", "1 2 3 0"),
+            second.games().stream().map(GameRecord::getSecretCode).toList());
+        assertFalse(second.hasMore());
+    }
+
+    @Test
+    void testFullPageAtEndOfHistoryHasNoNextCursor() {
+        gameDAO.saveGame(createTestGameRecord());
+        gameDAO.saveGame(createTestGameRecord());
+
+        GamePage page = gameDAO.getGamesPage(null, 2);
+
+        assertEquals(2, page.games().size());
+        assertFalse(page.hasMore());
+    }
+
+    @Test
+    void testStatisticsCountFinishedGamesOnce() {
+        GameRecord won = gameDAO.saveGame(createTestGameRecord());
+        GameRecord lost = gameDAO.saveGame(createTestGameRecord());
+        GameRecord abandoned = gameDAO.saveGame(createTestGameRecord());
+        gameDAO.saveGame(createTestGameRecord()); // still in progress
+
+        List<GameConverter.GuessResult> winningGuesses = List.of(
+            new GameConverter.GuessResult("1 2 3 5", 3, 3, false),
+            new GameConverter.GuessResult("1 2 3 4", 4, 4, true));
+        GameRecord wonRecord = finish(won, "WON", winningGuesses);
+        gameDAO.updateGame(wonRecord);
+        gameDAO.updateGame(wonRecord); // re-saving a finished game must not count it twice
+        gameDAO.updateGame(finish(lost, "LOST"));
+        gameDAO.updateGame(finish(abandoned, "ABANDONED"));
+
+        List<GameStats> stats = gameDAO.getStatistics();
+        assertEquals(1, stats.size());
+        GameStats config = stats.get(0);
+        assertEquals(4, config.codeLength());
+        assertEquals(9, config.maxNumber());
+        assertEquals(10, config.maxAttempts());
+        assertEquals(1, config.wins());
+        assertEquals(1, config.losses());
+        assertEquals(1, config.abandons());
+        assertEquals(Map.of(2, 1L), config.guessesToWin());
+        assertEquals(2.0, config.averageGuessesToWin());
+    }
+
+    @Test
+    void testDeleteAllGamesClearsStatistics() {
+        GameRecord saved = gameDAO.saveGame(createTestGameRecord());
+        gameDAO.updateGame(finish(saved, "LOST"));
+
+        gameDAO.deleteAllGames();
+
+        assertTrue(gameDAO.getStatistics().isEmpty());
+    }
+
+    @Test
+    void testFinishedGamesBeforeCutoffAreOldestFirstAndDeletable() {
+        LocalDateTime now = LocalDateTime.now();
+        GameRecord oldest = gameDAO.saveGame(startedAt(now.minusDays(3)));
+        gameDAO.updateGame(finish(oldest, "LOST"));
+        GameRecord older = gameDAO.saveGame(startedAt(now.minusDays(2)));
+        gameDAO.updateGame(finish(older, "WON"));
+        gameDAO.saveGame(startedAt(now.minusDays(2)));
+        GameRecord recent = gameDAO.saveGame(createTestGameRecord());
+        gameDAO.updateGame(finish(recent, "LOST"));
+
+        List<GameRecord> expired = gameDAO.getFinishedGamesBefore(now.minusDays(1), 10);
+        assertEquals(List.of(oldest.getId(), older.getId()), expired.stream().map(GameRecord::getId).toList());
+        assertEquals(1, gameDAO.getFinishedGamesBefore(now.minusDays(1), 1).size());
+
+        gameDAO.deleteGames(List.of(oldest.getId(), older.getId()));
+
+        assertEquals(2, gameDAO.countGames());
+        assertTrue(gameDAO.getFinishedGamesBefore(now.minusDays(1), 10).isEmpty());
+        GameStats stats = gameDAO.getStatistics().get(0);
+        assertEquals(1, stats.wins());
+        assertEquals(2, stats.losses());
+    }
+
+    @Test
+    void testBackupCopiesCommittedGamesWhileWriteIsOpen() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            gameDAO.saveGame(createTestGameRecord());
+        }
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> gameDAO.runInTransaction(() -> {
+            gameDAO.saveGame(createTestGameRecord());
+            writing.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        List<BackupProgress> steps = new ArrayList<>();
+        try {
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+            CompletableFuture.runAsync(() -> gameDAO.backup(Path.of(BACKUP_DB), steps::add))
+                .get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            writer.get(5, TimeUnit.SECONDS);
+        }
+
+        assertFalse(steps.isEmpty());
+        assertTrue(steps.get(steps.size() - 1).isComplete());
+        try (GameDAO copy = new GameDAO(BACKUP_DB)) {
+            assertEquals(200, copy.countGames());
+        }
+    }
+
+    @Test
+    void testBackupCopiesInStepsOfConfiguredPages() {
+        gameDAO.close();
+        deleteTestDb();
+        gameDAO = new GameDAO(TEST_DB, new PersistenceConfig.Builder()
+            .backupPagesPerStep(1)
+            .backupStepPause(Duration.ZERO)
+            .build());
+        for (int i = 0; i < 50; i++) {
+            gameDAO.saveGame(createTestGameRecord());
+        }
+
+        List<BackupProgress> steps = new ArrayList<>();
+        gameDAO.backup(Path.of(BACKUP_DB), steps::add);
+
+        int totalPages = steps.get(0).totalPages();
+        assertTrue(totalPages > 1);
+        assertEquals(totalPages, steps.size());
+        assertEquals(1, steps.get(0).pagesCopied());
+    }
+
+    @Test
+    void testSaveGamesInsertsInBulkAndCountsFinishedGames() {
+        List<GameRecord> records = new ArrayList<>();
+        LocalDateTime startedAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 250; i++) {
+            String status = i % 2 == 0 ? "LOST" : "IN_PROGRESS";
+            records.add(new GameRecord(null, "1 2 3 4", 10, 4, 9, status, startedAt.plusMinutes(i),
+                i % 2 == 0 ? startedAt.plusMinutes(i + 1) : null, List.of()));
+        }
+
+        gameDAO.saveGames(records);
+
+        assertEquals(250, gameDAO.countGames());
+        assertEquals(125, gameDAO.getStatistics().get(0).losses());
+        GameRecord newest = gameDAO.getLastGame().orElseThrow();
+        assertEquals(startedAt.plusMinutes(249), newest.getStartedAt());
+        assertEquals("IN_PROGRESS", newest.getStatus());
+    }
+
+    @Test
+    void testWritesRetryWhileAnotherConnectionHoldsTheLock() throws Exception {
+        PersistenceConfig impatient = new PersistenceConfig.Builder()
+            .busyTimeout(Duration.ZERO)
+            .busyRetries(10)
+            .busyRetryBackoff(Duration.ofMillis(10))
+            .build();
+        CountDownLatch locked = new CountDownLatch(1);
+
+        try (GameDAO other = new GameDAO(TEST_DB, impatient)) {
+            CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> gameDAO.runInTransaction(() -> {
+                gameDAO.saveGame(createTestGameRecord());
+                locked.countDown();
+                sleep(300);
+            }));
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+            GameRecord saved = other.saveGame(createTestGameRecord());
+            other.updateGame(new GameRecord(saved.getId(), saved.getSecretCode(), saved.getMaxAttempts(),
+                saved.getCodeLength(), saved.getMaxNumber(), "ABANDONED", saved.getStartedAt(),
+                LocalDateTime.now(), List.of()));
+
+            holder.get(5, TimeUnit.SECONDS);
+            assertEquals(2, gameDAO.countGames());
+            assertEquals(1, gameDAO.getStatistics().get(0).abandons());
+        }
+    }
+
+    @Test
+    void testBusyErrorIsReportedOnceRetriesRunOut() throws Exception {
+        PersistenceConfig noRetries = new PersistenceConfig.Builder()
+            .busyTimeout(Duration.ZERO)
+            .busyRetries(0)
+            .build();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch attempted = new CountDownLatch(1);
+
+        try (GameDAO other = new GameDAO(TEST_DB, noRetries)) {
+            CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> gameDAO.runInTransaction(() -> {
+                gameDAO.saveGame(createTestGameRecord());
+                locked.countDown();
+                awaitQuietly(attempted);
+            }));
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+            RuntimeException failure = assertThrows(RuntimeException.class, () -> other.saveGame(createTestGameRecord()));
+            attempted.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+
+            assertTrue(GameDAO.isBusy(failure));
+            assertEquals(1, gameDAO.countGames());
+        }
+    }
+
+    @Test
+    void testGameLockIsExclusiveUntilReleased() {
+        try (GameDAO other = new GameDAO(TEST_DB)) {
+            assertTrue(gameDAO.tryLockGame(1));
+            assertTrue(gameDAO.tryLockGame(1));
+            assertFalse(other.tryLockGame(1));
+            assertTrue(other.tryLockGame(2));
+
+            gameDAO.unlockGame(1);
+            assertTrue(other.tryLockGame(1));
+            assertFalse(gameDAO.tryLockGame(1));
+        }
+    }
+
+    @Test
+    void testReadAfterCloseFailsInsteadOfWaiting() {
+        gameDAO.saveGame(createTestGameRecord());
+        gameDAO.close();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            RuntimeException failure = assertThrows(RuntimeException.class, gameDAO::countGames);
+            assertInstanceOf(SQLException.class, failure.getCause());
+        });
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     private GameRecord createTestGameRecord() {
@@ -86,14 +475,22 @@ class GameDAOTest {
             "IN_PROGRESS",
             LocalDateTime.now(),
             null,
-            "[]"
+            List.of()
         );
     }
 
+    private GameRecord startedAt(LocalDateTime startedAt) {
+        return new GameRecord(null, "1 2 3 4", 10, 4, 9, "IN_PROGRESS", startedAt, null, List.of());
+    }
+
     private void deleteTestDb() {
-        File testDbFile = new File(TEST_DB);
-        if (testDbFile.exists()) {
-            testDbFile.delete();
+        for (String db : new String[]{TEST_DB, BACKUP_DB}) {
+            for (String suffix : new String[]{"", "-wal", "-shm", ".lock"}) {
+                File file = new File(db + suffix);
+                if (file.exists()) {
+                    file.delete();
+                }
+            }
         }
     }
 }
@@ -0,0 +1,368 @@
+package org.alanc.mastermind.persistence;
+
+import org.alanc.mastermind.config.DurabilityMode;
+import org.alanc.mastermind.config.GameConfig;
+import org.alanc.mastermind.config.PersistenceConfig;
+import org.alanc.mastermind.game.GameState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for GamePersistenceService save/resume flows across durability modes.
+ */
+class GamePersistenceServiceTest {
+    private static final String TEST_DB = "test_persistence_service.db";
+
+    @BeforeEach
+    void setUp() {
+        deleteTestDb();
+    }
+
+    @AfterEach
+    void tearDown() {
+        deleteTestDb();
+    }
+
+    @ParameterizedTest
+    @EnumSource(DurabilityMode.class)
+    void testResumeSeesRecordedGuesses(DurabilityMode mode) throws Exception {
+        try (GamePersistenceService service = createService(mode)) {
+            GameState state = GameState.createNew("1 2 3 4", GameConfig.defaults());
+            LocalDateTime startedAt = LocalDateTime.now();
+            Long gameId = service.saveNewGame(state, startedAt).getId();
+
+            state = state.withGuess(new int[]{1, 2, 3, 5});
+            service.recordGuess(state, gameId);
+            state = state.withGuess(new int[]{4, 3, 2, 1});
+            service.recordGuess(state, gameId);
+
+            Optional<GameConverter.GameStateResult> resumed = service.getLastIncompleteGame();
+            assertTrue(resumed.isPresent());
+            assertEquals(gameId, resumed.get().gameId());
+            assertEquals(2, resumed.get().gameState().getGuessHistory().size());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(DurabilityMode.class)
+    void testFinishedGameSurvivesReopen(DurabilityMode mode) throws Exception {
+        try (GamePersistenceService service = createService(mode)) {
+            GameState state = GameState.createNew("1 2 3 4", GameConfig.defaults());
+            LocalDateTime startedAt = LocalDateTime.now();
+            Long gameId = service.saveNewGame(state, startedAt).getId();
+
+            state = state.withGuess(new int[]{1, 2, 3, 4});
+            service.recordGuess(state, gameId);
+            service.updateGame(state, gameId, startedAt);
+        }
+
+        try (GamePersistenceService reopened = createService(mode)) {
+            List<GameRecord> games = reopened.getGamesPage(null, 10).games();
+            assertEquals(1, games.size());
+            assertEquals(GameStatus.WON.name(), games.get(0).getStatus());
+            assertTrue(reopened.getLastIncompleteGame().isEmpty());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(DurabilityMode.class)
+    void testStreamAllGamesSpansPages(DurabilityMode mode) throws Exception {
+        try (GamePersistenceService service = createService(mode)) {
+            LocalDateTime startedAt = LocalDateTime.now();
+            for (int i = 0; i < 7; i++) {
+                GameState state = GameState.createNew("1 2 3 4", GameConfig.defaults());
+                Long gameId = service.saveNewGame(state, startedAt.plusSeconds(i)).getId();
+                state = state.withGuess(new int[]{1, 2, 3, 5});
+                service.recordGuess(state, gameId);
+            }
+
+            List<GameRecord> games = service.streamAllGames(3).toList();
+
+            assertEquals(7, games.size());
+            assertEquals(7, service.countGames());
+            assertTrue(games.get(0).getStartedAt().isAfter(games.get(6).getStartedAt()));
+            // In-progress games include guesses from the guess log
+            assertTrue(games.stream().allMatch(game -> game.getGuesses().size() == 1));
+        }
+    }
+
+    @Test
+    void testExportedGamesImportIntoAnotherStore() throws Exception {
+        ByteArrayOutputStream exported = new ByteArrayOutputStream();
+        try (GamePersistenceService source = createService(DurabilityMode.PER_GUESS)) {
+            LocalDateTime startedAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+            for (int i = 0; i < 3; i++) {
+                GameState state = GameState.createNew("1 2 3 4", GameConfig.defaults());
+                Long gameId = source.saveNewGame(state, startedAt.plusMinutes(i)).getId();
+                state = state.withGuess(new int[]{1, 2, 3, 5}).withGuess(new int[]{1, 2, 3, 4});
+                source.updateGame(state, gameId, startedAt.plusMinutes(i));
+            }
+
+            assertEquals(3, source.exportGames(exported, ExportFormat.NDJSON));
+        }
+
+        try (GamePersistenceService target = new GamePersistenceService(new InMemoryGameStore())) {
+            assertEquals(3, target.importGames(new ByteArrayInputStream(exported.toByteArray())));
+
+            List<GameRecord> games = target.getGamesPage(null, 10).games();
+            assertEquals(3, games.size());
+            assertEquals(LocalDateTime.of(2024, 5, 1, 10, 2), games.get(0).getStartedAt());
+            assertEquals(List.of(
+                new GameConverter.GuessResult("1 2 3 5", 3, 3, false),
+                new GameConverter.GuessResult("1 2 3 4", 4, 4, true)), games.get(0).getGuesses());
+            assertEquals(3, target.getStatistics().get(0).wins());
+        }
+    }
+
+    @Test
+    void testExportAsCsv() throws Exception {
+        try (GamePersistenceService service = new GamePersistenceService(new InMemoryGameStore())) {
+            GameState state = GameState.createNew("1 2 3 4", GameConfig.defaults());
+            LocalDateTime startedAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+            Long gameId = service.saveNewGame(state, startedAt).getId();
+            service.recordGuess(state.withGuess(new int[]{1, 2, 3, 5}), gameId);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            service.exportGames(out, ExportFormat.CSV);
+
+            String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+            assertEquals(GameRecordCsv.HEADER, lines[0]);
+            assertEquals(gameId + ",1 2 3 4,10,4,7,IN_PROGRESS,2024-05-01T10:00,,1 2 3 5/3/3", lines[1]);
+        }
+    }
+
+    @Test
+    void testImportRejectsMalformedRecord() {
+        String input = "{\"secretCode\":\"1 2 3 4\",\"status\":\"WON\"}\n";
+        try (GamePersistenceService service = new GamePersistenceService(new InMemoryGameStore())) {
+            assertThrows(IOException.class,
+                () -> service.importGames(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))));
+            assertEquals(0, service.countGames());
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"a b", "1 2 3", "1 2 3 -4"})
+    void testImportRejectsInvalidGuess(String guess) {
+        String input = "{\"secretCode\":\"1 2 3 4\",\"maxAttempts\":10,\"codeLength\":4,\"maxNumber\":7,"
+            + "\"status\":\"IN_PROGRESS\",\"startedAt\":\"2024-05-01T10:00\",\"guesses\":[{\"guess\":\"" + guess
+            + "\",\"correctNumbers\":0,\"correctLocations\":0,\"allCorrect\":false}]}\n";
+        try (GamePersistenceService service = new GamePersistenceService(new InMemoryGameStore())) {
+            assertThrows(IOException.class,
+                () -> service.importGames(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))));
+            assertEquals(0, service.countGames());
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    @Test
+    void testRepeatedReadsAreServedFromCache() throws Exception {
+        CountingGameStore store = new CountingGameStore();
+        try (GamePersistenceService service = new GamePersistenceService(store)) {
+            LocalDateTime startedAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+            for (int i = 0; i < 25; i++) {
+                service.saveNewGame(GameState.createNew("1 2 3 4", GameConfig.defaults()), startedAt.plusMinutes(i));
+            }
+
+            // Claiming the game for resume reads it again past the cache, which then stays valid
+            assertTrue(service.getLastIncompleteGame().isPresent());
+            for (int visit = 0; visit < 3; visit++) {
+                assertTrue(service.isLastGameIncomplete());
+                GamePage first = service.getGamesPage(null, 10);
+                GamePage second = service.getGamesPage(first.nextCursor(), 10);
+                GamePage third = service.getGamesPage(second.nextCursor(), 10);
+                assertEquals(5, third.games().size());
+                assertFalse(third.hasMore());
+                service.getStatistics();
+                service.countGames();
+            }
+
+            assertEquals(2, store.pageQueries);
+            assertEquals(1, store.statisticsQueries);
+            assertEquals(1, store.countQueries);
+        }
+    }
+
+    @Test
+    void testWritesInvalidateCache() throws Exception {
+        CountingGameStore store = new CountingGameStore();
+        try (GamePersistenceService service = new GamePersistenceService(store)) {
+            LocalDateTime startedAt = LocalDateTime.now();
+            GameState state = GameState.createNew("1 2 3 4", GameConfig.defaults());
+            Long gameId = service.saveNewGame(state, startedAt).getId();
+            assertEquals(1, service.countGames());
+            assertEquals(0, service.getLastIncompleteGame().orElseThrow().gameState().getGuessHistory().size());
+
+            state = state.withGuess(new int[]{1, 2, 3, 5});
+            service.recordGuess(state, gameId);
+            assertEquals(1, service.getLastIncompleteGame().orElseThrow().gameState().getGuessHistory().size());
+
+            state = state.withGuess(new int[]{1, 2, 3, 4});
+            service.updateGame(state, gameId, startedAt);
+            assertFalse(service.isLastGameIncomplete());
+            assertEquals(1, service.getStatistics().get(0).wins());
+
+            service.clearAllGames();
+            assertEquals(0, service.countGames());
+            assertTrue(service.getGamesPage(null, 10).games().isEmpty());
+        }
+    }
+
+    @Test
+    void testPagesBeyondCachedGamesAreQueried() throws Exception {
+        CountingGameStore store = new CountingGameStore();
+        PersistenceConfig config = new PersistenceConfig.Builder().recentGamesCacheSize(5).build();
+        try (GamePersistenceService service = new GamePersistenceService(store, config)) {
+            LocalDateTime startedAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+            for (int i = 0; i < 12; i++) {
+                service.saveNewGame(GameState.createNew("1 2 3 4", GameConfig.defaults()), startedAt.plusMinutes(i));
+            }
+
+            List<GameRecord> games = service.streamAllGames(4).toList();
+
+            assertEquals(12, games.size());
+            assertEquals(startedAt, games.get(11).getStartedAt());
+            // The first page comes from the cache; the other two need queries
+            assertEquals(3, store.pageQueries);
+        }
+    }
+
+    @Test
+    void testGameBeingPlayedElsewhereIsNeitherResumedNorAbandoned() throws Exception {
+        try (GamePersistenceService playing = createService(DurabilityMode.PER_GUESS);
+             GamePersistenceService other = createService(DurabilityMode.PER_GUESS)) {
+            GameState state = GameState.createNew("1 2 3 4", GameConfig.defaults());
+            LocalDateTime startedAt = LocalDateTime.now();
+            Long gameId = playing.saveNewGame(state, startedAt).getId();
+
+            assertTrue(other.getLastIncompleteGame().isEmpty());
+            other.markLastGameAsAbandoned();
+            assertEquals(GameStatus.IN_PROGRESS.name(), other.getGamesPage(null, 1).games().get(0).getStatus());
+
+            // Once the player finishes, the other process must not act on its cached copy
+            state = state.withGuess(new int[]{1, 2, 3, 4});
+            playing.updateGame(state, gameId, startedAt);
+            assertTrue(other.getLastIncompleteGame().isEmpty());
+            other.markLastGameAsAbandoned();
+            assertEquals(GameStatus.WON.name(), playing.getGamesPage(null, 1).games().get(0).getStatus());
+        }
+    }
+
+    @Test
+    void testClaimedGameIsReleasedWhenAbandoned() throws Exception {
+        try (GamePersistenceService previous = createService(DurabilityMode.PER_GUESS)) {
+            previous.saveNewGame(GameState.createNew("1 2 3 4", GameConfig.defaults()), LocalDateTime.now());
+        }
+
+        try (GamePersistenceService first = createService(DurabilityMode.PER_GUESS);
+             GamePersistenceService second = createService(DurabilityMode.PER_GUESS)) {
+            // A game left by a closed process can be claimed, but only by one process at a time
+            assertTrue(first.getLastIncompleteGame().isPresent());
+            assertTrue(second.getLastIncompleteGame().isEmpty());
+
+            first.markLastGameAsAbandoned();
+            Long newGameId = second.saveNewGame(GameState.createNew("4 3 2 1", GameConfig.defaults()),
+                LocalDateTime.now()).getId();
+            assertTrue(first.getLastIncompleteGame().isEmpty());
+            assertEquals(newGameId, second.getLastIncompleteGame().orElseThrow().gameId());
+        }
+    }
+
+    @Test
+    void testGameCanAskForPerGuessDurability() throws Exception {
+        DurableWritesStore store = new DurableWritesStore();
+        PersistenceConfig config = new PersistenceConfig.Builder()
+            .durability(DurabilityMode.PERIODIC_CHECKPOINT)
+            .maxStaleness(Duration.ofHours(1))
+            .build();
+        try (GamePersistenceService service = new GamePersistenceService(store, config)) {
+            LocalDateTime startedAt = LocalDateTime.now();
+            GameState casual = GameState.createNew("1 2 3 4", GameConfig.defaults());
+            Long casualId = service.saveNewGame(casual, startedAt).getId();
+            casual = casual.withGuess(new int[]{1, 2, 3, 5});
+            service.recordGuess(casual, casualId);
+
+            assertTrue(store.getAppendedGuesses(casualId).isEmpty()); // still queued
+            assertEquals(0, store.durableWrites);
+
+            GameState ranked = GameState.createNew("5 6 7 1", GameConfig.defaults());
+            Long rankedId = service.saveNewGame(ranked, startedAt).getId();
+            ranked = ranked.withGuess(new int[]{5, 6, 7, 0});
+            service.recordGuess(ranked, rankedId, DurabilityMode.PER_GUESS);
+
+            assertEquals(1, store.getAppendedGuesses(rankedId).size());
+            assertEquals(1, store.getAppendedGuesses(casualId).size()); // queued writes go first
+            assertEquals(1, store.durableWrites);
+
+            ranked = ranked.withGuess(new int[]{5, 6, 7, 1});
+            service.updateGame(ranked, rankedId, startedAt, DurabilityMode.PER_GUESS);
+            assertEquals(2, store.durableWrites);
+        }
+    }
+
+    private GamePersistenceService createService(DurabilityMode mode) {
+        return new GamePersistenceService(new GameDAO(TEST_DB),
+            new PersistenceConfig.Builder().durability(mode).build());
+    }
+
+    private static class DurableWritesStore extends InMemoryGameStore {
+        int durableWrites;
+
+        @Override
+        public void runDurably(Runnable work) {
+            durableWrites++;
+            super.runDurably(work);
+        }
+    }
+
+    private static class CountingGameStore extends InMemoryGameStore {
+        int pageQueries;
+        int statisticsQueries;
+        int countQueries;
+
+        @Override
+        public GamePage getGamesPage(GamePage.Cursor after, int pageSize) {
+            pageQueries++;
+            return super.getGamesPage(after, pageSize);
+        }
+
+        @Override
+        public List<GameStats> getStatistics() {
+            statisticsQueries++;
+            return super.getStatistics();
+        }
+
+        @Override
+        public long countGames() {
+            countQueries++;
+            return super.countGames();
+        }
+    }
+
+    private void deleteTestDb() {
+        for (String suffix : new String[]{"", "-wal", "-shm", ".lock"}) {
+            File file = new File(TEST_DB + suffix);
+            if (file.exists()) {
+                file.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.alanc.mastermind.persistence;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Game records shared by the store tests.
+ */
+final class GameRecords {
+
+    private GameRecords() {
+        // Utility class
+    }
+
+    /**
+     * Creates an unsaved in-progress game with the default configuration.
+     */
+    static GameRecord createRecord(LocalDateTime startedAt) {
+        return new GameRecord(null, "1 2 3 4", 10, 4, 7, "IN_PROGRESS", startedAt, null, List.of());
+    }
+
+    /**
+     * Finishes a game five minutes after it started. A won game gets a single guess matching
+     * its secret code, any other game gets no guesses.
+     */
+    static GameRecord finish(GameRecord record, String status) {
+        List<GameConverter.GuessResult> guesses = "WON".equals(status)
+            ? List.of(new GameConverter.GuessResult(record.getSecretCode(), record.getCodeLength(), record.getCodeLength(), true))
+            : List.of();
+        return finish(record, status, guesses);
+    }
+
+    static GameRecord finish(GameRecord record, String status, List<GameConverter.GuessResult> guesses) {
+        return new GameRecord(record.getId(), record.getSecretCode(), record.getMaxAttempts(), record.getCodeLength(),
+            record.getMaxNumber(), status, record.getStartedAt(), record.getStartedAt().plusMinutes(5), guesses);
+    }
+}
@@ -0,0 +1,173 @@
+package org.alanc.mastermind.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for GameSchema creation and migration of older databases.
+ */
+class GameSchemaTest {
+    private static final String TEST_DB = "test_schema.db";
+
+    @BeforeEach
+    void setUp() {
+        deleteTestDb();
+    }
+
+    @AfterEach
+    void tearDown() {
+        deleteTestDb();
+    }
+
+    @Test
+    void testNewDatabaseIsCreatedAtCurrentVersion() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + TEST_DB)) {
+            GameSchema.apply(connection);
+
+            assertEquals(GameSchema.CURRENT_VERSION, userVersion(connection));
+            assertTrue(indexExists(connection, "idx_games_started_at"));
+            assertTrue(indexExists(connection, "idx_games_status"));
+        }
+    }
+
+    @Test
+    void testVersionZeroTextTimestampsAreMigrated() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + TEST_DB);
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE games (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    secret_code TEXT NOT NULL,
+                    max_attempts INTEGER NOT NULL,
+                    code_length INTEGER NOT NULL,
+                    max_number INTEGER NOT NULL,
+                    status TEXT NOT NULL,
+                    started_at TEXT NOT NULL,
+                    completed_at TEXT,
+                    guesses_json TEXT
+                )
+                """);
+            stmt.execute("""
+                INSERT INTO games (secret_code, max_attempts, code_length, max_number, status, started_at, completed_at, guesses_json)
+                VALUES ('1 2 3 4', 10, 4, 7, 'WON', '2024-01-02T10:00:00.5', '2024-01-02T10:05:00', '[]'),
+                       ('4 3 2 1', 10, 4, 7, 'IN_PROGRESS', '2024-01-03T09:00:00', NULL, '[]')
+                """);
+        }
+
+        try (GameDAO gameDAO = new GameDAO(TEST_DB)) {
+            GameRecord last = gameDAO.getLastIncompleteGame().orElseThrow();
+            assertEquals("4 3 2 1", last.getSecretCode());
+            assertEquals(LocalDateTime.of(2024, 1, 3, 9, 0), last.getStartedAt());
+
+            GameRecord first = gameDAO.getGamesPage(null, 10).games().get(1);
+            assertEquals(LocalDateTime.of(2024, 1, 2, 10, 0, 0, 500_000_000), first.getStartedAt());
+            assertEquals(LocalDateTime.of(2024, 1, 2, 10, 5), first.getCompletedAt());
+        }
+
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + TEST_DB)) {
+            assertEquals(GameSchema.CURRENT_VERSION, userVersion(connection));
+            assertTrue(indexExists(connection, "idx_games_started_at"));
+        }
+    }
+
+    @Test
+    void testVersionOneJsonGuessesAreReencoded() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + TEST_DB);
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE games (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    secret_code TEXT NOT NULL,
+                    max_attempts INTEGER NOT NULL,
+                    code_length INTEGER NOT NULL,
+                    max_number INTEGER NOT NULL,
+                    status TEXT NOT NULL,
+                    started_at INTEGER NOT NULL,
+                    completed_at INTEGER,
+                    guesses_json TEXT
+                )
+                """);
+            stmt.execute("""
+                INSERT INTO games (secret_code, max_attempts, code_length, max_number, status, started_at, completed_at, guesses_json)
+                VALUES ('1 2 3 4', 10, 4, 7, 'WON', 1000, 2000,
+                        '[{"guess":"1 2 3 5","correctNumbers":3,"correctLocations":3,"allCorrect":false},'
+                        || '{"guess":"1 2 3 4","correctNumbers":4,"correctLocations":4,"allCorrect":true}]')
+                """);
+            stmt.execute("PRAGMA user_version = 1");
+        }
+
+        try (GameDAO gameDAO = new GameDAO(TEST_DB)) {
+            GameRecord record = gameDAO.getLastGame().orElseThrow();
+            assertEquals(List.of(
+                new GameConverter.GuessResult("1 2 3 5", 3, 3, false),
+                new GameConverter.GuessResult("1 2 3 4", 4, 4, true)
+            ), record.getGuesses());
+            assertEquals(2, record.getGuessCount());
+            assertEquals(new GameConverter.GuessResult("1 2 3 4", 4, 4, true), record.getLastGuess());
+
+            // Statistics are backfilled from the games already finished
+            GameStats stats = gameDAO.getStatistics().get(0);
+            assertEquals(1, stats.wins());
+            assertEquals(Map.of(2, 1L), stats.guessesToWin());
+        }
+
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + TEST_DB)) {
+            assertEquals(GameSchema.CURRENT_VERSION, userVersion(connection));
+            assertFalse(columnExists(connection, "guesses_json"));
+        }
+    }
+
+    @Test
+    void testNewerSchemaVersionIsRejected() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + TEST_DB);
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA user_version = " + (GameSchema.CURRENT_VERSION + 1));
+
+            assertThrows(SQLException.class, () -> GameSchema.apply(connection));
+        }
+    }
+
+    private int userVersion(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.getInt(1);
+        }
+    }
+
+    private boolean indexExists(Connection connection, String name) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                 "SELECT 1 FROM sqlite_master WHERE type = 'index' AND name = '" + name + "'")) {
+            return rs.next();
+        }
+    }
+
+    private boolean columnExists(Connection connection, String column) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT 1 FROM pragma_table_info('games') WHERE name = '" + column + "'")) {
+            return rs.next();
+        }
+    }
+
+    private void deleteTestDb() {
+        for (String suffix : new String[]{"", "-wal", "-shm"}) {
+            File file = new File(TEST_DB + suffix);
+            if (file.exists()) {
+                file.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.alanc.mastermind.persistence;
+
+import org.alanc.mastermind.config.PersistenceConfig;
+import org.alanc.mastermind.config.StorageBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.alanc.mastermind.persistence.GameRecords.createRecord;
+import static org.alanc.mastermind.persistence.GameRecords.finish;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for InMemoryGameStore.
+ */
+class InMemoryGameStoreTest {
+    private InMemoryGameStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryGameStore();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void testOpenSelectsBackendFromConfig() {
+        try (GameStore opened = GameStore.open(new PersistenceConfig.Builder().backend(StorageBackend.IN_MEMORY).build())) {
+            assertInstanceOf(InMemoryGameStore.class, opened);
+        }
+    }
+
+    @Test
+    void testSaveAndGetLastGame() {
+        GameRecord first = store.saveGame(createRecord(LocalDateTime.now().minusMinutes(1)));
+        GameRecord second = store.saveGame(createRecord(LocalDateTime.now()));
+
+        assertNotEquals(first.getId(), second.getId());
+        assertEquals(second.getId(), store.getLastGame().orElseThrow().getId());
+        assertTrue(store.isLastGameIncomplete());
+        assertEquals(2, store.countGames());
+    }
+
+    @Test
+    void testUpdateClearsAppendedGuessesAndCountsFinishOnce() {
+        GameRecord saved = store.saveGame(createRecord(LocalDateTime.now()));
+        store.appendGuess(saved.getId(), 1, new GameConverter.GuessResult("1 2 3 4", 4, 4, true));
+        store.appendGuess(saved.getId(), 0, new GameConverter.GuessResult("1 2 3 5", 3, 3, false));
+        List<GameConverter.GuessResult> appended = store.getAppendedGuesses(saved.getId());
+        assertEquals("1 2 3 5", appended.get(0).guess());
+
+        GameRecord won = new GameRecord(saved.getId(), "1 2 3 4", 10, 4, 7, "WON",
+            saved.getStartedAt(), LocalDateTime.now(), appended);
+        store.updateGame(won);
+        store.updateGame(won);
+
+        assertTrue(store.getAppendedGuesses(saved.getId()).isEmpty());
+        assertTrue(store.getLastIncompleteGame().isEmpty());
+        GameStats stats = store.getStatistics().get(0);
+        assertEquals(1, stats.wins());
+        assertEquals(Map.of(2, 1L), stats.guessesToWin());
+    }
+
+    @Test
+    void testGamesPagesWalkHistoryNewestFirst() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int i = 0; i < 5; i++) {
+            store.saveGame(createRecord(base.plusMinutes(i)));
+        }
+
+        GamePage first = store.getGamesPage(null, 3);
+        GamePage second = store.getGamesPage(first.nextCursor(), 3);
+
+        assertEquals(base.plusMinutes(4), first.games().get(0).getStartedAt());
+        assertTrue(first.hasMore());
+        assertEquals(2, second.games().size());
+        assertEquals(base, second.games().get(1).getStartedAt());
+        assertFalse(second.hasMore());
+    }
+
+    @Test
+    void testConcurrentSavesGetUniqueIds() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> ids.add(store.saveGame(createRecord(LocalDateTime.now())).getId()));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1000, ids.size());
+        assertEquals(1000, store.countGames());
+    }
+
+    @Test
+    void testDeleteAllGames() {
+        GameRecord saved = store.saveGame(createRecord(LocalDateTime.now()));
+        store.updateGame(finish(saved, "LOST"));
+
+        store.deleteAllGames();
+
+        assertEquals(0, store.countGames());
+        assertTrue(store.getLastGame().isEmpty());
+        assertTrue(store.getStatistics().isEmpty());
+    }
+}
@@ -0,0 +1,263 @@
+package org.alanc.mastermind.persistence;
+
+import org.alanc.mastermind.config.DurabilityMode;
+import org.alanc.mastermind.config.PersistenceConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.alanc.mastermind.persistence.GameRecords.createRecord;
+import static org.alanc.mastermind.persistence.GameRecords.finish;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ShardedGameStore.
+ */
+class ShardedGameStoreTest {
+    private static final int SHARDS = 3;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    @TempDir
+    Path directory;
+
+    private ShardedGameStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ShardedGameStore(config(SHARDS));
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    private PersistenceConfig config(int shardCount) {
+        return new PersistenceConfig.Builder()
+            .databasePath(directory.resolve("games.db").toString())
+            .shardCount(shardCount)
+            .build();
+    }
+
+    @Test
+    void testOpenSelectsShardedStoreForSeveralShards() {
+        store.close();
+        try (GameStore opened = GameStore.open(config(SHARDS))) {
+            assertInstanceOf(ShardedGameStore.class, opened);
+        }
+        store = new ShardedGameStore(config(SHARDS));
+    }
+
+    @Test
+    void testShardPathNumbersEachFile() {
+        assertEquals("games-0.db", ShardedGameStore.shardPath("games.db", 0));
+        assertEquals("data/games-2.db", ShardedGameStore.shardPath("data/games.db", 2));
+        assertEquals("data.v1/games-1", ShardedGameStore.shardPath("data.v1/games", 1));
+    }
+
+    @Test
+    void testGamesAreSpreadOverShardsAndRoutedById() {
+        List<GameRecord> saved = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            saved.add(store.saveGame(createRecord(START.plusMinutes(i))));
+        }
+
+        Set<Long> shardsUsed = new HashSet<>();
+        for (GameRecord record : saved) {
+            shardsUsed.add(record.getId() % SHARDS);
+        }
+        assertEquals(Set.of(0L, 1L, 2L), shardsUsed);
+        for (int shard = 0; shard < SHARDS; shard++) {
+            assertTrue(Files.exists(Path.of(ShardedGameStore.shardPath(directory.resolve("games.db").toString(), shard))));
+        }
+
+        GameRecord target = saved.get(4);
+        store.appendGuess(target.getId(), 0, new GameConverter.GuessResult("1 2 3 5", 3, 3, false));
+        assertEquals(1, store.getAppendedGuesses(target.getId()).size());
+        assertTrue(store.getAppendedGuesses(saved.get(3).getId()).isEmpty());
+
+        store.updateGame(finish(target, "WON"));
+        GameRecord loaded = store.getGamesPage(null, 10).games().stream()
+            .filter(record -> record.getId().equals(target.getId()))
+            .findFirst().orElseThrow();
+        assertEquals("WON", loaded.getStatus());
+        assertEquals(6, store.countGames());
+    }
+
+    @Test
+    void testPagesMergeShardsNewestFirst() {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            expected.add(0, store.saveGame(createRecord(START.plusMinutes(i % 4))).getId());
+        }
+        List<Long> paged = new ArrayList<>();
+        GamePage.Cursor cursor = null;
+        do {
+            GamePage page = store.getGamesPage(cursor, 3);
+            assertTrue(page.games().size() <= 3);
+            page.games().forEach(record -> paged.add(record.getId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        List<GameRecord> all = store.getGamesPage(null, 100).games();
+        assertEquals(all.stream().map(GameRecord::getId).toList(), paged);
+        assertEquals(10, new HashSet<>(paged).size());
+        for (int i = 1; i < all.size(); i++) {
+            GameRecord newer = all.get(i - 1);
+            GameRecord older = all.get(i);
+            assertTrue(newer.getStartedAt().isAfter(older.getStartedAt())
+                || newer.getStartedAt().equals(older.getStartedAt()) && newer.getId() > older.getId());
+        }
+    }
+
+    @Test
+    void testLastGameIsNewestAcrossShards() {
+        store.saveGame(createRecord(START.plusMinutes(5)));
+        GameRecord newest = store.saveGame(createRecord(START.plusMinutes(9)));
+        store.saveGame(createRecord(START.plusMinutes(1)));
+
+        assertEquals(newest.getId(), store.getLastIncompleteGame().orElseThrow().getId());
+        store.updateGame(finish(newest, "LOST"));
+        assertFalse(store.isLastGameIncomplete());
+        assertEquals(newest.getId(), store.getLastGame().orElseThrow().getId());
+    }
+
+    @Test
+    void testStatisticsAddUpAcrossShards() {
+        for (int i = 0; i < 6; i++) {
+            GameRecord saved = store.saveGame(createRecord(START.plusMinutes(i)));
+            store.updateGame(finish(saved, i < 4 ? "WON" : "LOST"));
+        }
+
+        List<GameStats> stats = store.getStatistics();
+        assertEquals(1, stats.size());
+        assertEquals(4, stats.get(0).wins());
+        assertEquals(2, stats.get(0).losses());
+        assertEquals(Map.of(1, 4L), stats.get(0).guessesToWin());
+    }
+
+    @Test
+    void testFinishedGamesBeforeAreOldestFirst() {
+        List<GameRecord> saved = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            GameRecord record = store.saveGame(createRecord(START.plusMinutes(10 - i)));
+            store.updateGame(finish(record, "WON"));
+            saved.add(record);
+        }
+
+        List<GameRecord> oldest = store.getFinishedGamesBefore(START.plusDays(1), 2);
+        assertEquals(List.of(saved.get(4).getId(), saved.get(3).getId()),
+            oldest.stream().map(GameRecord::getId).toList());
+
+        store.deleteGames(oldest.stream().map(GameRecord::getId).toList());
+        assertEquals(3, store.countGames());
+    }
+
+    @Test
+    void testTransactionCommitsEachShardsWritesAtTheEnd() {
+        List<GameRecord> saved = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            saved.add(store.saveGame(createRecord(START.plusMinutes(i))));
+        }
+
+        store.runInTransaction(() -> {
+            saved.forEach(record -> store.updateGame(finish(record, "WON")));
+            assertTrue(store.getStatistics().isEmpty());
+        });
+        assertEquals(3, store.getStatistics().get(0).wins());
+
+        assertThrows(IllegalStateException.class, () -> store.runInTransaction(() -> {
+            store.deleteAllGames();
+            throw new IllegalStateException("abort");
+        }));
+        assertEquals(3, store.countGames());
+    }
+
+    @Test
+    void testSaveGamesSpreadsBatchOverShards() {
+        List<GameRecord> records = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            records.add(createRecord(START.plusMinutes(i)));
+        }
+        store.saveGames(records);
+
+        assertEquals(7, store.countGames());
+        store.deleteAllGames();
+        assertEquals(0, store.countGames());
+    }
+
+    @Test
+    void testLocksAreTakenInTheGamesShard() {
+        GameRecord first = store.saveGame(createRecord(START));
+        GameRecord second = store.saveGame(createRecord(START.plusMinutes(1)));
+
+        try (ShardedGameStore other = new ShardedGameStore(config(SHARDS))) {
+            assertTrue(store.tryLockGame(first.getId()));
+            assertFalse(other.tryLockGame(first.getId()));
+            assertTrue(other.tryLockGame(second.getId()));
+            store.unlockGame(first.getId());
+            assertTrue(other.tryLockGame(first.getId()));
+        }
+    }
+
+    @Test
+    void testBatchFailingInOneShardIsRetriedWithoutWedgingTheQueue() throws Exception {
+        store.close();
+        PersistenceConfig config = PersistenceConfig.Builder.from(config(SHARDS))
+            .durability(DurabilityMode.PERIODIC_CHECKPOINT)
+            .maxStaleness(Duration.ofHours(1))
+            .busyTimeout(Duration.ZERO)
+            .busyRetries(0)
+            .build();
+        store = new ShardedGameStore(config);
+        List<GameRecord> saved = new ArrayList<>();
+        for (int i = 0; i < SHARDS; i++) {
+            saved.add(store.saveGame(createRecord(START.plusMinutes(i))));
+        }
+        String lockedShard = ShardedGameStore.shardPath(directory.resolve("games.db").toString(),
+            (int) (saved.get(1).getId() % SHARDS));
+
+        try (WriteBehindQueue queue = new WriteBehindQueue(store, config)) {
+            for (GameRecord game : saved) {
+                queue.appendGuess(game.getId(), 0, new GameConverter.GuessResult("1 2 3 5", 3, 3, false));
+            }
+            try (Connection writer = DriverManager.getConnection("jdbc:sqlite:" + lockedShard);
+                 Statement statement = writer.createStatement()) {
+                statement.execute("BEGIN IMMEDIATE");
+                assertThrows(RuntimeException.class, queue::flush);
+                assertEquals(1, store.getAppendedGuesses(saved.get(0).getId()).size()); // other shards committed
+                statement.execute("ROLLBACK");
+            }
+
+            queue.flush();
+        }
+        for (GameRecord game : saved) {
+            assertEquals(1, store.getAppendedGuesses(game.getId()).size());
+        }
+    }
+
+    @Test
+    void testReopeningWithAnotherShardCountIsRejected() {
+        store.saveGame(createRecord(START));
+        store.close();
+
+        assertThrows(IllegalStateException.class, () -> new ShardedGameStore(config(SHARDS + 1)));
+
+        store = new ShardedGameStore(config(SHARDS));
+        assertEquals(1, store.countGames());
+    }
+}
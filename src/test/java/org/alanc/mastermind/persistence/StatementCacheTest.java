@@ -0,0 +1,65 @@
+package org.alanc.mastermind.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for StatementCache statement reuse.
+ */
+class StatementCacheTest {
+    private StatementCache cache;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        cache = new StatementCache(DriverManager.getConnection("jdbc:sqlite::memory:"));
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        cache.close();
+    }
+
+    @Test
+    void testSameSqlReturnsSameStatement() throws SQLException {
+        PreparedStatement first = cache.prepare("SELECT ?");
+        PreparedStatement second = cache.prepare("SELECT ?");
+
+        assertSame(first, second);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testReusedStatementCanBeRebound() throws SQLException {
+        PreparedStatement stmt = cache.prepare("SELECT ? + 1");
+        stmt.setInt(1, 1);
+        try (ResultSet rs = stmt.executeQuery()) {
+            assertTrue(rs.next());
+            assertEquals(2, rs.getInt(1));
+        }
+
+        stmt = cache.prepare("SELECT ? + 1");
+        stmt.setInt(1, 41);
+        try (ResultSet rs = stmt.executeQuery()) {
+            assertTrue(rs.next());
+            assertEquals(42, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void testCloseClosesStatementsAndConnection() throws SQLException {
+        PreparedStatement stmt = cache.prepare("SELECT 1");
+
+        cache.close();
+
+        assertTrue(stmt.isClosed());
+        assertTrue(cache.connection().isClosed());
+    }
+}
@@ -0,0 +1,158 @@
+package org.alanc.mastermind.persistence;
+
+import org.alanc.mastermind.config.DurabilityMode;
+import org.alanc.mastermind.config.PersistenceConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.File;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the write-behind queue's batching, coalescing, draining and failure handling.
+ */
+class WriteBehindQueueTest {
+    private static final String TEST_DB = "test_write_behind.db";
+    private GameDAO gameDAO;
+
+    @BeforeEach
+    void setUp() {
+        deleteTestDb();
+        gameDAO = new GameDAO(TEST_DB);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gameDAO.close();
+        deleteTestDb();
+    }
+
+    @Test
+    void testFlushCommitsQueuedWrites() {
+        GameRecord saved = gameDAO.saveGame(createRecord(null, "IN_PROGRESS"));
+        try (WriteBehindQueue queue = new WriteBehindQueue(gameDAO, config(Duration.ofHours(1)))) {
+            queue.appendGuess(saved.getId(), 0, new GameConverter.GuessResult("1 2 3 5", 3, 3, false));
+            queue.appendGuess(saved.getId(), 1, new GameConverter.GuessResult("1 2 3 6", 3, 3, false));
+
+            queue.flush();
+
+            assertEquals(0, queue.getPendingCount());
+            assertEquals(2, gameDAO.getAppendedGuesses(saved.getId()).size());
+        }
+    }
+
+    @Test
+    void testUpdateCoalescesEarlierWritesForSameGame() {
+        GameRecord saved = gameDAO.saveGame(createRecord(null, "IN_PROGRESS"));
+        try (WriteBehindQueue queue = new WriteBehindQueue(gameDAO, config(Duration.ofHours(1)))) {
+            queue.appendGuess(saved.getId(), 0, new GameConverter.GuessResult("1 2 3 5", 3, 3, false));
+            queue.updateGame(createRecord(saved.getId(), "IN_PROGRESS"));
+            queue.updateGame(createRecord(saved.getId(), "WON"));
+
+            assertEquals(1, queue.getPendingCount());
+            queue.flush();
+        }
+        assertEquals("WON", gameDAO.getLastGame().orElseThrow().getStatus());
+    }
+
+    @Test
+    void testCloseDrainsQueue() {
+        GameRecord saved = gameDAO.saveGame(createRecord(null, "IN_PROGRESS"));
+        WriteBehindQueue queue = new WriteBehindQueue(gameDAO, config(Duration.ofHours(1)));
+        queue.updateGame(createRecord(saved.getId(), "LOST"));
+
+        queue.close();
+
+        assertEquals("LOST", gameDAO.getLastGame().orElseThrow().getStatus());
+        assertThrows(IllegalStateException.class, () -> queue.updateGame(createRecord(saved.getId(), "WON")));
+    }
+
+    @Test
+    void testMaxStalenessCommitsWithoutFlush() throws InterruptedException {
+        GameRecord saved = gameDAO.saveGame(createRecord(null, "IN_PROGRESS"));
+        try (WriteBehindQueue queue = new WriteBehindQueue(gameDAO, config(Duration.ofMillis(20)))) {
+            queue.appendGuess(saved.getId(), 0, new GameConverter.GuessResult("1 2 3 5", 3, 3, false));
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (queue.getPendingCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, queue.getPendingCount());
+        }
+    }
+
+    @Test
+    void testFailedBatchStaysQueuedAndFlushReportsIt() {
+        FailingStore store = new FailingStore();
+        GameRecord saved = store.saveGame(createRecord(null, "IN_PROGRESS"));
+        try (WriteBehindQueue queue = new WriteBehindQueue(store, config(Duration.ofHours(1)))) {
+            store.failing = true;
+            queue.appendGuess(saved.getId(), 0, new GameConverter.GuessResult("1 2 3 5", 3, 3, false));
+            queue.updateGame(createRecord(saved.getId(), "WON"));
+
+            RuntimeException e = assertThrows(RuntimeException.class, queue::flush);
+            assertSame(FailingStore.FAILURE, e.getCause());
+            assertEquals(1, queue.getPendingCount());
+            assertEquals("IN_PROGRESS", store.getLastGame().orElseThrow().getStatus());
+
+            store.failing = false;
+            queue.flush();
+
+            assertEquals(0, queue.getPendingCount());
+            assertEquals("WON", store.getLastGame().orElseThrow().getStatus());
+        }
+    }
+
+    @Test
+    void testCloseReportsWritesItCouldNotCommit() {
+        FailingStore store = new FailingStore();
+        GameRecord saved = store.saveGame(createRecord(null, "IN_PROGRESS"));
+        WriteBehindQueue queue = new WriteBehindQueue(store, config(Duration.ofHours(1)));
+        store.failing = true;
+        queue.updateGame(createRecord(saved.getId(), "LOST"));
+
+        RuntimeException e = assertThrows(RuntimeException.class, queue::close);
+        assertSame(FailingStore.FAILURE, e.getCause());
+        assertEquals(1, queue.getPendingCount());
+    }
+
+    /**
+     * In-memory store whose transactions fail while {@link #failing} is set.
+     */
+    private static class FailingStore extends InMemoryGameStore {
+        static final RuntimeException FAILURE = new RuntimeException("disk I/O error");
+        volatile boolean failing;
+
+        @Override
+        public void runInTransaction(Runnable work) {
+            if (failing) {
+                throw FAILURE;
+            }
+            super.runInTransaction(work);
+        }
+    }
+
+    private PersistenceConfig config(Duration maxStaleness) {
+        return new PersistenceConfig.Builder()
+            .durability(DurabilityMode.PERIODIC_CHECKPOINT)
+            .maxStaleness(maxStaleness)
+            .build();
+    }
+
+    private GameRecord createRecord(Long id, String status) {
+        return new GameRecord(id, "1 2 3 4", 10, 4, 7, status, LocalDateTime.now(), null, List.of());
+    }
+
+    private void deleteTestDb() {
+        for (String suffix : new String[]{"", "-wal", "-shm"}) {
+            File file = new File(TEST_DB + suffix);
+            if (file.exists()) {
+                file.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.alanc.mastermind.random;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.alanc.mastermind.config.HttpClientConfig;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+
+@DisplayName("HttpClientFactory Tests")
+class HttpClientFactoryTest {
+
+    private MockWebServer mockWebServer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should share one client across random services")
+    void testSharedClient() {
+        assertSame(HttpClientFactory.shared(), HttpClientFactory.shared());
+    }
+
+    @Test
+    @DisplayName("Should reject configuration after the client is created")
+    void testConfigureAfterCreation() {
+        HttpClientFactory.shared();
+
+        assertThrows(IllegalStateException.class, () -> HttpClientFactory.configure(HttpClientConfig.defaults()));
+    }
+
+    @Test
+    @DisplayName("Should record per-host request metrics for all services")
+    void testPerHostMetrics() {
+        String host = mockWebServer.url("/").host();
+        RequestMetrics.HostStats before = HttpClientFactory.metrics().getStats(host);
+
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("1\n2\n3\n4\n"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+        new RandomOrgService(mockWebServer.url("/integers/").toString()).generate(4, 0, 7);
+        new QuotaChecker(mockWebServer.url("/quota/").toString()).getQuota();
+
+        RequestMetrics.HostStats after = HttpClientFactory.metrics().getStats(host);
+        assertEquals(2, after.requests() - before.requests());
+        assertEquals(1, after.failures() - before.failures());
+    }
+}
@@ -0,0 +1,47 @@
+package org.alanc.mastermind.random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LatencyTracker Tests")
+class LatencyTrackerTest {
+
+    @Test
+    @DisplayName("Should report nothing until enough samples are recorded")
+    void testMinimumSamples() {
+        LatencyTracker tracker = new LatencyTracker(10, 3);
+        tracker.record(Duration.ofMillis(10));
+        tracker.record(Duration.ofMillis(20));
+
+        assertEquals(Optional.empty(), tracker.percentile(0.95));
+    }
+
+    @Test
+    @DisplayName("Should compute nearest-rank percentiles")
+    void testPercentile() {
+        LatencyTracker tracker = new LatencyTracker(100, 1);
+        for (int i = 1; i <= 100; i++) {
+            tracker.record(Duration.ofMillis(i));
+        }
+
+        assertEquals(Duration.ofMillis(50), tracker.percentile(0.5).orElseThrow());
+        assertEquals(Duration.ofMillis(95), tracker.percentile(0.95).orElseThrow());
+        assertEquals(Duration.ofMillis(100), tracker.percentile(1.0).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Should keep only the most recent samples")
+    void testRingBuffer() {
+        LatencyTracker tracker = new LatencyTracker(2, 1);
+        tracker.record(Duration.ofMillis(500));
+        tracker.record(Duration.ofMillis(10));
+        tracker.record(Duration.ofMillis(20));
+
+        assertEquals(2, tracker.getSampleCount());
+        assertEquals(Duration.ofMillis(20), tracker.percentile(1.0).orElseThrow());
+    }
+}
@@ -60,4 +60,45 @@ class QuotaCheckerTest {
 
         assertEquals(-1, quota); // Error indicator
     }
+
+    @Test
+    @DisplayName("Should estimate quota cost from range size")
+    void testEstimateCost() {
+        assertEquals(12, QuotaChecker.estimateCost(4, 0, 7));   // 3 bits each
+        assertEquals(16, QuotaChecker.estimateCost(4, 0, 8));   // 4 bits each
+        assertEquals(0, QuotaChecker.estimateCost(4, 5, 5));    // single value
+    }
+
+    @Test
+    @DisplayName("Should cache retrieved quota and decrement it locally")
+    void testCachedQuota() {
+        assertTrue(service.getCachedQuota().isEmpty());
+        assertTrue(service.hasQuotaFor(1_000_000));
+
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody("100"));
+        service.getQuota();
+        service.recordUsage(40);
+
+        assertEquals(60, service.getCachedQuota().getAsLong());
+        assertTrue(service.hasQuotaFor(60));
+        assertFalse(service.hasQuotaFor(61));
+        assertEquals(1, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    @DisplayName("Should treat an overdrawn quota as known and insufficient")
+    void testOverdrawnQuota() {
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody("-1"));
+        service.getQuota();
+
+        assertEquals(-1, service.getCachedQuota().getAsLong());
+        assertFalse(service.hasQuotaFor(1));
+
+        service.recordUsage(12);
+        assertEquals(-13, service.getCachedQuota().getAsLong());
+    }
 }
\ No newline at end of file
@@ -6,6 +6,9 @@ import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @DisplayName("RandomOrgService Tests")
 class RandomOrgServiceTest {
@@ -49,6 +52,84 @@ class RandomOrgServiceTest {
             assertTrue(request.getPath().contains("max=8"));
         }
 
+        @Test
+        @DisplayName("Should split a single batch response into multiple sequences")
+        void testBatchGeneration() throws InterruptedException {
+            mockWebServer.enqueue(new MockResponse()
+                    .setResponseCode(200)
+                    .setBody("5\n2\n8\n1\n0\n3\n3\n7\n"));
+
+            List<String> result = service.generateBatch(2, 4, 0, 8);
+
+            assertEquals(List.of("5 2 8 1", "0 3 3 7"), result);
+            assertEquals(1, mockWebServer.getRequestCount());
+
+            RecordedRequest request = mockWebServer.takeRequest();
+            assertTrue(request.getPath().contains("num=8"));
+        }
+
+        @Test
+        @DisplayName("Should reject short batch responses")
+        void testBatchGenerationShortResponse() {
+            mockWebServer.enqueue(new MockResponse()
+                    .setResponseCode(200)
+                    .setBody("5\n2\n8\n"));
+
+            assertNull(service.generateBatch(2, 4, 0, 8));
+        }
+
+        @Test
+        @DisplayName("Should skip the network when cached quota is insufficient")
+        void testSkipWhenQuotaExhausted() {
+            QuotaChecker quotaChecker = new QuotaChecker(mockWebServer.url("/quota/").toString());
+            mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("5"));
+            quotaChecker.getQuota();
+            RandomOrgService quotaAwareService =
+                    new RandomOrgService(mockWebServer.url("/integers/").toString(), quotaChecker);
+
+            assertNull(quotaAwareService.generate(4, 0, 7)); // needs 12 bits
+            assertEquals(1, mockWebServer.getRequestCount());
+        }
+
+        @Test
+        @DisplayName("Should report consumed bits to the quota checker")
+        void testRecordsQuotaUsage() {
+            QuotaChecker quotaChecker = new QuotaChecker(mockWebServer.url("/quota/").toString());
+            mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("100"));
+            mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("1\n2\n3\n4\n"));
+            quotaChecker.getQuota();
+            RandomOrgService quotaAwareService =
+                    new RandomOrgService(mockWebServer.url("/integers/").toString(), quotaChecker);
+
+            assertEquals("1 2 3 4", quotaAwareService.generate(4, 0, 7));
+            assertEquals(88, quotaChecker.getCachedQuota().getAsLong());
+        }
+
+        @Test
+        @DisplayName("Should cancel the HTTP call when the async result is cancelled")
+        void testAsyncCancellation() throws InterruptedException {
+            mockWebServer.enqueue(new MockResponse()
+                    .setResponseCode(200)
+                    .setBody("1\n2\n3\n4\n")
+                    .setHeadersDelay(5, TimeUnit.SECONDS));
+
+            CompletableFuture<String> future = service.generateAsync(4, 0, 7);
+            mockWebServer.takeRequest(); // wait until the request is in flight
+            assertTrue(future.cancel(true));
+
+            assertTrue(future.isCancelled());
+        }
+
+        @Test
+        @DisplayName("Should generate asynchronously")
+        void testAsyncGeneration() throws Exception {
+            mockWebServer.enqueue(new MockResponse()
+                    .setResponseCode(200)
+                    .setBody("5\n2\n8\n1\n"));
+
+            assertEquals("5 2 8 1", service.generateAsync(4, 0, 8).get(5, TimeUnit.SECONDS));
+        }
+
         @Test
         @DisplayName("Should handle API failures gracefully")
         void testApiFailure() {
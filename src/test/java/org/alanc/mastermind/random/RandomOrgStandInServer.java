@@ -0,0 +1,215 @@
+package org.alanc.mastermind.random;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.HttpUrl;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the random.org {@code /integers} and {@code /quota} endpoints
+ * used by RandomOrgService and QuotaChecker.
+ *
+ * Unlike scripted MockWebServer responses, it answers any number of requests with
+ * configurable latency, injected server errors, and a quota that depletes as numbers
+ * are served, so sustained load against game creation can be run offline.
+ */
+public class RandomOrgStandInServer implements AutoCloseable {
+    private final MockWebServer server = new MockWebServer();
+    private final LatencyDistribution latency;
+    private final double errorRate;
+    private final SplittableRandom random;
+    private final AtomicLong quota;
+    private final AtomicLong integerRequests = new AtomicLong();
+    private final AtomicLong quotaRequests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong quotaRejections = new AtomicLong();
+
+    private RandomOrgStandInServer(Builder builder) {
+        this.latency = builder.latency;
+        this.errorRate = builder.errorRate;
+        this.random = new SplittableRandom(builder.seed);
+        this.quota = new AtomicLong(builder.initialQuota);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return handle(request);
+            }
+        });
+    }
+
+    /**
+     * Starts the server on a random local port.
+     *
+     * @return this server for method chaining
+     */
+    public RandomOrgStandInServer start() throws IOException {
+        server.start();
+        return this;
+    }
+
+    /** @return the URL to pass to {@link RandomOrgService#RandomOrgService(String)} */
+    public String integersUrl() {
+        return server.url("/integers/").toString();
+    }
+
+    /** @return the URL to pass to {@link QuotaChecker#QuotaChecker(String)} */
+    public String quotaUrl() {
+        return server.url("/quota/").toString();
+    }
+
+    public long getRemainingQuota() { return quota.get(); }
+    public long getIntegerRequests() { return integerRequests.get(); }
+    public long getQuotaRequests() { return quotaRequests.get(); }
+    public long getInjectedErrors() { return injectedErrors.get(); }
+    public long getQuotaRejections() { return quotaRejections.get(); }
+
+    private MockResponse handle(RecordedRequest request) {
+        HttpUrl url = request.getRequestUrl();
+        if (url == null) {
+            return new MockResponse().setResponseCode(400);
+        }
+
+        String path = url.encodedPath();
+        if (path.startsWith("/quota")) {
+            quotaRequests.incrementAndGet();
+            return delayed(new MockResponse().setResponseCode(200).setBody(quota.get() + "\n"));
+        }
+        if (path.startsWith("/integers")) {
+            integerRequests.incrementAndGet();
+            return delayed(handleIntegers(url));
+        }
+        return new MockResponse().setResponseCode(404);
+    }
+
+    private MockResponse handleIntegers(HttpUrl url) {
+        int quantity;
+        int min;
+        int max;
+        try {
+            quantity = Integer.parseInt(url.queryParameter("num"));
+            min = Integer.parseInt(url.queryParameter("min"));
+            max = Integer.parseInt(url.queryParameter("max"));
+        } catch (NumberFormatException e) {
+            return new MockResponse().setResponseCode(400).setBody("Error: invalid parameters\n");
+        }
+
+        if (nextDouble() < errorRate) {
+            injectedErrors.incrementAndGet();
+            return new MockResponse().setResponseCode(500).setBody("Error: simulated failure\n");
+        }
+
+        long cost = QuotaChecker.estimateCost(quantity, min, max);
+        // random.org refuses requests once the quota is negative, and lets the last request overdraw it
+        if (quota.getAndUpdate(current -> current < 0 ? current : current - cost) < 0) {
+            quotaRejections.incrementAndGet();
+            return new MockResponse().setResponseCode(503).setBody("Error: Your quota has been exceeded\n");
+        }
+
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < quantity; i++) {
+            body.append(nextInt(min, max)).append('\n');
+        }
+        return new MockResponse().setResponseCode(200).setBody(body.toString());
+    }
+
+    private MockResponse delayed(MockResponse response) {
+        long delayNanos = latency.sample(this::nextDouble).toNanos();
+        return delayNanos > 0 ? response.setHeadersDelay(delayNanos, TimeUnit.NANOSECONDS) : response;
+    }
+
+    private synchronized double nextDouble() {
+        return random.nextDouble();
+    }
+
+    private synchronized int nextInt(int min, int max) {
+        return random.nextInt(min, max + 1);
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    /**
+     * Source of simulated response latencies. Samples are drawn from a uniform
+     * random source supplied by the server so runs are reproducible for a given seed.
+     */
+    @FunctionalInterface
+    public interface LatencyDistribution {
+        Duration sample(UniformSource uniform);
+
+        /** Every response takes the same time. */
+        static LatencyDistribution fixed(Duration latency) {
+            return uniform -> latency;
+        }
+
+        /** Latency drawn uniformly from [min, max]. */
+        static LatencyDistribution uniform(Duration min, Duration max) {
+            long span = max.toNanos() - min.toNanos();
+            return uniform -> min.plusNanos((long) (uniform.next() * span));
+        }
+
+        /** Exponentially distributed latency with the given mean. */
+        static LatencyDistribution exponential(Duration mean) {
+            return uniform -> Duration.ofNanos((long) (-Math.log(1 - uniform.next()) * mean.toNanos()));
+        }
+
+        /**
+         * Mostly {@code base} latency with a heavy tail: with probability {@code tailProbability}
+         * the response takes {@code tail} instead.
+         */
+        static LatencyDistribution withTail(Duration base, Duration tail, double tailProbability) {
+            return uniform -> uniform.next() < tailProbability ? tail : base;
+        }
+    }
+
+    /** Supplies uniformly distributed doubles in [0, 1). */
+    @FunctionalInterface
+    public interface UniformSource {
+        double next();
+    }
+
+    /**
+     * Builder for configuring the stand-in server.
+     */
+    public static class Builder {
+        private LatencyDistribution latency = LatencyDistribution.fixed(Duration.ZERO);
+        private double errorRate = 0;
+        private long initialQuota = 1_000_000;
+        private long seed = 42;
+
+        public Builder latency(LatencyDistribution latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        public Builder errorRate(double errorRate) {
+            if (errorRate < 0 || errorRate > 1) {
+                throw new IllegalArgumentException("errorRate must be between 0 and 1, got: " + errorRate);
+            }
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        public Builder initialQuota(long initialQuota) {
+            this.initialQuota = initialQuota;
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public RandomOrgStandInServer build() {
+            return new RandomOrgStandInServer(this);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.alanc.mastermind.random;
+
+import org.alanc.mastermind.config.GameConfig;
+import org.alanc.mastermind.config.HedgingConfig;
+import org.alanc.mastermind.game.GameLogic;
+import org.alanc.mastermind.game.GameState;
+import org.junit.jupiter.api.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RandomOrgStandInServer Tests")
+class RandomOrgStandInServerTest {
+
+    @Test
+    @DisplayName("Should serve integers and deplete the quota")
+    void testQuotaDepletion() throws Exception {
+        try (RandomOrgStandInServer server = new RandomOrgStandInServer.Builder()
+                .initialQuota(20)
+                .build()
+                .start()) {
+            RandomOrgService service = new RandomOrgService(server.integersUrl());
+            QuotaChecker quotaChecker = new QuotaChecker(server.quotaUrl());
+
+            assertEquals(4, service.generate(4, 0, 7).split(" ").length); // 12 bits
+            assertEquals(8, quotaChecker.getQuota());
+            assertNotNull(service.generate(4, 0, 7));                      // overdraws to -4
+            assertNull(service.generate(4, 0, 7));                         // refused
+            assertEquals(1, server.getQuotaRejections());
+        }
+    }
+
+    @Test
+    @DisplayName("Should inject server errors at the configured rate")
+    void testErrorInjection() throws Exception {
+        try (RandomOrgStandInServer server = new RandomOrgStandInServer.Builder()
+                .errorRate(1.0)
+                .build()
+                .start()) {
+            RandomOrgService service = new RandomOrgService(server.integersUrl());
+
+            assertNull(service.generate(4, 0, 7));
+            assertEquals(1, server.getInjectedErrors());
+        }
+    }
+
+    @Test
+    @DisplayName("Should sustain concurrent game creation under tail latency and errors")
+    void testSustainedGameCreation() throws Exception {
+        try (RandomOrgStandInServer server = new RandomOrgStandInServer.Builder()
+                .latency(RandomOrgStandInServer.LatencyDistribution.withTail(
+                        Duration.ofMillis(2), Duration.ofSeconds(2), 0.05))
+                .errorRate(0.05)
+                .build()
+                .start()) {
+            HedgingConfig hedging = new HedgingConfig(0.9, Duration.ofMillis(100), Duration.ofMillis(20), Duration.ofMillis(200));
+            GameLogic gameLogic = new GameLogic(new RandomOrgService(server.integersUrl()), hedging);
+            GameConfig config = GameConfig.defaults();
+            int threads = 4;
+            int gamesPerThread = 25;
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            long start = System.nanoTime();
+            try {
+                List<Future<Integer>> results = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    results.add(executor.submit(() -> {
+                        int created = 0;
+                        for (int i = 0; i < gamesPerThread; i++) {
+                            GameState game = gameLogic.createNewGame(config);
+                            assertEquals(config.getCodeLength(), game.getSecretCode().split(" ").length);
+                            created++;
+                        }
+                        return created;
+                    }));
+                }
+                int total = 0;
+                for (Future<Integer> result : results) {
+                    total += result.get();
+                }
+                Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+                assertEquals(threads * gamesPerThread, total);
+                assertTrue(elapsed.compareTo(Duration.ofSeconds(30)) < 0, "Load run took " + elapsed);
+                assertTrue(server.getIntegerRequests() > 0, "No game asked the stand-in server for a code");
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+}